@@ -0,0 +1,172 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Mutation and query costs of the Graph implementations, across graph sizes
+ * and densities. Run with {@code -Pjmh.profilers=gc} to see allocation per
+ * operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    private static final int MASK = 1023;
+
+    @Param({ "HashGraph", "ConcurrentGraph", "ConcreteEdgesGraph", "ConcreteVerticesGraph", "OffHeapGraph" })
+    public String implementation;
+
+    @Param({ "1000", "10000" })
+    public int vertices;
+
+    @Param({ "2", "16" })
+    public int degree;
+
+    private IndexedGraph<String> graph;
+    private String[] labels;
+    private String[] edgeSources;
+    private String[] edgeTargets;
+    private int next = 0;
+
+    /**
+     * Build a random graph with the given number of vertices and average
+     * out-degree, and pick the vertices and edges the benchmarks touch.
+     */
+    @Setup
+    public void setUp() {
+        switch (implementation) {
+        case "HashGraph": graph = new HashGraph<>(); break;
+        case "ConcurrentGraph": graph = new ConcurrentGraph<>(); break;
+        case "ConcreteEdgesGraph": graph = new ConcreteEdgesGraph<>(); break;
+        case "ConcreteVerticesGraph": graph = new ConcreteVerticesGraph<>(); break;
+        case "OffHeapGraph": graph = new OffHeapGraph(); break;
+        default: throw new IllegalArgumentException(implementation);
+        }
+        Random random = new Random(1);
+        String[] all = new String[vertices];
+        for (int i = 0; i < vertices; i++) {
+            all[i] = "v" + i;
+            graph.add(all[i]);
+        }
+        List<String[]> edges = new ArrayList<>();
+        for (int i = 0; i < vertices * degree; i++) {
+            String source = all[random.nextInt(vertices)];
+            String target = all[random.nextInt(vertices)];
+            graph.set(source, target, 1 + random.nextInt(100));
+            edges.add(new String[] { source, target });
+        }
+        labels = new String[MASK + 1];
+        edgeSources = new String[MASK + 1];
+        edgeTargets = new String[MASK + 1];
+        for (int i = 0; i <= MASK; i++) {
+            labels[i] = all[random.nextInt(vertices)];
+            String[] edge = edges.get(random.nextInt(edges.size()));
+            edgeSources[i] = edge[0];
+            edgeTargets[i] = edge[1];
+        }
+    }
+
+    private int next() {
+        return next++ & MASK;
+    }
+
+    @Benchmark
+    public boolean addExisting() {
+        return graph.add(labels[next()]);
+    }
+
+    @Benchmark
+    public int setUpdate() {
+        int i = next();
+        return graph.set(edgeSources[i], edgeTargets[i], 1 + (i & 63));
+    }
+
+    /**
+     * Count one more occurrence of an existing pair the way GraphPoet used
+     * to: copy the targets, look the pair up, and set it.
+     */
+    @Benchmark
+    public int countBySet() {
+        int i = next();
+        int weight = graph.targets(edgeSources[i]).getOrDefault(edgeTargets[i], 0);
+        graph.set(edgeSources[i], edgeTargets[i], weight + 1);
+        return graph.set(edgeSources[i], edgeTargets[i], weight);
+    }
+
+    /**
+     * Count one more occurrence of an existing pair with addWeight.
+     */
+    @Benchmark
+    public int countByAddWeight() {
+        int i = next();
+        graph.addWeight(edgeSources[i], edgeTargets[i], 1);
+        return graph.addWeight(edgeSources[i], edgeTargets[i], -1);
+    }
+
+    @Benchmark
+    public int setInsertAndRemove() {
+        int i = next();
+        graph.set(labels[i], edgeTargets[i], 0);
+        graph.set(labels[i], edgeTargets[i], 7);
+        return graph.set(labels[i], edgeTargets[i], 0);
+    }
+
+    @Benchmark
+    public boolean removeAndRestore() {
+        String vertex = labels[next()];
+        Map<String, Integer> targets = graph.targets(vertex);
+        Map<String, Integer> sources = graph.sources(vertex);
+        boolean removed = graph.remove(vertex);
+        graph.add(vertex);
+        targets.forEach((target, weight) -> graph.set(vertex, target, weight));
+        sources.forEach((source, weight) -> graph.set(source, vertex, weight));
+        return removed;
+    }
+
+    @Benchmark
+    public Map<String, Integer> targets() {
+        return graph.targets(labels[next()]);
+    }
+
+    @Benchmark
+    public Map<String, Integer> sources() {
+        return graph.sources(labels[next()]);
+    }
+
+    @Benchmark
+    public void forEachTarget(Blackhole blackhole) {
+        graph.forEachTarget(labels[next()], (target, weight) -> blackhole.consume(weight));
+    }
+
+    @Benchmark
+    public void forEachSource(Blackhole blackhole) {
+        graph.forEachSource(labels[next()], (source, weight) -> blackhole.consume(weight));
+    }
+
+    @Benchmark
+    public int weight() {
+        int i = next();
+        return graph.weight(edgeSources[i], edgeTargets[i]);
+    }
+}
@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.GraphBuilder.DuplicatePolicy;
+
+/**
+ * Cost of loading a list of weighted edges, with repeats, into a graph:
+ * one {@link IndexedGraph#addWeight addWeight} per edge, against a
+ * {@link GraphBuilder} that sums the repeats and then builds the graph.
+ * CompactGraph, which cannot be changed an edge at a time, is loaded per
+ * edge through a HashGraph and {@link CompactGraph#copyOf}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphLoadBenchmark {
+
+    @Param({ "HashGraph", "ConcurrentGraph", "ConcreteEdgesGraph", "CompactGraph" })
+    public String implementation;
+
+    @Param({ "20000" })
+    public int edges;
+
+    @Param({ "8" })
+    public int degree;
+
+    private String[] sources;
+    private String[] targets;
+    private int[] weights;
+    private Supplier<IndexedGraph<String>> factory;
+
+    /**
+     * Pick random edges between edges / degree vertices, with in-degrees
+     * skewed towards a few popular vertices as in a word graph, so that
+     * many edges repeat.
+     */
+    @Setup
+    public void setUp() {
+        switch (implementation) {
+        case "HashGraph": case "CompactGraph": factory = HashGraph::new; break;
+        case "ConcurrentGraph": factory = ConcurrentGraph::new; break;
+        case "ConcreteEdgesGraph": factory = ConcreteEdgesGraph::new; break;
+        default: throw new IllegalArgumentException(implementation);
+        }
+        int vertices = edges / degree;
+        String[] labels = new String[vertices];
+        for (int i = 0; i < vertices; i++) {
+            labels[i] = "v" + i;
+        }
+        Random random = new Random(1);
+        sources = new String[edges];
+        targets = new String[edges];
+        weights = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            double skew = random.nextDouble();
+            sources[i] = labels[random.nextInt(vertices)];
+            targets[i] = labels[(int) (skew * skew * skew * vertices)];
+            weights[i] = 1 + random.nextInt(3);
+        }
+    }
+
+    @Benchmark
+    public Graph<String> perEdge() {
+        IndexedGraph<String> graph = factory.get();
+        for (int i = 0; i < edges; i++) {
+            graph.addWeight(sources[i], targets[i], weights[i]);
+        }
+        return implementation.equals("CompactGraph") ? CompactGraph.copyOf(graph) : graph;
+    }
+
+    @Benchmark
+    public Graph<String> builder() {
+        GraphBuilder<String> builder = new GraphBuilder<>(DuplicatePolicy.SUM);
+        for (int i = 0; i < edges; i++) {
+            builder.addEdge(sources[i], targets[i], weights[i]);
+        }
+        return implementation.equals("CompactGraph") ? builder.buildCompact() : builder.build(factory);
+    }
+}
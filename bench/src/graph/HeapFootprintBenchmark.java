@@ -0,0 +1,114 @@
+package graph;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Measures, for each mutable Graph implementation, the heap and off-heap
+ * memory that a large random graph keeps, the garbage collections that
+ * building it causes, and the pause of a full collection while it is live.
+ * The edges of an OffHeapGraph are invisible to the collector, so its
+ * full collections should cost little more than those of an empty heap.
+ *
+ * <p>Usage: {@code HeapFootprintBenchmark [edges [degree]]}; run with a
+ * heap large enough for the largest implementation, such as
+ * {@code -Xmx3g}.
+ */
+public class HeapFootprintBenchmark {
+
+    private static final int PAUSES = 3;
+
+    private static Object live;
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args optional number of edges (default 4,000,000) and average
+     *             out-degree (default 16)
+     */
+    public static void main(String[] args) {
+        int edges = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        // OffHeapGraph first, before the other graphs leave the heap less
+        // than perfectly compacted, since its heap footprint is the smallest
+        List<Supplier<IndexedGraph<String>>> implementations = List.of(
+                OffHeapGraph::new, HashGraph::new, ConcreteVerticesGraph::new);
+        System.out.printf("%,d edges, out-degree %d%n", edges, degree);
+        System.out.printf("%-22s %9s %10s %10s %8s %9s %11s%n",
+                "graph", "build ms", "heap MB", "direct MB", "GCs", "GC ms", "full GC ms");
+        report("(empty heap)", null, edges, degree);
+        for (Supplier<IndexedGraph<String>> implementation : implementations) {
+            report(implementation.get().getClass().getSimpleName(), implementation, edges, degree);
+        }
+    }
+
+    private static void report(String name, Supplier<IndexedGraph<String>> implementation, int edges, int degree) {
+        live = null;
+        fullGc();
+        long heapBefore = heapUsed();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long start = System.nanoTime();
+        if (implementation != null) {
+            live = build(implementation.get(), edges, degree);
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+        double pause = 0;
+        for (int i = 0; i < PAUSES; i++) {
+            pause += fullGc();
+        }
+        System.out.printf("%-22s %9d %10.1f %10.1f %8d %9d %11.1f%n", name, buildMillis,
+                (heapUsed() - heapBefore) / 1e6,
+                live instanceof OffHeapGraph ? ((OffHeapGraph) live).offHeapBytes() / 1e6 : 0.0,
+                gcCount, gcTime, pause / PAUSES);
+    }
+
+    private static IndexedGraph<String> build(IndexedGraph<String> graph, int edges, int degree) {
+        int vertices = edges / degree;
+        String[] labels = new String[vertices];
+        for (int i = 0; i < vertices; i++) {
+            labels[i] = "w" + i;
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < edges; i++) {
+            // in-degrees skewed towards a few popular vertices, as in a word graph
+            double skew = random.nextDouble();
+            graph.addWeight(labels[random.nextInt(vertices)], labels[(int) (skew * skew * vertices)], 1);
+        }
+        return graph;
+    }
+
+    /**
+     * @return milliseconds taken by a full collection
+     */
+    private static double fullGc() {
+        long start = System.nanoTime();
+        System.gc();
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += gc.getCollectionTime();
+        }
+        return time;
+    }
+}
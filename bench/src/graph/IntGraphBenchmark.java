@@ -0,0 +1,184 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Query costs of IntHashGraph against HashGraph over the same Integer
+ * vertices: weight lookups, visiting the targets of a vertex, and the
+ * two-step search for the best bridge between two vertices that
+ * GraphPoet makes for each pair of words. Run with
+ * {@code -Pjmh.profilers=gc} to see allocation per query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntGraphBenchmark {
+
+    private static final int MASK = 1023;
+
+    @Param({ "HashGraph", "IntHashGraph" })
+    public String implementation;
+
+    @Param({ "10000" })
+    public int vertices;
+
+    @Param({ "16" })
+    public int degree;
+
+    private HashGraph<Integer> boxed;
+    private IntHashGraph primitive;
+    private int[] firsts;
+    private int[] seconds;
+    private Integer[] boxedFirsts;
+    private Integer[] boxedSeconds;
+    private int next = 0;
+
+    private final BoxedVisitor boxedVisitor = new BoxedVisitor();
+    private final IntVisitor intVisitor = new IntVisitor();
+
+    /**
+     * Build the same random graph in both implementations, and pick the
+     * pairs of vertices the benchmarks query: each an edge u -> v of the
+     * graph, paired as (u, a target of v), so that most pairs have bridges.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        boxed = new HashGraph<>();
+        primitive = new IntHashGraph();
+        int[][] edges = new int[vertices * degree][];
+        for (int i = 0; i < edges.length; i++) {
+            int source = random.nextInt(vertices);
+            int target = random.nextInt(vertices);
+            int weight = 1 + random.nextInt(100);
+            boxed.set(source, target, weight);
+            primitive.set(source, target, weight);
+            edges[i] = new int[] { source, target };
+        }
+        firsts = new int[MASK + 1];
+        seconds = new int[MASK + 1];
+        boxedFirsts = new Integer[MASK + 1];
+        boxedSeconds = new Integer[MASK + 1];
+        for (int i = 0; i <= MASK; i++) {
+            int[] edge = edges[random.nextInt(edges.length)];
+            int[] next = edges[random.nextInt(edges.length)];
+            firsts[i] = edge[0];
+            seconds[i] = next[1];
+            boxedFirsts[i] = firsts[i];
+            boxedSeconds[i] = seconds[i];
+        }
+        boxedVisitor.graph = boxed;
+        intVisitor.graph = primitive;
+    }
+
+    private int next() {
+        return next++ & MASK;
+    }
+
+    @Benchmark
+    public int weight() {
+        int i = next();
+        return implementation.equals("HashGraph")
+                ? boxed.weight(boxedFirsts[i], boxedSeconds[i])
+                : primitive.weight(firsts[i], seconds[i]);
+    }
+
+    @Benchmark
+    public long sumTargets() {
+        int i = next();
+        if (implementation.equals("HashGraph")) {
+            boxedVisitor.reset(null);
+            boxed.forEachTarget(boxedFirsts[i], boxedVisitor.summing);
+            return boxedVisitor.sum;
+        }
+        intVisitor.reset(-1);
+        primitive.forEachTarget(firsts[i], intVisitor.summing);
+        return intVisitor.sum;
+    }
+
+    @Benchmark
+    public int bridge() {
+        int i = next();
+        if (implementation.equals("HashGraph")) {
+            boxedVisitor.reset(boxedSeconds[i]);
+            boxed.forEachTarget(boxedFirsts[i], boxedVisitor);
+            return boxedVisitor.maxWeight;
+        }
+        intVisitor.reset(seconds[i]);
+        primitive.forEachTarget(firsts[i], intVisitor);
+        return intVisitor.maxWeight;
+    }
+
+    /**
+     * Bridge search and target sum over HashGraph, reused across queries.
+     */
+    private static final class BoxedVisitor implements ObjIntConsumer<Integer> {
+        HashGraph<Integer> graph;
+        Integer word2;
+        int maxWeight;
+        Integer bridge;
+        long sum;
+        final ObjIntConsumer<Integer> summing = (target, weight) -> sum += weight;
+
+        void reset(Integer word2) {
+            this.word2 = word2;
+            maxWeight = 0;
+            bridge = null;
+            sum = 0;
+        }
+
+        @Override
+        public void accept(Integer candidate, int first) {
+            int second = graph.weight(candidate, word2);
+            if (second > 0 && first + second > maxWeight) {
+                maxWeight = first + second;
+                bridge = candidate;
+            }
+        }
+    }
+
+    /**
+     * Bridge search and target sum over IntHashGraph, reused across queries.
+     */
+    private static final class IntVisitor implements IntGraph.EdgeVisitor {
+        IntGraph graph;
+        int word2;
+        int maxWeight;
+        int bridge;
+        long sum;
+        final IntGraph.EdgeVisitor summing = (target, weight) -> sum += weight;
+
+        void reset(int word2) {
+            this.word2 = word2;
+            maxWeight = 0;
+            bridge = -1;
+            sum = 0;
+        }
+
+        @Override
+        public void accept(int candidate, int first) {
+            int second = graph.weight(candidate, word2);
+            if (second > 0 && first + second > maxWeight) {
+                maxWeight = first + second;
+                bridge = candidate;
+            }
+        }
+    }
+}
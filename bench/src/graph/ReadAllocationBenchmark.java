@@ -0,0 +1,74 @@
+package graph;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Measures the heap allocated per call by the copying read path
+ * ({@link Graph#targets}, {@link Graph#sources}) and by the visitor read
+ * path ({@link IndexedGraph#forEachTarget}, {@link IndexedGraph#forEachSource}),
+ * for each IndexedGraph implementation.
+ *
+ * <p>Usage: {@code ReadAllocationBenchmark [degree]}
+ */
+public class ReadAllocationBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int CALLS = 100_000;
+
+    private static long sink;
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args optional degree of the vertex read (default 100)
+     */
+    public static void main(String[] args) {
+        int degree = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        List<IndexedGraph<String>> graphs = List.of(
+                new HashGraph<>(), new ConcreteEdgesGraph<>(), new ConcreteVerticesGraph<>());
+        System.out.printf("degree %d, bytes allocated per call%n", degree);
+        System.out.printf("%-22s %10s %14s %10s %14s%n",
+                "graph", "targets()", "forEachTarget", "sources()", "forEachSource");
+        for (IndexedGraph<String> graph : graphs) {
+            fill(graph, degree);
+            report(graph.getClass().getSimpleName(), graph);
+        }
+        IndexedGraph<String> filled = new HashGraph<>();
+        fill(filled, degree);
+        report("CompactGraph", CompactGraph.copyOf(filled));
+    }
+
+    private static void fill(Graph<String> graph, int degree) {
+        for (int i = 0; i < degree; i++) {
+            graph.set("hub", "w" + i, i + 1);
+            graph.set("w" + i, "hub", i + 1);
+        }
+    }
+
+    private static void report(String name, IndexedGraph<String> graph) {
+        ObjIntConsumer<String> visitor = (label, weight) -> sink += weight;
+        double targets = bytesPerCall(() -> sink += graph.targets("hub").size());
+        double forEachTarget = bytesPerCall(() -> graph.forEachTarget("hub", visitor));
+        double sources = bytesPerCall(() -> sink += graph.sources("hub").size());
+        double forEachSource = bytesPerCall(() -> graph.forEachSource("hub", visitor));
+        System.out.printf("%-22s %10.0f %14.0f %10.0f %14.0f%n",
+                name, targets, forEachTarget, sources, forEachSource);
+    }
+
+    private static double bytesPerCall(Runnable call) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < CALLS; i++) {
+            call.run();
+        }
+        long after = threads.getThreadAllocatedBytes(thread);
+        return (after - before) / (double) CALLS;
+    }
+}
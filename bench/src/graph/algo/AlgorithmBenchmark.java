@@ -0,0 +1,100 @@
+package graph.algo;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.CompactGraph;
+import graph.HashGraph;
+
+/**
+ * Costs of the graph algorithms on random graphs of millions of edges, with
+ * the in-degrees skewed towards a few popular vertices as in a word graph.
+ * The algorithms run on a CompactGraph, so these times leave out taking the
+ * snapshot, which {@link #snapshot} measures on its own.
+ *
+ * <p>PageRank runs a fixed number of iterations, so that runs with
+ * different numbers of threads do the same work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AlgorithmBenchmark {
+
+    private static final int DEGREE = 8;
+    private static final int PAGERANK_ITERATIONS = 20;
+
+    @Param({ "1000000", "4000000" })
+    public int edges;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private HashGraph<Integer> original;
+    private CompactGraph<Integer> graph;
+    private ForkJoinPool pool;
+    private int next = 0;
+
+    /**
+     * Build a random graph with the given number of edges and an average
+     * out-degree of 8.
+     */
+    @Setup
+    public void setUp() {
+        int vertices = edges / DEGREE;
+        Random random = new Random(1);
+        original = new HashGraph<>();
+        for (int v = 0; v < vertices; v++) {
+            original.add(v);
+        }
+        for (int i = 0; i < edges; i++) {
+            double skew = random.nextDouble();
+            original.set(random.nextInt(vertices), (int) (skew * skew * vertices), 1 + random.nextInt(100));
+        }
+        graph = CompactGraph.copyOf(original);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CompactGraph<Integer> snapshot() {
+        return CompactGraph.copyOf(original);
+    }
+
+    @Benchmark
+    public int dijkstra() {
+        return ShortestPaths.from(graph, graph.label(next++ % graph.vertexCount())).reachable();
+    }
+
+    @Benchmark
+    public int pageRank() {
+        return PageRank.compute(graph, PageRank.DEFAULT_DAMPING, Double.MIN_VALUE,
+                PAGERANK_ITERATIONS, pool).iterations();
+    }
+
+    @Benchmark
+    public int stronglyConnectedComponents() {
+        return StronglyConnectedComponents.of(graph).count();
+    }
+}
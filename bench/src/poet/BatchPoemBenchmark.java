@@ -0,0 +1,83 @@
+package poet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to write a batch of poems on a synthetic Zipf-distributed corpus:
+ * one poem() call per input, against poems() in the calling thread and on
+ * the common fork-join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchPoemBenchmark {
+
+    private static final int INPUT_WORDS = 8;
+
+    @Param({ "5000" })
+    public int vocabulary;
+
+    @Param({ "100000" })
+    public int corpusWords;
+
+    @Param({ "10000" })
+    public int batch;
+
+    private GraphPoet poet;
+    private List<String> inputs;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path corpus = Files.createTempFile("batch-poem-benchmark", ".txt");
+        Files.write(corpus, new SyntheticCorpus(vocabulary, 1.0, 1).text(corpusWords)
+                .getBytes(StandardCharsets.UTF_8));
+        poet = new GraphPoet(corpus, ForkJoinPool.commonPool());
+        Files.delete(corpus);
+        SyntheticCorpus words = new SyntheticCorpus(vocabulary, 1.0, 2);
+        inputs = new ArrayList<>();
+        for (int i = 0; i < batch; i++) {
+            inputs.add(words.text(INPUT_WORDS));
+        }
+    }
+
+    @Benchmark
+    public List<String> single() {
+        List<String> poems = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            poems.add(poet.poem(input));
+        }
+        return poems;
+    }
+
+    @Benchmark
+    public List<String> batch() {
+        return poet.poems(inputs);
+    }
+
+    @Benchmark
+    public List<String> parallelBatch() {
+        return poet.poems(inputs, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,85 @@
+package poet;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.ConcurrentGraph;
+import graph.GraphBuilder;
+
+/**
+ * The graph-loading half of building a GraphPoet, on the word IDs of a
+ * synthetic Zipf-distributed corpus: one addWeight on a ConcurrentGraph
+ * for each pair of words, as feed does, against counting the pairs in a
+ * GraphBuilder and building the ConcurrentGraph from it, as the corpus
+ * constructors do. A corpus repeats most of its pairs, so the builder sets
+ * each edge of the graph once where addWeight updates it once per repeat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CorpusLoadBenchmark {
+
+    @Param({ "1", "4" })
+    public int megabytes;
+
+    @Param({ "10000" })
+    public int vocabulary;
+
+    private int[] words;
+
+    /**
+     * Scan and intern the words of the corpus once, so that the benchmarks
+     * measure only loading the graph.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticCorpus corpus = new SyntheticCorpus(vocabulary, 1.0, 1);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < megabytes << 20) {
+            text.append(corpus.text(1000)).append('\n');
+        }
+        WordScanner scanner = new WordScanner(new StringReader(text.toString()));
+        TokenInterner interner = new TokenInterner();
+        int[] ids = new int[text.length() / 2];
+        int count = 0;
+        for (String word = scanner.next(); word != null; word = scanner.next()) {
+            ids[count++] = interner.intern(word);
+        }
+        words = Arrays.copyOf(ids, count);
+    }
+
+    @Benchmark
+    public ConcurrentGraph<Integer> perPair() {
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>();
+        for (int i = 1; i < words.length; i++) {
+            graph.addWeight(words[i - 1], words[i], 1);
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public ConcurrentGraph<Integer> builder() {
+        GraphBuilder<Integer> pairs = new GraphBuilder<>(GraphBuilder.DuplicatePolicy.SUM);
+        for (int i = 1; i < words.length; i++) {
+            pairs.addEdge(words[i - 1], words[i], 1);
+        }
+        return pairs.build(ConcurrentGraph::new);
+    }
+}
@@ -0,0 +1,63 @@
+package poet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time for GraphPoet.generate to write a text of a given number of words
+ * on a synthetic Zipf-distributed corpus. Divide by length for the time
+ * per word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateBenchmark {
+
+    @Param({ "5000" })
+    public int vocabulary;
+
+    @Param({ "100000" })
+    public int corpusWords;
+
+    @Param({ "1000" })
+    public int length;
+
+    private GraphPoet poet;
+    private String seed;
+    private long randomSeed = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path corpus = Files.createTempFile("generate-benchmark", ".txt");
+        Files.write(corpus, new SyntheticCorpus(vocabulary, 1.0, 1).text(corpusWords)
+                .getBytes(StandardCharsets.UTF_8));
+        poet = new GraphPoet(corpus, ForkJoinPool.commonPool());
+        Files.delete(corpus);
+        seed = new SyntheticCorpus(vocabulary, 1.0, 2).nextWord();
+        poet.generate(seed, 1, 0); // build the tables outside the measurement
+    }
+
+    @Benchmark
+    public String generate() {
+        return poet.generate(seed, length, randomSeed++);
+    }
+}
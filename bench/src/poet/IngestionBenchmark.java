@@ -0,0 +1,80 @@
+package poet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Corpus ingestion throughput of GraphPoet on a synthetic Zipf-distributed
+ * corpus. The {@code bytes} counter reports throughput in bytes of corpus
+ * per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({ "1", "16" })
+    public int megabytes;
+
+    @Param({ "10000" })
+    public int vocabulary;
+
+    private Path corpus;
+    private long size;
+    private ForkJoinPool pool;
+
+    /**
+     * Bytes of corpus ingested, reported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = new SyntheticCorpus(vocabulary, 1.0, 1).writeTempFile((long) megabytes << 20);
+        size = Files.size(corpus);
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(corpus);
+    }
+
+    @Benchmark
+    public GraphPoet sequential(Throughput throughput) throws IOException {
+        throughput.bytes += size;
+        return new GraphPoet(corpus);
+    }
+
+    @Benchmark
+    public GraphPoet parallel(Throughput throughput) throws IOException {
+        throughput.bytes += size;
+        return new GraphPoet(corpus, pool);
+    }
+}
@@ -0,0 +1,60 @@
+package poet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the parallel GraphPoet build scales with the number of
+ * threads, against the sequential build.
+ *
+ * <p>Usage: {@code ParallelBuildBenchmark [corpusMegabytes] [maxThreads]}
+ */
+public class ParallelBuildBenchmark {
+
+    private static final int REPETITIONS = 3;
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args optional corpus size in megabytes (default 64) and maximum
+     *             number of threads (default the number of processors)
+     * @throws IOException if the synthetic corpus cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        Path corpus = new SyntheticCorpus(50_000, 1.0, 1).writeTempFile((long) megabytes << 20);
+        double size = Files.size(corpus) / (1024.0 * 1024.0);
+
+        double sequential = best(() -> new GraphPoet(corpus));
+        System.out.printf("corpus %.1f MB%n", size);
+        System.out.printf("sequential  %8.0f ms  %7.1f MB/s%n", sequential, size / sequential * 1000);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double parallel = best(() -> new GraphPoet(corpus, pool));
+            pool.shutdown();
+            System.out.printf("%2d threads  %8.0f ms  %7.1f MB/s  speedup %.2fx%n",
+                    threads, parallel, size / parallel * 1000, sequential / parallel);
+            if (threads < maxThreads && threads * 2 > maxThreads) {
+                threads = maxThreads / 2;
+            }
+        }
+    }
+
+    private interface Build {
+        GraphPoet run() throws IOException;
+    }
+
+    private static double best(Build build) throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i++) {
+            long start = System.nanoTime();
+            build.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
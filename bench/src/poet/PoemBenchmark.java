@@ -0,0 +1,84 @@
+package poet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of GraphPoet.poem on a synthetic Zipf-distributed corpus, with
+ * inputs drawn from the same distribution, for each way of finding
+ * bridges, and with bridges of more than one word. The most frequent words
+ * of a Zipf corpus follow and precede most others, so inputs are full of
+ * high-degree pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoemBenchmark {
+
+    private static final int INPUTS = 1024;
+    private static final int INPUT_WORDS = 8;
+
+    @Param({ "5000" })
+    public int vocabulary;
+
+    @Param({ "100000" })
+    public int corpusWords;
+
+    @Param({ "search", "cache", "index" })
+    public String bridges;
+
+    @Param({ "1" })
+    public int bridgeWords;
+
+    @Param({ "256" })
+    public int maxFrontier;
+
+    private GraphPoet poet;
+    private String[] inputs;
+    private int next = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path corpus = Files.createTempFile("poem-benchmark", ".txt");
+        Files.write(corpus, new SyntheticCorpus(vocabulary, 1.0, 1).text(corpusWords)
+                .getBytes(StandardCharsets.UTF_8));
+        poet = new GraphPoet(corpus, ForkJoinPool.commonPool());
+        Files.delete(corpus);
+        switch (bridges) {
+        case "search": break;
+        case "cache": poet.cacheBridges(INPUTS * INPUT_WORDS); break;
+        case "index": poet.precomputeBridges(); break;
+        default: throw new IllegalArgumentException(bridges);
+        }
+        SyntheticCorpus words = new SyntheticCorpus(vocabulary, 1.0, 2);
+        inputs = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            inputs[i] = words.text(INPUT_WORDS);
+        }
+    }
+
+    @Benchmark
+    public String poem() {
+        String input = inputs[next++ & (INPUTS - 1)];
+        return bridgeWords == 1 ? poet.poem(input) : poet.poem(input, bridgeWords, maxFrontier);
+    }
+}
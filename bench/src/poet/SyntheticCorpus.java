@@ -0,0 +1,97 @@
+package poet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates synthetic corpora whose word frequencies follow a Zipf
+ * distribution, for benchmarks.
+ */
+public class SyntheticCorpus {
+
+    private final String[] vocabulary;
+    private final double[] cumulative;
+    private final Random random;
+
+    /**
+     * Create a generator.
+     *
+     * @param vocabularySize number of distinct words, > 0
+     * @param exponent Zipf exponent; the word of rank r has probability
+     *                 proportional to 1 / r^exponent
+     * @param seed random seed
+     */
+    public SyntheticCorpus(int vocabularySize, double exponent, long seed) {
+        this.vocabulary = new String[vocabularySize];
+        this.cumulative = new double[vocabularySize];
+        this.random = new Random(seed);
+        double total = 0;
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            vocabulary[rank] = word(rank);
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        int n = rank;
+        do {
+            word.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return rank % 7 == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word.toString();
+    }
+
+    /**
+     * @return a random word drawn from the distribution
+     */
+    public String nextWord() {
+        int index = java.util.Arrays.binarySearch(cumulative, random.nextDouble());
+        return vocabulary[index >= 0 ? index : Math.min(-index - 1, vocabulary.length - 1)];
+    }
+
+    /**
+     * @param words number of words, > 0
+     * @return space-separated random words
+     */
+    public String text(int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(i % 12 == 0 ? '\n' : ' ');
+            }
+            text.append(nextWord());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Write random words to a new temporary file, deleted on exit.
+     *
+     * @param bytes approximate size of the file in bytes
+     * @return path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public Path writeTempFile(long bytes) throws IOException {
+        Path path = Files.createTempFile("synthetic-corpus", ".txt");
+        path.toFile().deleteOnExit();
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 1; written < bytes; i++) {
+                String word = nextWord();
+                writer.write(word);
+                writer.write(i % 12 == 0 ? '\n' : ' ');
+                written += word.length() + 1;
+            }
+        }
+        return path;
+    }
+}
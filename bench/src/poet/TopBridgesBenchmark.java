@@ -0,0 +1,117 @@
+package poet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.ConcurrentGraph;
+import graph.IndexedGraph;
+
+/**
+ * Time to find the k heaviest bridges between pairs of the most frequent
+ * words of a synthetic Zipf-distributed corpus, which have the most targets
+ * and sources: by the threshold algorithm over SortedAdjacency, against a
+ * scan of every target of the first word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopBridgesBenchmark {
+
+    private static final int PAIRS = 256;
+    private static final int FREQUENT_WORDS = 20;
+
+    @Param({ "5000" })
+    public int vocabulary;
+
+    @Param({ "1000000" })
+    public int corpusWords;
+
+    @Param({ "1", "10" })
+    public int k;
+
+    private IndexedGraph<String> graph;
+    private SortedAdjacency<String> adjacency;
+    private String[] firstWords;
+    private String[] secondWords;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        graph = new ConcurrentGraph<>();
+        SyntheticCorpus corpus = new SyntheticCorpus(vocabulary, 1.0, 1);
+        String previous = null;
+        for (int i = 0; i < corpusWords; i++) {
+            String word = corpus.nextWord().toLowerCase(Locale.ROOT);
+            if (previous != null) {
+                graph.addWeight(previous, word, 1);
+            }
+            previous = word;
+        }
+        // the first words drawn from a Zipf distribution are mostly the
+        // most frequent ones
+        SyntheticCorpus sample = new SyntheticCorpus(vocabulary, 1.0, 2);
+        List<String> frequent = new ArrayList<>();
+        while (frequent.size() < FREQUENT_WORDS) {
+            String word = sample.nextWord().toLowerCase(Locale.ROOT);
+            if (!frequent.contains(word)) {
+                frequent.add(word);
+            }
+        }
+        firstWords = new String[PAIRS];
+        secondWords = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            firstWords[i] = frequent.get(i % FREQUENT_WORDS);
+            secondWords[i] = frequent.get((i * 7 + 3) % FREQUENT_WORDS);
+        }
+        adjacency = new SortedAdjacency<>(graph, Comparator.naturalOrder());
+        for (int i = 0; i < PAIRS; i++) {
+            adjacency.top(firstWords[i], secondWords[i], k); // sort the rows outside the measurement
+        }
+    }
+
+    @Benchmark
+    public List<Bridge<String>> threshold() {
+        int i = next++ & (PAIRS - 1);
+        return adjacency.top(firstWords[i], secondWords[i], k);
+    }
+
+    @Benchmark
+    public List<Bridge<String>> fullScan() {
+        int i = next++ & (PAIRS - 1);
+        String word2 = secondWords[i];
+        Comparator<Bridge<String>> better = Comparator.comparingInt((Bridge<String> bridge) -> bridge.weight())
+                .reversed().thenComparing(Bridge::word);
+        PriorityQueue<Bridge<String>> best = new PriorityQueue<>(better.reversed());
+        graph.forEachTarget(firstWords[i], (candidate, first) -> {
+            int second = graph.weight(candidate, word2);
+            if (second > 0) {
+                best.add(new Bridge<>(candidate, first + second));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        });
+        List<Bridge<String>> top = new ArrayList<>(best);
+        top.sort(better);
+        return top;
+    }
+}
@@ -0,0 +1,424 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable implementation of Graph for large, read-mostly graphs.
+ * Vertex labels are interned to dense {@code int} IDs, and edges are stored
+ * in compressed-sparse-row form: for each vertex, a contiguous run of
+ * neighbour IDs and a parallel run of weights, in both the forward
+ * (targets) and reverse (sources) direction.
+ *
+ * <p>Build one from any graph with {@link #copyOf(Graph)}. The mutators
+ * {@link #add}, {@link #set} and {@link #remove} throw
+ * {@link UnsupportedOperationException}.
+ *
+ * <p>Besides the Graph operations, the int-indexed accessors
+ * ({@link #id}, {@link #label}, {@link #outDegree}, {@link #target},
+ * {@link #targetWeight} and their reverse counterparts) expose the edges
+ * without boxing or allocating.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class CompactGraph<L> implements IndexedGraph<L> {
+    private final Object[] labels;
+    private final Map<L, Integer> ids;
+    private final int[] targetOffsets;
+    private final int[] targetIds;
+    private final int[] targetWeights;
+    private final int[] sourceOffsets;
+    private final int[] sourceIds;
+    private final int[] sourceWeights;
+
+    // Abstraction function:
+    //   AF = the graph whose vertices are labels[0..n-1], with an edge from
+    //     labels[s] to labels[targetIds[i]] of weight targetWeights[i] for
+    //     every targetOffsets[s] <= i < targetOffsets[s+1].
+    //   ids maps each label back to its index; the source* arrays are the
+    //     reverse index of the same edges.
+    //
+    // Representation invariant:
+    //   - ids.get(labels[i]) == i for every 0 <= i < n, and ids.size() == n
+    //   - target/sourceOffsets have length n+1, start at 0, are
+    //     nondecreasing and end at the edge count
+    //   - within each vertex's run, neighbour IDs are strictly increasing
+    //   - every weight is positive
+    //   - the source arrays hold exactly the reversed target edges
+    //
+    // Safety from rep exposure:
+    //   - all fields are private and final, and no array or map escapes
+    //   - labels are immutable
+    //   - vertices(), sources() and targets() return new collections
+    //   - forEachSource() and forEachTarget() pass only labels and ints
+    //
+    // Memory (64-bit JVM with compressed oops):
+    //   16 bytes per edge: an int neighbour ID and an int weight in each
+    //   direction. About 60 bytes per vertex for two offsets, the label
+    //   reference and its ids entry. Compare ConcreteEdgesGraph (about 28
+    //   bytes per edge), ConcreteVerticesGraph (80 to 120) and HashGraph
+    //   (about 80 to 100).
+
+    private CompactGraph(Object[] labels, Map<L, Integer> ids,
+            int[] targetOffsets, int[] targetIds, int[] targetWeights,
+            int[] sourceOffsets, int[] sourceIds, int[] sourceWeights) {
+        this.labels = labels;
+        this.ids = ids;
+        this.targetOffsets = targetOffsets;
+        this.targetIds = targetIds;
+        this.targetWeights = targetWeights;
+        this.sourceOffsets = sourceOffsets;
+        this.sourceIds = sourceIds;
+        this.sourceWeights = sourceWeights;
+        checkRep();
+    }
+
+    /**
+     * Create a compact copy of a graph. A CompactGraph is immutable, so
+     * copying one returns it unchanged.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to copy; not modified
+     * @return an immutable graph with the same vertices and edges as graph
+     */
+    public static <L> CompactGraph<L> copyOf(Graph<L> graph) {
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph<L>) graph;
+        }
+        Object[] labels = graph.vertices().toArray();
+        int n = labels.length;
+        Map<L, Integer> ids = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) labels[i];
+            ids.put(label, i);
+        }
+
+        // forward rows, each sorted by target ID
+        long[][] rows = new long[n][];
+        int[] targetOffsets = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) labels[s];
+            Map<L, Integer> targets = graph.targets(label);
+            long[] row = new long[targets.size()];
+            int k = 0;
+            for (Map.Entry<L, Integer> edge : targets.entrySet()) {
+                row[k++] = ((long) ids.get(edge.getKey()) << 32) | edge.getValue();
+            }
+            Arrays.sort(row);
+            rows[s] = row;
+            targetOffsets[s + 1] = targetOffsets[s] + row.length;
+        }
+        int m = targetOffsets[n];
+        int[] targetIds = new int[m];
+        int[] targetWeights = new int[m];
+        for (int s = 0, i = 0; s < n; s++) {
+            for (long packed : rows[s]) {
+                targetIds[i] = (int) (packed >>> 32);
+                targetWeights[i] = (int) packed;
+                i++;
+            }
+            rows[s] = null;
+        }
+        return withSources(labels, ids, targetOffsets, targetIds, targetWeights);
+    }
+
+    /**
+     * Make a CompactGraph from a list of distinct edges between dense IDs.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param labels labels of the vertices, distinct; labels[v] is the
+     *               label of the vertex with ID v
+     * @param sources source IDs of the edges, each in 0..labels.length-1
+     * @param targets target IDs of the edges, one for each source
+     * @param weights positive weights of the edges, one for each source;
+     *                requires that no two edges have the same source and
+     *                target
+     * @return the graph of those vertices and edges
+     */
+    static <L> CompactGraph<L> ofEdges(Object[] labels, int[] sources, int[] targets, int[] weights) {
+        int n = labels.length;
+        int m = sources.length;
+        Map<L, Integer> ids = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) labels[i];
+            ids.put(label, i);
+        }
+        // forward rows by counting sort on the source, then each row sorted
+        // by target ID
+        int[] targetOffsets = new int[n + 1];
+        for (int source : sources) {
+            targetOffsets[source + 1]++;
+        }
+        for (int s = 0; s < n; s++) {
+            targetOffsets[s + 1] += targetOffsets[s];
+        }
+        int[] next = Arrays.copyOf(targetOffsets, n);
+        long[] packed = new long[m];
+        for (int i = 0; i < m; i++) {
+            packed[next[sources[i]]++] = ((long) targets[i] << 32) | weights[i];
+        }
+        int[] targetIds = new int[m];
+        int[] targetWeights = new int[m];
+        for (int s = 0; s < n; s++) {
+            Arrays.sort(packed, targetOffsets[s], targetOffsets[s + 1]);
+        }
+        for (int i = 0; i < m; i++) {
+            targetIds[i] = (int) (packed[i] >>> 32);
+            targetWeights[i] = (int) packed[i];
+        }
+        return withSources(labels, ids, targetOffsets, targetIds, targetWeights);
+    }
+
+    /**
+     * Finish a CompactGraph from its forward rows by building the reverse
+     * rows.
+     */
+    private static <L> CompactGraph<L> withSources(Object[] labels, Map<L, Integer> ids,
+            int[] targetOffsets, int[] targetIds, int[] targetWeights) {
+        int n = labels.length;
+        int m = targetIds.length;
+        int[] inDegrees = new int[n];
+        for (int target : targetIds) {
+            inDegrees[target]++;
+        }
+
+        // reverse rows by counting sort; visiting sources in increasing ID
+        // order leaves each row sorted
+        int[] sourceOffsets = new int[n + 1];
+        for (int t = 0; t < n; t++) {
+            sourceOffsets[t + 1] = sourceOffsets[t] + inDegrees[t];
+        }
+        int[] next = Arrays.copyOf(sourceOffsets, n);
+        int[] sourceIds = new int[m];
+        int[] sourceWeights = new int[m];
+        for (int s = 0; s < n; s++) {
+            for (int i = targetOffsets[s]; i < targetOffsets[s + 1]; i++) {
+                int slot = next[targetIds[i]]++;
+                sourceIds[slot] = s;
+                sourceWeights[slot] = targetWeights[i];
+            }
+        }
+
+        return new CompactGraph<>(labels, ids, targetOffsets, targetIds, targetWeights,
+                sourceOffsets, sourceIds, sourceWeights);
+    }
+
+    private void checkRep() {
+        if (!Verification.checkTouched()) {
+            return;
+        }
+        int n = labels.length;
+        assert ids.size() == n;
+        assert targetOffsets.length == n + 1 && sourceOffsets.length == n + 1;
+        assert targetOffsets[n] == targetIds.length && sourceOffsets[n] == sourceIds.length;
+        assert targetIds.length == sourceIds.length;
+        for (int v = 0; v < n; v++) {
+            assert ids.get(labels[v]) == v;
+            for (int i = targetOffsets[v]; i < targetOffsets[v + 1]; i++) {
+                assert i == targetOffsets[v] || targetIds[i - 1] < targetIds[i];
+                assert targetWeights[i] > 0;
+            }
+            for (int i = sourceOffsets[v]; i < sourceOffsets[v + 1]; i++) {
+                assert i == sourceOffsets[v] || sourceIds[i - 1] < sourceIds[i];
+                assert sourceWeights[i] == weight(sourceIds[i], v);
+            }
+        }
+    }
+
+    /**
+     * @return the number of vertices in this graph
+     */
+    public int vertexCount() {
+        return labels.length;
+    }
+
+    /**
+     * @return the number of edges in this graph
+     */
+    public int edgeCount() {
+        return targetIds.length;
+    }
+
+    /**
+     * Get the ID of a vertex. IDs are dense, in 0..vertexCount()-1.
+     *
+     * @param label a label
+     * @return the ID of the vertex with that label, or -1 if there is none
+     */
+    public int id(L label) {
+        Integer id = ids.get(label);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @return the label of the vertex with that ID
+     */
+    @SuppressWarnings("unchecked")
+    public L label(int id) {
+        return (L) labels[id];
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @return the number of edges from that vertex
+     */
+    public int outDegree(int id) {
+        return targetOffsets[id + 1] - targetOffsets[id];
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @param i index of the edge, 0 <= i < outDegree(id)
+     * @return the ID of the target of the i-th edge from that vertex; edges
+     *         are ordered by increasing target ID
+     */
+    public int target(int id, int i) {
+        return targetIds[targetOffsets[id] + i];
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @param i index of the edge, 0 <= i < outDegree(id)
+     * @return the weight of the i-th edge from that vertex
+     */
+    public int targetWeight(int id, int i) {
+        return targetWeights[targetOffsets[id] + i];
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @return the number of edges to that vertex
+     */
+    public int inDegree(int id) {
+        return sourceOffsets[id + 1] - sourceOffsets[id];
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @param i index of the edge, 0 <= i < inDegree(id)
+     * @return the ID of the source of the i-th edge to that vertex; edges
+     *         are ordered by increasing source ID
+     */
+    public int source(int id, int i) {
+        return sourceIds[sourceOffsets[id] + i];
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @param i index of the edge, 0 <= i < inDegree(id)
+     * @return the weight of the i-th edge to that vertex
+     */
+    public int sourceWeight(int id, int i) {
+        return sourceWeights[sourceOffsets[id] + i];
+    }
+
+    /**
+     * @param source a vertex ID, 0 <= source < vertexCount()
+     * @param target a vertex ID, 0 <= target < vertexCount()
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(int source, int target) {
+        int i = Arrays.binarySearch(targetIds, targetOffsets[source], targetOffsets[source + 1], target);
+        return i < 0 ? 0 : targetWeights[i];
+    }
+
+    /**
+     * Unsupported; CompactGraph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean add(L vertex) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * Unsupported; CompactGraph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int set(L source, L target, int weight) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * Unsupported; CompactGraph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(L vertex) {
+        throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return new HashSet<>(ids.keySet());
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = new HashMap<>();
+        int t = id(target);
+        if (t >= 0) {
+            for (int i = sourceOffsets[t]; i < sourceOffsets[t + 1]; i++) {
+                sources.put(label(sourceIds[i]), sourceWeights[i]);
+            }
+        }
+        return sources;
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = new HashMap<>();
+        int s = id(source);
+        if (s >= 0) {
+            for (int i = targetOffsets[s]; i < targetOffsets[s + 1]; i++) {
+                targets.put(label(targetIds[i]), targetWeights[i]);
+            }
+        }
+        return targets;
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        int s = id(source);
+        int t = id(target);
+        return s < 0 || t < 0 ? 0 : weight(s, t);
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        int t = id(target);
+        if (t >= 0) {
+            for (int i = sourceOffsets[t]; i < sourceOffsets[t + 1]; i++) {
+                visitor.accept(label(sourceIds[i]), sourceWeights[i]);
+            }
+        }
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        int s = id(source);
+        if (s >= 0) {
+            for (int i = targetOffsets[s]; i < targetOffsets[s + 1]; i++) {
+                visitor.accept(label(targetIds[i]), targetWeights[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactGraph: " + labels.length + " vertices, " + targetIds.length + " edges";
+    }
+}
@@ -1,8 +1,16 @@
+package graph;
+
 import java.util.*;
+import java.util.function.ObjIntConsumer;
 
-public class ConcreteEdgesGraph implements Graph<String> {
-    private final Set<String> vertices = new HashSet<>();
-    private final List<Edge> edges = new ArrayList<>();
+/**
+ * An implementation of Graph that keeps a list of its edges.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcreteEdgesGraph<L> implements IndexedGraph<L> {
+    private final Set<L> vertices = new HashSet<>();
+    private final List<Edge<L>> edges = new ArrayList<>();
 
     // Abstraction function:
     //  - vertices represents the set of all vertex labels in the graph.
@@ -15,49 +23,144 @@ public class ConcreteEdgesGraph implements Graph<String> {
     // Rep exposure:
     //  - vertices and edges are private and final.
     //  - Defensive copies are returned where necessary.
+    //  - forEachSource() and forEachTarget() pass only labels and ints.
+    //
+    // Memory (64-bit JVM with compressed oops):
+    //  - about 28 bytes per edge: a 24-byte Edge holding two label
+    //    references and an int weight, plus its slot in the edges list.
 
     private void checkRep() {
-        for (Edge edge : edges) {
-            assert vertices.contains(edge.getSource());
-            assert vertices.contains(edge.getTarget());
-            assert edge.getWeight() > 0;
+        checkRep(null);
+    }
+
+    /**
+     * Check the rep after a change, as the Verification mode asks: every
+     * edge, or only the one the change made.
+     *
+     * @param touched the edge the change added or replaced, or null if it
+     *                made none
+     */
+    private void checkRep(Edge<L> touched) {
+        if (Verification.checkAll()) {
+            for (Edge<L> edge : edges) {
+                checkEdge(edge);
+            }
+        } else if (touched != null && Verification.checkTouched()) {
+            checkEdge(touched);
         }
     }
 
+    private void checkEdge(Edge<L> edge) {
+        assert vertices.contains(edge.getSource());
+        assert vertices.contains(edge.getTarget());
+        assert edge.getWeight() > 0;
+    }
+
     @Override
-    public boolean add(String vertex) {
+    public boolean add(L vertex) {
         boolean added = vertices.add(vertex);
         checkRep();
         return added;
     }
 
     @Override
-    public int set(String source, String target, int weight) {
-        if (!vertices.contains(source)) vertices.add(source);
-        if (!vertices.contains(target)) vertices.add(target);
-
-        for (Edge edge : edges) {
+    public int set(L source, L target, int weight) {
+        for (Edge<L> edge : edges) {
             if (edge.getSource().equals(source) && edge.getTarget().equals(target)) {
                 int oldWeight = edge.getWeight();
+                Edge<L> replacement = null;
                 if (weight == 0) {
                     edges.remove(edge);
                 } else {
                     edges.remove(edge);
-                    edges.add(new Edge(source, target, weight));
+                    replacement = new Edge<>(source, target, weight);
+                    edges.add(replacement);
                 }
-                checkRep();
+                checkRep(replacement);
                 return oldWeight;
             }
         }
+        Edge<L> added = null;
         if (weight > 0) {
-            edges.add(new Edge(source, target, weight));
+            vertices.add(source);
+            vertices.add(target);
+            added = new Edge<>(source, target, weight);
+            edges.add(added);
         }
-        checkRep();
+        checkRep(added);
         return 0;
     }
 
     @Override
-    public boolean remove(String vertex) {
+    public int addWeight(L source, L target, int delta) {
+        for (int i = 0; i < edges.size(); i++) {
+            Edge<L> edge = edges.get(i);
+            if (edge.getSource().equals(source) && edge.getTarget().equals(target)) {
+                int weight = Math.addExact(edge.getWeight(), delta);
+                if (weight < 0) {
+                    throw new IllegalArgumentException("weight would be negative: " + weight);
+                } else if (weight == 0) {
+                    edges.remove(i);
+                    checkRep();
+                } else {
+                    edges.set(i, new Edge<>(source, target, weight));
+                    checkRep(edges.get(i));
+                }
+                return edge.getWeight();
+            }
+        }
+        if (delta < 0) {
+            throw new IllegalArgumentException("weight would be negative: " + delta);
+        } else if (delta > 0) {
+            vertices.add(source);
+            vertices.add(target);
+            edges.add(new Edge<>(source, target, delta));
+            checkRep(edges.get(edges.size() - 1));
+        } else {
+            checkRep();
+        }
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Indexes the edges of this graph once, so that loading k edges takes
+     * time proportional to k plus the number of edges, where k calls to set
+     * would each scan every edge.
+     */
+    @Override
+    public void setAll(Iterable<WeightedEdge<L>> newEdges) {
+        Map<L, Map<L, Integer>> positions = new HashMap<>();
+        for (int i = 0; i < edges.size(); i++) {
+            Edge<L> edge = edges.get(i);
+            positions.computeIfAbsent(edge.getSource(), source -> new HashMap<>()).put(edge.getTarget(), i);
+        }
+        boolean removed = false;
+        for (WeightedEdge<L> edge : newEdges) {
+            Map<L, Integer> row = positions.computeIfAbsent(edge.source(), source -> new HashMap<>());
+            Integer i = row.get(edge.target());
+            if (i != null && edge.weight() == 0) {
+                edges.set(i, null); // dropped below, so positions stay valid
+                row.remove(edge.target());
+                removed = true;
+            } else if (i != null) {
+                edges.set(i, new Edge<>(edge.source(), edge.target(), edge.weight()));
+            } else if (edge.weight() > 0) {
+                vertices.add(edge.source());
+                vertices.add(edge.target());
+                row.put(edge.target(), edges.size());
+                edges.add(new Edge<>(edge.source(), edge.target(), edge.weight()));
+            }
+        }
+        if (removed) {
+            edges.removeIf(Objects::isNull);
+        }
+        checkRep();
+    }
+
+    @Override
+    public boolean remove(L vertex) {
         if (!vertices.remove(vertex)) {
             return false;
         }
@@ -67,14 +170,14 @@ public class ConcreteEdgesGraph implements Graph<String> {
     }
 
     @Override
-    public Set<String> vertices() {
+    public Set<L> vertices() {
         return new HashSet<>(vertices); // defensive copy
     }
 
     @Override
-    public Map<String, Integer> sources(String target) {
-        Map<String, Integer> sources = new HashMap<>();
-        for (Edge edge : edges) {
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = new HashMap<>();
+        for (Edge<L> edge : edges) {
             if (edge.getTarget().equals(target)) {
                 sources.put(edge.getSource(), edge.getWeight());
             }
@@ -83,9 +186,9 @@ public class ConcreteEdgesGraph implements Graph<String> {
     }
 
     @Override
-    public Map<String, Integer> targets(String source) {
-        Map<String, Integer> targets = new HashMap<>();
-        for (Edge edge : edges) {
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = new HashMap<>();
+        for (Edge<L> edge : edges) {
             if (edge.getSource().equals(source)) {
                 targets.put(edge.getTarget(), edge.getWeight());
             }
@@ -93,25 +196,53 @@ public class ConcreteEdgesGraph implements Graph<String> {
         return targets;
     }
 
+    @Override
+    public int weight(L source, L target) {
+        for (Edge<L> edge : edges) {
+            if (edge.getSource().equals(source) && edge.getTarget().equals(target)) {
+                return edge.getWeight();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        for (Edge<L> edge : edges) {
+            if (edge.getTarget().equals(target)) {
+                visitor.accept(edge.getSource(), edge.getWeight());
+            }
+        }
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        for (Edge<L> edge : edges) {
+            if (edge.getSource().equals(source)) {
+                visitor.accept(edge.getTarget(), edge.getWeight());
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "Vertices: " + vertices + ", Edges: " + edges;
     }
 
-    private static class Edge {
-        private final String source;
-        private final String target;
+    private static class Edge<L> {
+        private final L source;
+        private final L target;
         private final int weight;
 
         // Constructor
-        public Edge(String source, String target, int weight) {
+        public Edge(L source, L target, int weight) {
             this.source = source;
             this.target = target;
             this.weight = weight;
         }
 
-        public String getSource() { return source; }
-        public String getTarget() { return target; }
+        public L getSource() { return source; }
+        public L getTarget() { return target; }
         public int getWeight() { return weight; }
 
         @Override
@@ -0,0 +1,261 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A thread-safe implementation of Graph.
+ *
+ * <p>{@link #add}, {@link #set} and {@link #remove} are linearizable: each
+ * appears to take effect at a single instant between its call and its
+ * return. {@link #vertices}, {@link #sources}, {@link #targets},
+ * {@link #weight} and the forEach visitors never block and are weakly
+ * consistent: they reflect every mutation that completed before they were
+ * called, and may or may not reflect mutations that run concurrently with
+ * them.
+ *
+ * <p>Adjacency is kept in concurrent maps in both directions, as in
+ * {@link HashGraph}. Writers to the edges of different source vertices
+ * usually proceed in parallel: every change to an edge is made while holding
+ * the lock of the stripe its source vertex hashes to. Removing a vertex
+ * takes every stripe.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcurrentGraph<L> implements IndexedGraph<L> {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<L, Adjacency<L>> vertices = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    // Abstraction function:
+    //   AF(vertices) = the graph whose vertices are vertices.keySet(), with an
+    //     edge from s to t of weight w for every
+    //     vertices.get(s).targets.get(t) == w.
+    //   Each Adjacency's sources map is the reverse index of the same edges.
+    //
+    // Representation invariant, whenever no stripe lock is held:
+    //   - vertices.get(s).targets.get(t) == w iff vertices.get(t).sources.get(s) == w
+    //   - every weight is positive
+    //   - every key of a targets or sources map is a vertex
+    //
+    // Thread safety argument:
+    //   - the edge from s to t, in both of its maps, is only changed while
+    //     holding stripeOf(s), so changes to one edge are totally ordered
+    //     and its two entries change together as seen by other writers
+    //   - remove holds every stripe, so no edge changes while a vertex and
+    //     its edges are being removed
+    //   - add needs no lock: putIfAbsent on the concurrent map is atomic,
+    //     and a new vertex has no edges
+    //   - readers take no locks; the concurrent maps give them weakly
+    //     consistent views
+    //
+    // Safety from rep exposure:
+    //   - all fields are private and final
+    //   - labels are immutable
+    //   - vertices(), sources() and targets() return new collections
+    //   - forEachSource() and forEachTarget() pass only labels and ints
+
+    /**
+     * Create an empty graph.
+     */
+    public ConcurrentGraph() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The edges into and out of one vertex.
+     */
+    private static final class Adjacency<L> {
+        private final ConcurrentHashMap<L, Integer> targets = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<L, Integer> sources = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Check the rep invariant for the edges out of one vertex. Must be
+     * called while holding the stripe of vertex; the edges into vertex are
+     * guarded by other stripes and are checked when their sources change.
+     */
+    private void checkRep(L vertex) {
+        assert stripeOf(vertex).isHeldByCurrentThread();
+        Adjacency<L> adjacency = vertices.get(vertex);
+        if (adjacency == null) {
+            return;
+        }
+        for (Map.Entry<L, Integer> edge : adjacency.targets.entrySet()) {
+            assert edge.getValue() > 0;
+            Adjacency<L> target = vertices.get(edge.getKey());
+            assert target != null;
+            assert edge.getValue().equals(target.sources.get(vertex));
+        }
+    }
+
+    /**
+     * Check the rep invariant after a change to the edge from source to
+     * target, as the Verification mode asks: every edge out of source, or
+     * only that one. Must be called while holding the stripe of source.
+     */
+    private void checkRep(L source, L target) {
+        if (Verification.checkAll()) {
+            checkRep(source);
+        } else if (Verification.checkTouched()) {
+            assert stripeOf(source).isHeldByCurrentThread();
+            Adjacency<L> from = vertices.get(source);
+            Adjacency<L> to = vertices.get(target);
+            Integer forward = from == null ? null : from.targets.get(target);
+            Integer reverse = to == null ? null : to.sources.get(source);
+            assert forward == null ? reverse == null : forward > 0 && forward.equals(reverse);
+        }
+    }
+
+    private ReentrantLock stripeOf(L vertex) {
+        int hash = vertex.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        return vertices.putIfAbsent(vertex, new Adjacency<>()) == null;
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        ReentrantLock stripe = stripeOf(source);
+        stripe.lock();
+        try {
+            Integer previous;
+            if (weight == 0) {
+                Adjacency<L> from = vertices.get(source);
+                previous = from == null ? null : from.targets.remove(target);
+                if (previous != null) {
+                    vertices.get(target).sources.remove(source);
+                }
+            } else {
+                Adjacency<L> from = vertices.computeIfAbsent(source, label -> new Adjacency<>());
+                Adjacency<L> to = vertices.computeIfAbsent(target, label -> new Adjacency<>());
+                Integer boxed = weight;
+                previous = from.targets.put(target, boxed);
+                to.sources.put(source, boxed);
+            }
+            checkRep(source, target);
+            return previous == null ? 0 : previous;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Atomic: concurrent calls on the same edge never lose an update.
+     */
+    @Override
+    public int addWeight(L source, L target, int delta) {
+        ReentrantLock stripe = stripeOf(source);
+        stripe.lock();
+        try {
+            if (delta <= 0) {
+                return IndexedGraph.super.addWeight(source, target, delta);
+            }
+            Adjacency<L> from = vertices.computeIfAbsent(source, label -> new Adjacency<>());
+            Adjacency<L> to = vertices.computeIfAbsent(target, label -> new Adjacency<>());
+            Integer weight = from.targets.merge(target, delta, Math::addExact);
+            to.sources.put(source, weight);
+            checkRep(source, target);
+            return weight - delta;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            Adjacency<L> removed = vertices.remove(vertex);
+            if (removed == null) {
+                return false;
+            }
+            for (L target : removed.targets.keySet()) {
+                Adjacency<L> to = vertices.get(target);
+                if (to != null) {
+                    to.sources.remove(vertex);
+                }
+            }
+            for (L source : removed.sources.keySet()) {
+                Adjacency<L> from = vertices.get(source);
+                if (from != null) {
+                    from.targets.remove(vertex);
+                }
+            }
+            return true;
+        } finally {
+            for (ReentrantLock stripe : stripes) {
+                stripe.unlock();
+            }
+        }
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return new HashSet<>(vertices.keySet());
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Adjacency<L> adjacency = vertices.get(target);
+        return adjacency == null ? new HashMap<>() : new HashMap<>(adjacency.sources);
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        Adjacency<L> adjacency = vertices.get(source);
+        return adjacency == null ? new HashMap<>() : new HashMap<>(adjacency.targets);
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        Adjacency<L> adjacency = vertices.get(source);
+        Integer weight = adjacency == null ? null : adjacency.targets.get(target);
+        return weight == null ? 0 : weight;
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        Adjacency<L> adjacency = vertices.get(target);
+        if (adjacency != null) {
+            for (Map.Entry<L, Integer> edge : adjacency.sources.entrySet()) {
+                visitor.accept(edge.getKey(), edge.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        Adjacency<L> adjacency = vertices.get(source);
+        if (adjacency != null) {
+            for (Map.Entry<L, Integer> edge : adjacency.targets.entrySet()) {
+                visitor.accept(edge.getKey(), edge.getValue());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        Map<L, Map<L, Integer>> edges = new HashMap<>();
+        for (Map.Entry<L, Adjacency<L>> vertex : vertices.entrySet()) {
+            edges.put(vertex.getKey(), new HashMap<>(vertex.getValue().targets));
+        }
+        return "Vertices: " + edges.keySet() + ", Edges: " + edges;
+    }
+}
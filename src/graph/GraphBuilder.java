@@ -0,0 +1,320 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Collects the vertices and weighted edges of a graph and builds it in one
+ * pass. Loading n edges with {@link Graph#set} finds each edge in the graph
+ * as it goes, which for some implementations costs time proportional to
+ * the size of the graph; a builder instead merges repeated edges as they
+ * arrive, in a hash table over int vertex IDs, and hands each finished
+ * edge to the graph once, so that building takes time linear in the
+ * number of edges added.
+ *
+ * <p>Edges added more than once are merged by the builder's
+ * {@link DuplicatePolicy}. Building from a builder gives the same graph as
+ * adding its vertices to an empty graph, then for each edge in the order
+ * added, calling {@link IndexedGraph#addWeight addWeight} (for
+ * {@link DuplicatePolicy#SUM SUM}) or {@link Graph#set set} (for
+ * {@link DuplicatePolicy#LAST_WRITE_WINS LAST_WRITE_WINS}) with its source,
+ * target and weight.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class GraphBuilder<L> {
+
+    /**
+     * How a builder merges edges added more than once with the same source
+     * and target.
+     */
+    public enum DuplicatePolicy {
+        /** The edge weighs the sum of the weights added. */
+        SUM,
+        /** The edge weighs the last weight added; a last weight of zero means no edge. */
+        LAST_WRITE_WINS
+    }
+
+    private static final long FREE = -1;
+
+    private final DuplicatePolicy duplicates;
+    private final Map<L, Integer> ids = new HashMap<>();
+    private final List<L> labels = new ArrayList<>();
+    private final BitSet present = new BitSet();
+    private int[] sources = new int[16];
+    private int[] targets = new int[16];
+    private int[] weights = new int[16];
+    private int edgeCount = 0;
+    private long[] pairs = newTable(32);
+    private int[] pairEdges = new int[32];
+
+    // Abstraction function:
+    //   AF = the graph with a vertex labels.get(v) for every v in present,
+    //     and an edge from labels.get(sources[i]) to labels.get(targets[i])
+    //     of weight weights[i] for every i < edgeCount with weights[i] > 0.
+    //   pairs and pairEdges are an open-addressing table from
+    //     (source << 32 | target) to the index i of the edge with that
+    //     source and target.
+    // Representation invariant:
+    //   - ids.get(labels.get(v)) == v for every v < labels.size()
+    //   - the (sources[i], targets[i]) are distinct for i < edgeCount, and
+    //     pairs holds exactly their keys, at most half full
+    //   - weights[i] >= 0, and sources[i] and targets[i] are in present if
+    //     weights[i] > 0
+    // Safety from rep exposure:
+    //   all fields are private; labels are immutable, and built graphs
+    //   share nothing with the builder.
+
+    /**
+     * Make an empty builder.
+     *
+     * @param duplicates how to merge edges added more than once
+     */
+    public GraphBuilder(DuplicatePolicy duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+    private void checkRep() {
+        assert ids.size() == labels.size();
+        assert 2 * edgeCount <= pairs.length;
+    }
+
+    private int intern(L label) {
+        Integer id = ids.get(label);
+        if (id == null) {
+            id = labels.size();
+            ids.put(label, id);
+            labels.add(label);
+        }
+        return id;
+    }
+
+    /**
+     * Add a vertex.
+     *
+     * @param vertex label of the vertex
+     * @return this builder
+     */
+    public GraphBuilder<L> addVertex(L vertex) {
+        present.set(intern(vertex));
+        return this;
+    }
+
+    /**
+     * Add an edge, merging it with any edge already added with the same
+     * source and target by the duplicate policy of this builder.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight nonnegative weight of the edge
+     * @return this builder
+     * @throws IllegalArgumentException if weight is negative
+     * @throws ArithmeticException if the policy is SUM and the sum of the
+     *         weights of the edge would overflow an int; the edge is then
+     *         unchanged
+     */
+    public GraphBuilder<L> addEdge(L source, L target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        int s = intern(source);
+        int t = intern(target);
+        long key = (long) s << 32 | t;
+        int mask = pairs.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (pairs[slot] != FREE && pairs[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (pairs[slot] == key) {
+            int i = pairEdges[slot];
+            weights[i] = duplicates == DuplicatePolicy.SUM ? Math.addExact(weights[i], weight) : weight;
+        } else {
+            append(s, t, weight);
+            pairs[slot] = key;
+            pairEdges[slot] = edgeCount - 1;
+            if (2 * edgeCount > pairs.length) {
+                rehash();
+            }
+        }
+        if (weight > 0) {
+            present.set(s);
+            present.set(t);
+        }
+        checkRep();
+        return this;
+    }
+
+    /**
+     * Add a sequence of edges, in order, as by {@link #addEdge}.
+     *
+     * @param edges edges to add
+     * @return this builder
+     * @throws ArithmeticException as addEdge does, after adding the edges
+     *         before the one that overflowed
+     */
+    public GraphBuilder<L> addEdges(Iterator<WeightedEdge<L>> edges) {
+        while (edges.hasNext()) {
+            WeightedEdge<L> edge = edges.next();
+            addEdge(edge.source(), edge.target(), edge.weight());
+        }
+        return this;
+    }
+
+    /**
+     * Add a stream of edges, in encounter order, as by {@link #addEdge}.
+     *
+     * @param edges edges to add; consumed by this call
+     * @return this builder
+     * @throws ArithmeticException as addEdge does, after adding the edges
+     *         before the one that overflowed
+     */
+    public GraphBuilder<L> addEdges(Stream<WeightedEdge<L>> edges) {
+        edges.forEachOrdered(edge -> addEdge(edge.source(), edge.target(), edge.weight()));
+        return this;
+    }
+
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private void append(int source, int target, int weight) {
+        if (edgeCount == sources.length) {
+            sources = Arrays.copyOf(sources, 2 * edgeCount);
+            targets = Arrays.copyOf(targets, 2 * edgeCount);
+            weights = Arrays.copyOf(weights, 2 * edgeCount);
+        }
+        sources[edgeCount] = source;
+        targets[edgeCount] = target;
+        weights[edgeCount] = weight;
+        edgeCount++;
+    }
+
+    private void rehash() {
+        pairs = newTable(2 * pairs.length);
+        pairEdges = new int[pairs.length];
+        int mask = pairs.length - 1;
+        for (int i = 0; i < edgeCount; i++) {
+            long key = (long) sources[i] << 32 | targets[i];
+            int slot = (int) mix(key) & mask;
+            while (pairs[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            pairs[slot] = key;
+            pairEdges[slot] = i;
+        }
+    }
+
+    /**
+     * Build a HashGraph.
+     *
+     * @return a new graph with the vertices and edges added so far
+     */
+    public HashGraph<L> build() {
+        return build(HashGraph::new);
+    }
+
+    /**
+     * Build a graph of any implementation. The vertices are added first,
+     * then the edges are passed to {@link IndexedGraph#setAll setAll} once
+     * each, in the order they were first added.
+     *
+     * @param <G> type of the graph
+     * @param factory makes the graph to build; it must be empty
+     * @return the graph from factory, with the vertices and edges added so
+     *         far
+     */
+    public <G extends IndexedGraph<L>> G build(Supplier<G> factory) {
+        G graph = factory.get();
+        for (int v = present.nextSetBit(0); v >= 0; v = present.nextSetBit(v + 1)) {
+            graph.add(labels.get(v));
+        }
+        graph.setAll(this::edges);
+        return graph;
+    }
+
+    /**
+     * @return iterator over the edges added so far with positive weights, in
+     *         the order they were first added
+     */
+    private Iterator<WeightedEdge<L>> edges() {
+        return new Iterator<>() {
+            private int next = skipZeros(0);
+
+            private int skipZeros(int i) {
+                while (i < edgeCount && weights[i] == 0) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < edgeCount;
+            }
+
+            @Override
+            public WeightedEdge<L> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = next;
+                next = skipZeros(i + 1);
+                return new WeightedEdge<>(labels.get(sources[i]), labels.get(targets[i]), weights[i]);
+            }
+        };
+    }
+
+    /**
+     * Build a CompactGraph, without building any mutable graph on the way.
+     *
+     * @return a new immutable graph with the vertices and edges added so far
+     */
+    public CompactGraph<L> buildCompact() {
+        // number the present vertices densely
+        int[] compactIds = new int[labels.size()];
+        Object[] compactLabels = new Object[present.cardinality()];
+        for (int v = present.nextSetBit(0), n = 0; v >= 0; v = present.nextSetBit(v + 1), n++) {
+            compactIds[v] = n;
+            compactLabels[n] = labels.get(v);
+        }
+        int m = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            if (weights[i] > 0) {
+                m++;
+            }
+        }
+        int[] edgeSources = new int[m];
+        int[] edgeTargets = new int[m];
+        int[] edgeWeights = new int[m];
+        for (int i = 0, j = 0; i < edgeCount; i++) {
+            if (weights[i] > 0) {
+                edgeSources[j] = compactIds[sources[i]];
+                edgeTargets[j] = compactIds[targets[i]];
+                edgeWeights[j] = weights[i];
+                j++;
+            }
+        }
+        return CompactGraph.ofEdges(compactLabels, edgeSources, edgeTargets, edgeWeights);
+    }
+
+    @Override
+    public String toString() {
+        return "GraphBuilder (" + duplicates + ") of " + present.cardinality() + " vertices and up to "
+                + edgeCount + " edges";
+    }
+}
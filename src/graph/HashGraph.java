@@ -0,0 +1,202 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph that indexes adjacency by vertex in both
+ * directions, so that {@link #set}, {@link #sources}, {@link #targets} and
+ * {@link #remove} cost time proportional to the degree of the vertices
+ * involved rather than to the total number of edges in the graph.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class HashGraph<L> implements IndexedGraph<L> {
+    private final Map<L, Map<L, Integer>> targets = new HashMap<>();
+    private final Map<L, Map<L, Integer>> sources = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(targets, sources) = the graph whose vertices are targets.keySet(),
+    //     with an edge from s to t of weight w for every
+    //     targets.get(s).get(t) == w.
+    //   sources is the reverse index of the same edges.
+    //
+    // Representation invariant:
+    //   - targets.keySet() equals sources.keySet()
+    //   - targets.get(s).get(t) == w iff sources.get(t).get(s) == w
+    //   - every weight is positive
+    //   - every key of an inner map is a vertex
+    //
+    // Safety from rep exposure:
+    //   - all fields are private and final
+    //   - labels are immutable
+    //   - vertices(), sources() and targets() return defensive copies
+    //   - forEachSource() and forEachTarget() pass only labels and ints
+    //
+    // Memory (64-bit JVM with compressed oops):
+    //   about 80 to 100 bytes per edge: a HashMap node and table slot in each
+    //   direction, sharing one boxed Integer weight.
+
+    /**
+     * Check the rep invariant around one vertex. add and remove check only
+     * the vertex they touched; walking every edge after every mutation would
+     * make each mutation cost time proportional to the size of the graph.
+     */
+    private void checkRep(L vertex) {
+        if (!Verification.checkAll()) {
+            return;
+        }
+        assert targets.size() == sources.size();
+        Map<L, Integer> out = targets.get(vertex);
+        Map<L, Integer> in = sources.get(vertex);
+        assert (out == null) == (in == null);
+        if (out == null) {
+            return;
+        }
+        for (Map.Entry<L, Integer> edge : out.entrySet()) {
+            assert edge.getValue() > 0;
+            assert edge.getValue().equals(sources.get(edge.getKey()).get(vertex));
+        }
+        for (Map.Entry<L, Integer> edge : in.entrySet()) {
+            assert edge.getValue() > 0;
+            assert edge.getValue().equals(targets.get(edge.getKey()).get(vertex));
+        }
+    }
+
+    /**
+     * Check the rep invariant for one edge. set and addWeight change only
+     * that edge, so they check only it; checking around both of its
+     * vertices would make building a graph with high-degree vertices cost
+     * time quadratic in their degree.
+     */
+    private void checkRep(L source, L target) {
+        if (!Verification.checkTouched()) {
+            return;
+        }
+        assert targets.size() == sources.size();
+        Map<L, Integer> out = targets.get(source);
+        Map<L, Integer> in = sources.get(target);
+        Integer forward = out == null ? null : out.get(target);
+        Integer reverse = in == null ? null : in.get(source);
+        assert forward == null ? reverse == null : forward > 0 && forward.equals(reverse);
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        if (targets.containsKey(vertex)) {
+            return false;
+        }
+        targets.put(vertex, new HashMap<>());
+        sources.put(vertex, new HashMap<>());
+        checkRep(vertex);
+        return true;
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        Integer previous;
+        if (weight == 0) {
+            Map<L, Integer> out = targets.get(source);
+            previous = out == null ? null : out.remove(target);
+            if (previous != null) {
+                sources.get(target).remove(source);
+            }
+        } else {
+            add(source);
+            add(target);
+            Integer boxed = weight;
+            previous = targets.get(source).put(target, boxed);
+            sources.get(target).put(source, boxed);
+        }
+        checkRep(source, target);
+        return previous == null ? 0 : previous;
+    }
+
+    @Override
+    public int addWeight(L source, L target, int delta) {
+        if (delta <= 0) {
+            return IndexedGraph.super.addWeight(source, target, delta);
+        }
+        add(source);
+        add(target);
+        Integer weight = targets.get(source).merge(target, delta, Math::addExact);
+        sources.get(target).put(source, weight);
+        checkRep(source, target);
+        return weight - delta;
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        Map<L, Integer> out = targets.remove(vertex);
+        if (out == null) {
+            return false;
+        }
+        Map<L, Integer> in = sources.remove(vertex);
+        for (L target : out.keySet()) {
+            Map<L, Integer> reverse = sources.get(target);
+            if (reverse != null) {
+                reverse.remove(vertex);
+            }
+        }
+        for (L source : in.keySet()) {
+            Map<L, Integer> forward = targets.get(source);
+            if (forward != null) {
+                forward.remove(vertex);
+            }
+        }
+        checkRep(vertex);
+        return true;
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return new HashSet<>(targets.keySet()); // defensive copy
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> in = sources.get(target);
+        return in == null ? new HashMap<>() : new HashMap<>(in); // defensive copy
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> out = targets.get(source);
+        return out == null ? new HashMap<>() : new HashMap<>(out); // defensive copy
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        Map<L, Integer> out = targets.get(source);
+        Integer weight = out == null ? null : out.get(target);
+        return weight == null ? 0 : weight;
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        Map<L, Integer> in = sources.get(target);
+        if (in != null) {
+            for (Map.Entry<L, Integer> edge : in.entrySet()) {
+                visitor.accept(edge.getKey(), edge.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        Map<L, Integer> out = targets.get(source);
+        if (out != null) {
+            for (Map.Entry<L, Integer> edge : out.entrySet()) {
+                visitor.accept(edge.getKey(), edge.getValue());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Vertices: " + targets.keySet() + ", Edges: " + targets;
+    }
+}
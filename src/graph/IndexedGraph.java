@@ -0,0 +1,95 @@
+package graph;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A {@link Graph} that can also be read without copying.
+ * {@link Graph#sources sources} and {@link Graph#targets targets} return a
+ * new map on every call; the operations here visit the same edges in place
+ * and pass weights as {@code int}, so reading a graph allocates nothing per
+ * edge.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public interface IndexedGraph<L> extends Graph<L> {
+
+    /**
+     * Get the weight of a directed edge.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(L source, L target);
+
+    /**
+     * Visit the target vertices with directed edges from a source vertex.
+     * The visitor must not modify this graph.
+     *
+     * @param source a label
+     * @param visitor called once with the label of each vertex such that
+     *                this graph includes an edge from source to that vertex,
+     *                and the (nonzero) weight of that edge
+     */
+    public void forEachTarget(L source, ObjIntConsumer<? super L> visitor);
+
+    /**
+     * Visit the source vertices with directed edges to a target vertex.
+     * The visitor must not modify this graph.
+     *
+     * @param target a label
+     * @param visitor called once with the label of each vertex such that
+     *                this graph includes an edge from that vertex to target,
+     *                and the (nonzero) weight of that edge
+     */
+    public void forEachSource(L target, ObjIntConsumer<? super L> visitor);
+
+    /**
+     * Add to the weight of a directed edge, as if by
+     * {@code set(source, target, weight(source, target) + delta)}: if the
+     * sum is nonzero, add or update the edge, adding its vertices if they do
+     * not already exist; if the sum is zero, remove the edge if it exists.
+     *
+     * <p>Implementations override this to find the edge once rather than
+     * twice; concurrent implementations make it atomic.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param delta amount to add to the weight of the edge; the sum must be
+     *              nonnegative
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     * @throws IllegalArgumentException if the sum would be negative, in
+     *         which case this graph is not modified
+     * @throws ArithmeticException if the sum would overflow an int, in which
+     *         case this graph is not modified
+     */
+    public default int addWeight(L source, L target, int delta) {
+        int previous = weight(source, target);
+        int weight = Math.addExact(previous, delta);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight would be negative: " + weight);
+        }
+        set(source, target, weight);
+        return previous;
+    }
+
+    /**
+     * Set the weights of many directed edges, as if by calling
+     * {@code set(edge.source(), edge.target(), edge.weight())} for each edge
+     * in turn.
+     *
+     * <p>Implementations whose set searches for the edge override this to
+     * load all of the edges in one pass; {@link GraphBuilder} builds graphs
+     * with it.
+     *
+     * @param edges edges to set, in order
+     */
+    public default void setAll(Iterable<WeightedEdge<L>> edges) {
+        for (WeightedEdge<L> edge : edges) {
+            set(edge.source(), edge.target(), edge.weight());
+        }
+    }
+
+}
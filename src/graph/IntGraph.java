@@ -0,0 +1,144 @@
+package graph;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A mutable weighted directed graph whose vertices are nonnegative
+ * {@code int} IDs. It is the primitive counterpart of {@link IndexedGraph}:
+ * vertices and weights are passed as {@code int} everywhere, so no
+ * operation boxes, and the read operations allocate nothing.
+ *
+ * <p>Edges are directed and have a positive weight, as in {@link Graph}.
+ * To use an IntGraph where a Graph is expected, or to copy a Graph into
+ * one, see {@link LabeledIntGraph}.
+ */
+public interface IntGraph {
+
+    /**
+     * Visits the edges of one vertex.
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+
+        /**
+         * @param vertex the vertex at the other end of the edge
+         * @param weight the (positive) weight of the edge
+         */
+        public void accept(int vertex, int weight);
+    }
+
+    /**
+     * Add a vertex to this graph.
+     *
+     * @param vertex ID of the new vertex, >= 0
+     * @return true if this graph did not already include the vertex;
+     *         otherwise false (and this graph is not modified)
+     * @throws IllegalArgumentException if vertex is negative
+     */
+    public boolean add(int vertex);
+
+    /**
+     * Add, change, or remove a weighted directed edge in this graph, as by
+     * {@link Graph#set}.
+     *
+     * @param source ID of the source vertex, >= 0
+     * @param target ID of the target vertex, >= 0
+     * @param weight nonnegative weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     * @throws IllegalArgumentException if weight, or a vertex that would be
+     *         added, is negative; this graph is then not modified
+     */
+    public int set(int source, int target, int weight);
+
+    /**
+     * Add to the weight of a directed edge, as by
+     * {@link IndexedGraph#addWeight}.
+     *
+     * @param source ID of the source vertex, >= 0
+     * @param target ID of the target vertex, >= 0
+     * @param delta amount to add to the weight of the edge; the sum must be
+     *              nonnegative
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     * @throws IllegalArgumentException if the sum, or a vertex that would be
+     *         added, is negative, in which case this graph is not modified
+     * @throws ArithmeticException if the sum would overflow an int, in which
+     *         case this graph is not modified
+     */
+    public int addWeight(int source, int target, int delta);
+
+    /**
+     * Remove a vertex from this graph; any edges to or from the vertex are
+     * also removed.
+     *
+     * @param vertex ID of the vertex to remove
+     * @return true if this graph included the vertex; otherwise false (and
+     *         this graph is not modified)
+     */
+    public boolean remove(int vertex);
+
+    /**
+     * @param vertex an ID
+     * @return true if this graph includes the vertex
+     */
+    public boolean isVertex(int vertex);
+
+    /**
+     * @return the number of vertices in this graph
+     */
+    public int vertexCount();
+
+    /**
+     * Visit every vertex of this graph. The visitor must not modify this
+     * graph.
+     *
+     * @param visitor called once with the ID of each vertex
+     */
+    public void forEachVertex(IntConsumer visitor);
+
+    /**
+     * Get the weight of a directed edge.
+     *
+     * @param source ID of the source vertex
+     * @param target ID of the target vertex
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(int source, int target);
+
+    /**
+     * @param source an ID
+     * @return the number of edges from source, zero if it is not a vertex
+     */
+    public int outDegree(int source);
+
+    /**
+     * @param target an ID
+     * @return the number of edges to target, zero if it is not a vertex
+     */
+    public int inDegree(int target);
+
+    /**
+     * Visit the target vertices with directed edges from a source vertex.
+     * The visitor must not modify this graph.
+     *
+     * @param source an ID
+     * @param visitor called once with the ID of each vertex such that this
+     *                graph includes an edge from source to that vertex, and
+     *                the weight of that edge
+     */
+    public void forEachTarget(int source, EdgeVisitor visitor);
+
+    /**
+     * Visit the source vertices with directed edges to a target vertex.
+     * The visitor must not modify this graph.
+     *
+     * @param target an ID
+     * @param visitor called once with the ID of each vertex such that this
+     *                graph includes an edge from that vertex to target, and
+     *                the weight of that edge
+     */
+    public void forEachSource(int target, EdgeVisitor visitor);
+
+}
@@ -0,0 +1,296 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An implementation of IntGraph that indexes adjacency by vertex in both
+ * directions, like {@link HashGraph}, but in open-addressing int-to-int
+ * maps rather than HashMaps: no operation boxes a vertex or a weight, and
+ * only the mutators allocate, when a table grows.
+ */
+public class IntHashGraph implements IntGraph {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final IntIntMap slots = new IntIntMap(-1);
+    private int[] vertexAt = new int[INITIAL_CAPACITY];
+    private IntIntMap[] targets = new IntIntMap[INITIAL_CAPACITY];
+    private IntIntMap[] sources = new IntIntMap[INITIAL_CAPACITY];
+    private int count = 0;
+
+    // Abstraction function:
+    //   AF(slots, vertexAt, targets, sources, count) = the graph whose
+    //     vertices are vertexAt[0..count-1], with an edge from vertexAt[s]
+    //     to t of weight w for every targets[s].get(t) == w.
+    //   sources[s] is the reverse index of the edges to vertexAt[s].
+    //
+    // Representation invariant:
+    //   - slots.size() == count <= vertexAt.length == targets.length
+    //     == sources.length
+    //   - slots.get(vertexAt[s]) == s for every 0 <= s < count
+    //   - targets[s].get(t) == w iff sources[slots.get(t)].get(vertexAt[s])
+    //     == w, and every such t is a vertex
+    //   - every weight is positive; targets and sources hold 0 for "absent"
+    //   - targets[s] and sources[s] are null for s >= count
+    //
+    // Safety from rep exposure:
+    //   - all fields are private, and no map or array is returned
+    //   - every operation takes and passes only ints
+    //
+    // Memory (64-bit JVM with compressed oops):
+    //   16 to 32 bytes per edge: an int key and an int weight in each
+    //   direction, in tables at most half full. About 200 bytes per vertex
+    //   for its slot and its two maps. Compare HashGraph (about 80 to 100
+    //   bytes per edge).
+
+    /**
+     * Check the rep invariant around one vertex. Mutators check only the
+     * vertex or edge they touched; walking every edge after every mutation
+     * would make each mutation cost time proportional to the size of the
+     * graph.
+     */
+    private void checkRep(int vertex) {
+        if (Verification.checkAll()) {
+            checkAround(vertex);
+        }
+    }
+
+    private void checkAround(int vertex) {
+        assert slots.size() == count && count <= vertexAt.length;
+        int s = slots.get(vertex);
+        if (s < 0) {
+            return;
+        }
+        assert vertexAt[s] == vertex;
+        targets[s].forEach((target, weight) -> {
+            assert weight > 0;
+            assert sources[slots.get(target)].get(vertex) == weight;
+        });
+        sources[s].forEach((source, weight) -> {
+            assert weight > 0;
+            assert targets[slots.get(source)].get(vertex) == weight;
+        });
+    }
+
+    /**
+     * Check the rep invariant for one edge.
+     */
+    private void checkRep(int source, int target) {
+        if (!Verification.checkTouched()) {
+            return;
+        }
+        assert slots.size() == count;
+        int s = slots.get(source);
+        int t = slots.get(target);
+        int forward = s < 0 ? 0 : targets[s].get(target);
+        int reverse = t < 0 ? 0 : sources[t].get(source);
+        assert forward == reverse && forward >= 0;
+    }
+
+    /**
+     * @return the slot of vertex, adding it if it is new
+     */
+    private int slotOf(int vertex) {
+        int s = slots.get(vertex);
+        if (s >= 0) {
+            return s;
+        }
+        if (count == vertexAt.length) {
+            vertexAt = Arrays.copyOf(vertexAt, 2 * count);
+            targets = Arrays.copyOf(targets, 2 * count);
+            sources = Arrays.copyOf(sources, 2 * count);
+        }
+        s = count++;
+        vertexAt[s] = vertex;
+        targets[s] = new IntIntMap(0);
+        sources[s] = new IntIntMap(0);
+        slots.put(vertex, s);
+        return s;
+    }
+
+    private static void checkVertex(int vertex) {
+        if (vertex < 0) {
+            throw new IllegalArgumentException("vertex must be nonnegative: " + vertex);
+        }
+    }
+
+    @Override
+    public boolean add(int vertex) {
+        checkVertex(vertex);
+        if (slots.get(vertex) >= 0) {
+            return false;
+        }
+        slotOf(vertex);
+        checkRep(vertex);
+        return true;
+    }
+
+    @Override
+    public int set(int source, int target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        int previous;
+        if (weight == 0) {
+            int s = slots.get(source);
+            previous = s < 0 ? 0 : targets[s].remove(target);
+            if (previous != 0) {
+                sources[slots.get(target)].remove(source);
+            }
+        } else {
+            checkVertex(source);
+            checkVertex(target);
+            int s = slotOf(source);
+            int t = slotOf(target);
+            previous = targets[s].put(target, weight);
+            sources[t].put(source, weight);
+        }
+        checkRep(source, target);
+        return previous;
+    }
+
+    @Override
+    public int addWeight(int source, int target, int delta) {
+        int previous = weight(source, target);
+        int weight = Math.addExact(previous, delta);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight would be negative: " + weight);
+        }
+        set(source, target, weight);
+        return previous;
+    }
+
+    @Override
+    public boolean remove(int vertex) {
+        int s = slots.get(vertex);
+        if (s < 0) {
+            return false;
+        }
+        boolean check = Verification.checkAll();
+        int[] neighbours = check ? neighbours(s) : null;
+        targets[s].forEach((target, weight) -> {
+            if (target != vertex) {
+                sources[slots.get(target)].remove(vertex);
+            }
+        });
+        sources[s].forEach((source, weight) -> {
+            if (source != vertex) {
+                targets[slots.get(source)].remove(vertex);
+            }
+        });
+        // move the last vertex into the freed slot
+        int last = --count;
+        if (s != last) {
+            vertexAt[s] = vertexAt[last];
+            targets[s] = targets[last];
+            sources[s] = sources[last];
+            slots.put(vertexAt[s], s);
+        }
+        targets[last] = null;
+        sources[last] = null;
+        slots.remove(vertex);
+        if (check) {
+            checkRemoved(vertex, neighbours, s);
+        }
+        return true;
+    }
+
+    /**
+     * @return the vertices other than vertexAt[s] with an edge to or from
+     *         it, with repeats
+     */
+    private int[] neighbours(int s) {
+        int[] neighbours = new int[targets[s].size() + sources[s].size()];
+        int[] found = { 0 };
+        IntGraph.EdgeVisitor add = (neighbour, weight) -> {
+            if (neighbour != vertexAt[s]) {
+                neighbours[found[0]++] = neighbour;
+            }
+        };
+        targets[s].forEach(add);
+        sources[s].forEach(add);
+        return Arrays.copyOf(neighbours, found[0]);
+    }
+
+    /**
+     * Check the rep invariant around the vertices a removal touched: the
+     * neighbours of the removed vertex, which must have no edge left to or
+     * from it, and the vertex moved into its slot.
+     */
+    private void checkRemoved(int vertex, int[] neighbours, int s) {
+        assert slots.get(vertex) < 0;
+        assert targets[count] == null && sources[count] == null;
+        for (int neighbour : neighbours) {
+            int n = slots.get(neighbour);
+            assert targets[n].get(vertex) == 0 && sources[n].get(vertex) == 0;
+            checkAround(neighbour);
+        }
+        if (s < count) {
+            checkAround(vertexAt[s]);
+        }
+    }
+
+    @Override
+    public boolean isVertex(int vertex) {
+        return slots.get(vertex) >= 0;
+    }
+
+    @Override
+    public int vertexCount() {
+        return count;
+    }
+
+    @Override
+    public void forEachVertex(IntConsumer visitor) {
+        for (int s = 0; s < count; s++) {
+            visitor.accept(vertexAt[s]);
+        }
+    }
+
+    @Override
+    public int weight(int source, int target) {
+        int s = slots.get(source);
+        return s < 0 ? 0 : targets[s].get(target);
+    }
+
+    @Override
+    public int outDegree(int source) {
+        int s = slots.get(source);
+        return s < 0 ? 0 : targets[s].size();
+    }
+
+    @Override
+    public int inDegree(int target) {
+        int t = slots.get(target);
+        return t < 0 ? 0 : sources[t].size();
+    }
+
+    @Override
+    public void forEachTarget(int source, EdgeVisitor visitor) {
+        int s = slots.get(source);
+        if (s >= 0) {
+            targets[s].forEach(visitor);
+        }
+    }
+
+    @Override
+    public void forEachSource(int target, EdgeVisitor visitor) {
+        int t = slots.get(target);
+        if (t >= 0) {
+            sources[t].forEach(visitor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Vertices: [");
+        for (int s = 0; s < count; s++) {
+            text.append(s > 0 ? ", " : "").append(vertexAt[s]);
+        }
+        text.append("], Edges: {");
+        for (int s = 0; s < count; s++) {
+            text.append(s > 0 ? ", " : "").append(vertexAt[s]).append('=').append(targets[s]);
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,200 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable map from nonnegative int keys to int values, by open
+ * addressing with linear probing in parallel key and value arrays, so that
+ * it boxes nothing and allocates only when it grows.
+ *
+ * <p>Every map has a value that means "absent": {@link #get} returns it for
+ * a key not in the map, and it may not be stored.
+ */
+final class IntIntMap {
+    private static final int FREE = -1;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int missing;
+    private int[] keys;
+    private int[] values;
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(keys, values) = the map with values[i] at key keys[i], for every
+    //     i such that keys[i] != FREE
+    // Representation invariant:
+    //   keys.length == values.length, a power of two, >= INITIAL_CAPACITY
+    //   size is the number of keys[i] != FREE, and 2 * size <= keys.length
+    //   every keys[i] != FREE is nonnegative, appears once, and is reached
+    //     by probing from slot(keys[i]) without passing a FREE slot
+    //   values[i] != missing wherever keys[i] != FREE
+    // Safety from rep exposure:
+    //   all fields are private, and the arrays are never returned.
+    // Memory:
+    //   between 16 and 32 bytes per entry, for an int key and an int value
+    //   in a table at most half full.
+
+    /**
+     * Make an empty map.
+     *
+     * @param missing the value that get returns for an absent key
+     */
+    IntIntMap(int missing) {
+        this.missing = missing;
+        this.keys = new int[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, FREE);
+    }
+
+    private void checkRep() {
+        assert keys.length == values.length && Integer.bitCount(keys.length) == 1;
+        assert 2 * size <= keys.length;
+    }
+
+    /**
+     * Check the representation invariant in full, in time proportional to
+     * the capacity of the map.
+     */
+    void checkRepFully() {
+        checkRep();
+        int used = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                used++;
+                assert keys[i] >= 0 && values[i] != missing;
+                assert find(keys[i]) == i;
+            }
+        }
+        assert used == size;
+    }
+
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * @return the slot holding key, or the FREE slot where it would go
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (keys[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * @return the number of keys in this map
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key a key
+     * @return the value of key, or missing if it is not in this map
+     */
+    int get(int key) {
+        if (key < 0) {
+            return missing;
+        }
+        int i = find(key);
+        return keys[i] == FREE ? missing : values[i];
+    }
+
+    /**
+     * Map a key to a value.
+     *
+     * @param key a key, >= 0
+     * @param value the value for key, not missing
+     * @return the previous value of key, or missing if it was not in this map
+     */
+    int put(int key, int value) {
+        assert key >= 0 && value != missing;
+        int i = find(key);
+        if (keys[i] != FREE) {
+            int previous = values[i];
+            values[i] = value;
+            return previous;
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+            i = find(key);
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        checkRep();
+        return missing;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key a key
+     * @return the value key had, or missing if it was not in this map
+     */
+    int remove(int key) {
+        if (key < 0) {
+            return missing;
+        }
+        int mask = keys.length - 1;
+        int i = find(key);
+        if (keys[i] == FREE) {
+            return missing;
+        }
+        int previous = values[i];
+        // shift back the later keys of the run that probing could no longer
+        // reach once slot i is free
+        for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            if (((j - slot(keys[j])) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = FREE;
+        size--;
+        checkRep();
+        return previous;
+    }
+
+    /**
+     * Visit every entry of this map. The visitor must not modify this map.
+     *
+     * @param visitor called once with each key and its value
+     */
+    void forEach(IntGraph.EdgeVisitor visitor) {
+        int[] keys = this.keys;
+        int[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[2 * oldKeys.length];
+        values = new int[keys.length];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int j = find(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        forEach((key, value) -> text.append(text.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,294 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph backed by an {@link IntGraph}, with each
+ * label interned to an int ID. Existing callers use it as any other
+ * IndexedGraph; callers that want to read edges without boxing look
+ * labels up once with {@link #id} and read the IDs through
+ * {@link #intGraph}.
+ *
+ * <p>A label keeps its ID for the life of the graph, even if its vertex is
+ * removed and added again.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class LabeledIntGraph<L> implements IndexedGraph<L> {
+    private final IntGraph graph = new IntHashGraph();
+    private final Map<L, Integer> ids = new HashMap<>();
+    private final List<L> labels = new ArrayList<>();
+
+    // Abstraction function:
+    //   AF(graph, ids, labels) = the graph with a vertex labels.get(v) for
+    //     every vertex v of graph, and an edge from labels.get(s) to
+    //     labels.get(t) of weight w for every edge s -> t of weight w in
+    //     graph.
+    //   ids maps each label that ever had a vertex back to its ID.
+    //
+    // Representation invariant:
+    //   - ids.get(labels.get(i)) == i for every 0 <= i < labels.size(), and
+    //     ids.size() == labels.size()
+    //   - every vertex of graph is in 0..labels.size()-1
+    //
+    // Safety from rep exposure:
+    //   - all fields are private and final
+    //   - labels are immutable
+    //   - vertices(), sources() and targets() return new collections
+    //   - intGraph() returns a read-only view of graph
+
+    /**
+     * Make an empty graph.
+     */
+    public LabeledIntGraph() {
+    }
+
+    /**
+     * Copy a graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to copy; not modified
+     * @return a new LabeledIntGraph with the same vertices and edges as
+     *         graph, whose IDs follow the iteration order of
+     *         graph.vertices()
+     */
+    public static <L> LabeledIntGraph<L> copyOf(Graph<L> graph) {
+        LabeledIntGraph<L> copy = new LabeledIntGraph<>();
+        Set<L> vertices = graph.vertices();
+        for (L vertex : vertices) {
+            copy.add(vertex);
+        }
+        for (L source : vertices) {
+            int s = copy.ids.get(source);
+            if (graph instanceof IndexedGraph) {
+                ((IndexedGraph<L>) graph).forEachTarget(source,
+                        (target, weight) -> copy.graph.set(s, copy.ids.get(target), weight));
+            } else {
+                for (Map.Entry<L, Integer> edge : graph.targets(source).entrySet()) {
+                    copy.graph.set(s, copy.ids.get(edge.getKey()), edge.getValue());
+                }
+            }
+        }
+        copy.checkRep();
+        return copy;
+    }
+
+    private void checkRep() {
+        assert ids.size() == labels.size();
+        assert graph.vertexCount() <= labels.size();
+    }
+
+    /**
+     * @return the ID of label, assigning the next one if it has none
+     */
+    private int intern(L label) {
+        Integer id = ids.get(label);
+        if (id == null) {
+            id = labels.size();
+            ids.put(label, id);
+            labels.add(label);
+        }
+        return id;
+    }
+
+    /**
+     * Get the ID of a vertex.
+     *
+     * @param label a label
+     * @return the ID of the vertex with that label in {@link #intGraph},
+     *         or -1 if this graph has no such vertex
+     */
+    public int id(L label) {
+        Integer id = ids.get(label);
+        return id != null && graph.isVertex(id) ? id : -1;
+    }
+
+    /**
+     * Get the label of a vertex.
+     *
+     * @param id the ID of a vertex of {@link #intGraph}
+     * @return the label of that vertex
+     * @throws IllegalArgumentException if id is not a vertex
+     */
+    public L label(int id) {
+        if (!graph.isVertex(id)) {
+            throw new IllegalArgumentException("not a vertex: " + id);
+        }
+        return labels.get(id);
+    }
+
+    /**
+     * Get the vertices and edges of this graph by ID.
+     *
+     * @return a read-only view of this graph, whose vertices are the IDs of
+     *         the vertices of this graph; it changes as this graph does,
+     *         and its mutators throw UnsupportedOperationException
+     */
+    public IntGraph intGraph() {
+        return new ReadOnlyView();
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        boolean added = graph.add(intern(vertex));
+        checkRep();
+        return added;
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        int previous;
+        if (weight == 0) {
+            Integer s = ids.get(source);
+            Integer t = ids.get(target);
+            previous = s == null || t == null ? 0 : graph.set(s, t, 0);
+        } else {
+            previous = graph.set(intern(source), intern(target), weight);
+        }
+        checkRep();
+        return previous;
+    }
+
+    @Override
+    public int addWeight(L source, L target, int delta) {
+        if (delta <= 0) {
+            return IndexedGraph.super.addWeight(source, target, delta);
+        }
+        int previous = graph.addWeight(intern(source), intern(target), delta);
+        checkRep();
+        return previous;
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        Integer id = ids.get(vertex);
+        return id != null && graph.remove(id);
+    }
+
+    @Override
+    public Set<L> vertices() {
+        Set<L> vertices = new HashSet<>();
+        graph.forEachVertex(id -> vertices.add(labels.get(id)));
+        return vertices;
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = new HashMap<>();
+        forEachSource(target, sources::put);
+        return sources;
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = new HashMap<>();
+        forEachTarget(source, targets::put);
+        return targets;
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        Integer s = ids.get(source);
+        Integer t = ids.get(target);
+        return s == null || t == null ? 0 : graph.weight(s, t);
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        Integer s = ids.get(source);
+        if (s != null) {
+            graph.forEachTarget(s, (target, weight) -> visitor.accept(labels.get(target), weight));
+        }
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        Integer t = ids.get(target);
+        if (t != null) {
+            graph.forEachSource(t, (source, weight) -> visitor.accept(labels.get(source), weight));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Vertices: " + vertices() + ", Edges: " + graph;
+    }
+
+    /**
+     * Read-only view of the IDs of the graph.
+     */
+    private class ReadOnlyView implements IntGraph {
+
+        @Override
+        public boolean add(int vertex) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public int set(int source, int target, int weight) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public int addWeight(int source, int target, int delta) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public boolean remove(int vertex) {
+            throw new UnsupportedOperationException("read-only view");
+        }
+
+        @Override
+        public boolean isVertex(int vertex) {
+            return graph.isVertex(vertex);
+        }
+
+        @Override
+        public int vertexCount() {
+            return graph.vertexCount();
+        }
+
+        @Override
+        public void forEachVertex(IntConsumer visitor) {
+            graph.forEachVertex(visitor);
+        }
+
+        @Override
+        public int weight(int source, int target) {
+            return graph.weight(source, target);
+        }
+
+        @Override
+        public int outDegree(int source) {
+            return graph.outDegree(source);
+        }
+
+        @Override
+        public int inDegree(int target) {
+            return graph.inDegree(target);
+        }
+
+        @Override
+        public void forEachTarget(int source, EdgeVisitor visitor) {
+            graph.forEachTarget(source, visitor);
+        }
+
+        @Override
+        public void forEachSource(int target, EdgeVisitor visitor) {
+            graph.forEachSource(target, visitor);
+        }
+
+        @Override
+        public String toString() {
+            return "IDs of " + LabeledIntGraph.this;
+        }
+    }
+}
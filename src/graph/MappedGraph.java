@@ -0,0 +1,625 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A read-only implementation of Graph served from a memory-mapped snapshot
+ * file. {@link #write} saves any graph as a snapshot; {@link #open} maps a
+ * snapshot and answers queries straight from the mapped bytes, so opening
+ * one takes constant time and heap regardless of its size, and the
+ * operating system pages the file in as it is read.
+ *
+ * <p>A snapshot is a string table and compressed-sparse-row adjacency, like
+ * {@link CompactGraph}, laid out as big-endian ints:
+ * <pre>
+ *   magic, version, vertex count n, edge count m
+ *   labelOffsets[n+1]    byte offset of each label in the label data
+ *   targetOffsets[n+1]   start of each vertex's targets in the arrays below
+ *   targetIds[m]         targets of each vertex, in the order the original
+ *                        graph visited them
+ *   targetWeights[m]
+ *   targetSorted[m]      for each vertex, the indexes within its run of
+ *                        its targets in increasing ID order
+ *   sourceOffsets[n+1]
+ *   sourceIds[m]         sources of each vertex, in increasing ID order
+ *   sourceWeights[m]
+ *   label data           UTF-8 labels, in increasing unsigned byte order,
+ *                        so a vertex's ID is the rank of its label
+ * </pre>
+ * Keeping each vertex's targets in the order the original graph visited
+ * them makes {@link #forEachTarget} visit them in the same order, so
+ * clients whose results depend on that order, such as the tie-breaking in
+ * GraphPoet, give the same results from a snapshot as from the original.
+ *
+ * <p>The mutators {@link #add}, {@link #set} and {@link #remove} throw
+ * {@link UnsupportedOperationException}. A snapshot is limited to 2 GB.
+ */
+public final class MappedGraph implements IndexedGraph<String> {
+
+    private static final int MAGIC = 0x47504752; // "GPGR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int labelOffsetsAt;
+    private final int targetOffsetsAt;
+    private final int targetIdsAt;
+    private final int targetWeightsAt;
+    private final int targetSortedAt;
+    private final int sourceOffsetsAt;
+    private final int sourceIdsAt;
+    private final int sourceWeightsAt;
+    private final int labelsAt;
+
+    // Abstraction function:
+    //   AF = the graph whose vertices are label(0..vertexCount-1), with an
+    //     edge from label(s) to label(targetIds[i]) of weight
+    //     targetWeights[i] for every targetOffsets[s] <= i < targetOffsets[s+1],
+    //     where each array is the run of ints in buffer starting at the
+    //     matching *At position. The source* arrays are the reverse index
+    //     of the same edges.
+    //
+    // Representation invariant:
+    //   - buffer holds a snapshot as described above, with *At the byte
+    //     position of each section and labels the rest of the buffer
+    //   - labels are distinct and in increasing unsigned UTF-8 byte order
+    //   - targetSorted holds, within each run, a permutation of the run's
+    //     indexes that orders its target IDs strictly increasing
+    //   - source runs have strictly increasing IDs
+    //   - every weight is positive
+    //   open() checks the header and section sizes; checkRep() checks what
+    //   it can in constant time, and the contents of the sections are
+    //   trusted as written by write().
+    //
+    // Safety from rep exposure:
+    //   - all fields are private and final, and buffer is read-only and
+    //     never returned
+    //   - labels are immutable Strings decoded on each read
+    //   - vertices(), sources() and targets() return new collections
+    //   - forEachSource() and forEachTarget() pass only labels and ints
+    //
+    // Thread safety argument:
+    //   - buffer is only read with absolute gets, which do not touch its
+    //     position, so any number of threads may read it at once
+    //
+    // Memory:
+    //   20 bytes per edge and 16 bytes per vertex plus its UTF-8 label, all
+    //   in the mapped file rather than the heap.
+
+    private MappedGraph(ByteBuffer buffer, int vertexCount, int edgeCount) {
+        this.buffer = buffer;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.labelOffsetsAt = HEADER_BYTES;
+        this.targetOffsetsAt = labelOffsetsAt + 4 * (vertexCount + 1);
+        this.targetIdsAt = targetOffsetsAt + 4 * (vertexCount + 1);
+        this.targetWeightsAt = targetIdsAt + 4 * edgeCount;
+        this.targetSortedAt = targetWeightsAt + 4 * edgeCount;
+        this.sourceOffsetsAt = targetSortedAt + 4 * edgeCount;
+        this.sourceIdsAt = sourceOffsetsAt + 4 * (vertexCount + 1);
+        this.sourceWeightsAt = sourceIdsAt + 4 * edgeCount;
+        this.labelsAt = sourceWeightsAt + 4 * edgeCount;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert buffer.isReadOnly();
+        assert buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION;
+        assert intAt(labelOffsetsAt, 0) == 0 && labelsAt + intAt(labelOffsetsAt, vertexCount) == buffer.limit();
+        assert intAt(targetOffsetsAt, 0) == 0 && intAt(targetOffsetsAt, vertexCount) == edgeCount;
+        assert intAt(sourceOffsetsAt, 0) == 0 && intAt(sourceOffsetsAt, vertexCount) == edgeCount;
+    }
+
+    /**
+     * Save a graph as a snapshot file, replacing the file if it exists.
+     *
+     * @param graph graph to save; not modified
+     * @param file path of the snapshot file to write
+     * @throws IOException if the file cannot be written, or if a label is
+     *         not valid Unicode
+     * @throws IllegalArgumentException if the snapshot would be larger than
+     *         2 GB
+     */
+    public static void write(IndexedGraph<String> graph, Path file) throws IOException {
+        write(graph, label -> label, file);
+    }
+
+    /**
+     * Save a graph as a snapshot file whose labels are the names of the
+     * graph's labels, replacing the file if it exists. The snapshot visits
+     * the targets of each vertex in the same order as graph does.
+     *
+     * <p>The snapshot is written to a temporary file in the same directory
+     * and then moved over file atomically, so file is never seen half
+     * written, and a graph {@link #open opened} from the old file keeps
+     * reading the old snapshot.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to save; not modified
+     * @param name function giving the label in the snapshot of each vertex
+     *             of graph; must give different names to different vertices
+     * @param file path of the snapshot file to write
+     * @throws IOException if the file cannot be written, or if a name is
+     *         not valid Unicode
+     * @throws IllegalArgumentException if the snapshot would be larger than
+     *         2 GB
+     */
+    public static <L> void write(IndexedGraph<L> graph, Function<? super L, String> name, Path file)
+            throws IOException {
+        Set<L> vertices = graph.vertices();
+        int n = vertices.size();
+        byte[][] encoded = new byte[n][];
+        Object[] unsorted = vertices.toArray();
+        Integer[] byName = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) unsorted[i];
+            encoded[i] = encode(name.apply(label));
+            byName[i] = i;
+        }
+        Arrays.sort(byName, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+        Object[] labels = new Object[n];
+        byte[][] sortedNames = new byte[n][];
+        Map<L, Integer> ids = new HashMap<>();
+        long labelBytes = 0;
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) unsorted[byName[i]];
+            labels[i] = label;
+            sortedNames[i] = encoded[byName[i]];
+            ids.put(label, i);
+            labelBytes += sortedNames[i].length;
+        }
+
+        // forward runs in visiting order, each with its sorted permutation
+        int[] targetOffsets = new int[n + 1];
+        Run targets = new Run();
+        for (int s = 0; s < n; s++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) labels[s];
+            graph.forEachTarget(label, (target, weight) -> targets.append(ids.get(target), weight));
+            targetOffsets[s + 1] = targets.size;
+        }
+        int m = targets.size;
+        int[] targetSorted = new int[m];
+        int[] inDegrees = new int[n];
+        for (int s = 0; s < n; s++) {
+            int start = targetOffsets[s];
+            long[] order = new long[targetOffsets[s + 1] - start];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = ((long) targets.ids[start + i] << 32) | i;
+                inDegrees[targets.ids[start + i]]++;
+            }
+            Arrays.sort(order);
+            for (int i = 0; i < order.length; i++) {
+                targetSorted[start + i] = (int) order[i];
+            }
+        }
+
+        // reverse runs by counting sort; visiting sources in increasing ID
+        // order leaves each run sorted
+        int[] sourceOffsets = new int[n + 1];
+        for (int t = 0; t < n; t++) {
+            sourceOffsets[t + 1] = sourceOffsets[t] + inDegrees[t];
+        }
+        int[] next = Arrays.copyOf(sourceOffsets, n);
+        int[] sourceIds = new int[m];
+        int[] sourceWeights = new int[m];
+        for (int s = 0; s < n; s++) {
+            for (int i = targetOffsets[s]; i < targetOffsets[s + 1]; i++) {
+                int slot = next[targets.ids[i]]++;
+                sourceIds[slot] = s;
+                sourceWeights[slot] = targets.weights[i];
+            }
+        }
+
+        long size = HEADER_BYTES + 4L * 3 * (n + 1) + 4L * 5 * m + labelBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph too large for a snapshot: " + size + " bytes");
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        boolean moved = false;
+        try {
+            writeSnapshot(temporary, sortedNames, targetOffsets, targets, targetSorted,
+                    sourceOffsets, sourceIds, sourceWeights);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    private static void writeSnapshot(Path file, byte[][] sortedNames, int[] targetOffsets, Run targets,
+            int[] targetSorted, int[] sourceOffsets, int[] sourceIds, int[] sourceWeights) throws IOException {
+        int n = sortedNames.length;
+        int m = sourceIds.length;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            int labelOffset = 0;
+            out.writeInt(labelOffset);
+            for (byte[] label : sortedNames) {
+                labelOffset += label.length;
+                out.writeInt(labelOffset);
+            }
+            writeInts(out, targetOffsets, n + 1);
+            writeInts(out, targets.ids, m);
+            writeInts(out, targets.weights, m);
+            writeInts(out, targetSorted, m);
+            writeInts(out, sourceOffsets, n + 1);
+            writeInts(out, sourceIds, m);
+            writeInts(out, sourceWeights, m);
+            for (byte[] label : sortedNames) {
+                out.write(label);
+            }
+        }
+    }
+
+    /**
+     * Map a snapshot file written by {@link #write}. The file must not be
+     * changed while the returned graph is in use.
+     *
+     * @param file path of the snapshot file
+     * @return a read-only graph with the vertices and edges saved in file
+     * @throws IOException if the file cannot be read, or is not a snapshot
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("not a graph snapshot: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asReadOnlyBuffer();
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("not a graph snapshot: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("unsupported graph snapshot version " + buffer.getInt(4) + ": " + file);
+            }
+            int n = buffer.getInt(8);
+            int m = buffer.getInt(12);
+            long labelsAt = HEADER_BYTES + 4L * 3 * (n + 1) + 4L * 5 * m;
+            if (n < 0 || m < 0 || labelsAt > size
+                    || buffer.getInt(HEADER_BYTES) != 0
+                    || labelsAt + buffer.getInt(HEADER_BYTES + 4 * n) != size) {
+                throw new IOException("corrupt graph snapshot: " + file);
+            }
+            MappedGraph graph = new MappedGraph(buffer, n, m);
+            if (graph.intAt(graph.targetOffsetsAt, n) != m || graph.intAt(graph.sourceOffsetsAt, n) != m) {
+                throw new IOException("corrupt graph snapshot: " + file);
+            }
+            return graph;
+        }
+    }
+
+    private static byte[] encode(String label) throws CharacterCodingException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.newEncoder().encode(CharBuffer.wrap(label));
+        byte[] encoded = new byte[bytes.remaining()];
+        bytes.get(encoded);
+        return encoded;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    /**
+     * A growing run of edges, as parallel neighbour ID and weight arrays.
+     */
+    private static final class Run {
+        private int[] ids = new int[16];
+        private int[] weights = new int[16];
+        private int size = 0;
+
+        void append(int id, int weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    private int intAt(int section, int index) {
+        return buffer.getInt(section + 4 * index);
+    }
+
+    /**
+     * @return the number of vertices in this graph
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return the number of edges in this graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get the ID of a vertex. IDs are dense, in 0..vertexCount()-1, and
+     * ordered by the UTF-8 bytes of the labels. Takes time logarithmic in
+     * the number of vertices.
+     *
+     * @param label a label
+     * @return the ID of the vertex with that label, or -1 if there is none
+     */
+    public int id(String label) {
+        byte[] key;
+        try {
+            key = encode(label);
+        } catch (CharacterCodingException e) {
+            return -1; // write() saves only valid Unicode labels
+        }
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareLabel(mid, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare the label of a vertex with UTF-8 bytes, as unsigned bytes.
+     */
+    private int compareLabel(int id, byte[] key) {
+        int start = labelsAt + intAt(labelOffsetsAt, id);
+        int length = labelsAt + intAt(labelOffsetsAt, id + 1) - start;
+        for (int i = 0; i < Math.min(length, key.length); i++) {
+            int comparison = Byte.compareUnsigned(buffer.get(start + i), key[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    /**
+     * @param id a vertex ID, 0 <= id < vertexCount()
+     * @return the label of the vertex with that ID, decoded from the file
+     */
+    public String label(int id) {
+        int start = intAt(labelOffsetsAt, id);
+        byte[] bytes = new byte[intAt(labelOffsetsAt, id + 1) - start];
+        buffer.get(labelsAt + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param source a vertex ID, 0 <= source < vertexCount()
+     * @param target a vertex ID, 0 <= target < vertexCount()
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(int source, int target) {
+        int start = intAt(targetOffsetsAt, source);
+        int low = 0;
+        int high = intAt(targetOffsetsAt, source + 1) - start - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int i = start + intAt(targetSortedAt, start + mid);
+            int id = intAt(targetIdsAt, i);
+            if (id < target) {
+                low = mid + 1;
+            } else if (id > target) {
+                high = mid - 1;
+            } else {
+                return intAt(targetWeightsAt, i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get a read-only view of this graph whose vertices are the IDs of this
+     * graph's vertices, in 0..vertexCount()-1. Reading the view neither
+     * looks labels up nor decodes them, and its visitors visit the edges of
+     * each vertex in the same order as this graph's.
+     *
+     * @return a view of this graph with each label replaced by its ID; its
+     *         mutators throw UnsupportedOperationException
+     */
+    public IndexedGraph<Integer> byId() {
+        return new IdView();
+    }
+
+    /*
+     * This graph with vertex IDs for labels.
+     */
+    private final class IdView implements IndexedGraph<Integer> {
+
+        private boolean isVertex(Integer id) {
+            return id != null && 0 <= id && id < vertexCount;
+        }
+
+        @Override
+        public boolean add(Integer vertex) {
+            throw new UnsupportedOperationException("MappedGraph is read-only");
+        }
+
+        @Override
+        public int set(Integer source, Integer target, int weight) {
+            throw new UnsupportedOperationException("MappedGraph is read-only");
+        }
+
+        @Override
+        public boolean remove(Integer vertex) {
+            throw new UnsupportedOperationException("MappedGraph is read-only");
+        }
+
+        @Override
+        public Set<Integer> vertices() {
+            Set<Integer> vertices = new HashSet<>();
+            for (int id = 0; id < vertexCount; id++) {
+                vertices.add(id);
+            }
+            return vertices;
+        }
+
+        @Override
+        public Map<Integer, Integer> sources(Integer target) {
+            Map<Integer, Integer> sources = new HashMap<>();
+            forEachSource(target, sources::put);
+            return sources;
+        }
+
+        @Override
+        public Map<Integer, Integer> targets(Integer source) {
+            Map<Integer, Integer> targets = new HashMap<>();
+            forEachTarget(source, targets::put);
+            return targets;
+        }
+
+        @Override
+        public int weight(Integer source, Integer target) {
+            return isVertex(source) && isVertex(target) ? MappedGraph.this.weight(source, target) : 0;
+        }
+
+        @Override
+        public void forEachSource(Integer target, ObjIntConsumer<? super Integer> visitor) {
+            if (isVertex(target)) {
+                for (int i = intAt(sourceOffsetsAt, target); i < intAt(sourceOffsetsAt, target + 1); i++) {
+                    visitor.accept(intAt(sourceIdsAt, i), intAt(sourceWeightsAt, i));
+                }
+            }
+        }
+
+        @Override
+        public void forEachTarget(Integer source, ObjIntConsumer<? super Integer> visitor) {
+            if (isVertex(source)) {
+                for (int i = intAt(targetOffsetsAt, source); i < intAt(targetOffsetsAt, source + 1); i++) {
+                    visitor.accept(intAt(targetIdsAt, i), intAt(targetWeightsAt, i));
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "IDs of " + MappedGraph.this;
+        }
+    }
+
+    /**
+     * Unsupported; MappedGraph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean add(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Unsupported; MappedGraph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int set(String source, String target, int weight) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Unsupported; MappedGraph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    @Override
+    public Set<String> vertices() {
+        Set<String> vertices = new HashSet<>();
+        for (int id = 0; id < vertexCount; id++) {
+            vertices.add(label(id));
+        }
+        return vertices;
+    }
+
+    @Override
+    public Map<String, Integer> sources(String target) {
+        Map<String, Integer> sources = new HashMap<>();
+        forEachSource(target, sources::put);
+        return sources;
+    }
+
+    @Override
+    public Map<String, Integer> targets(String source) {
+        Map<String, Integer> targets = new HashMap<>();
+        forEachTarget(source, targets::put);
+        return targets;
+    }
+
+    @Override
+    public int weight(String source, String target) {
+        int s = id(source);
+        int t = s < 0 ? -1 : id(target);
+        return t < 0 ? 0 : weight(s, t);
+    }
+
+    @Override
+    public void forEachSource(String target, ObjIntConsumer<? super String> visitor) {
+        int t = id(target);
+        if (t >= 0) {
+            for (int i = intAt(sourceOffsetsAt, t); i < intAt(sourceOffsetsAt, t + 1); i++) {
+                visitor.accept(label(intAt(sourceIdsAt, i)), intAt(sourceWeightsAt, i));
+            }
+        }
+    }
+
+    @Override
+    public void forEachTarget(String source, ObjIntConsumer<? super String> visitor) {
+        int s = id(source);
+        if (s >= 0) {
+            for (int i = intAt(targetOffsetsAt, s); i < intAt(targetOffsetsAt, s + 1); i++) {
+                visitor.accept(label(intAt(targetIdsAt, i)), intAt(targetWeightsAt, i));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedGraph: " + vertexCount + " vertices, " + edgeCount + " edges";
+    }
+}
@@ -0,0 +1,451 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph that keeps its edges outside the Java heap, in
+ * direct ByteBuffers, so that a graph of many millions of edges adds almost
+ * nothing for the garbage collector to trace or copy. Only the labels, and
+ * the index from each label to its vertex ID, stay on the heap.
+ *
+ * <p>Each vertex has two adjacency lists, of targets and of sources, and
+ * each list is one run of (neighbour ID, weight) slots in an arena of
+ * direct buffers. Runs hold a power of two of slots; a list that fills its
+ * run moves to one twice the size, so adding an edge costs amortized
+ * constant time plus the search for an existing edge, and the old run is
+ * kept for reuse by the next list of that size.
+ *
+ * <p>Finding an edge scans the shorter of the target list of its source
+ * and the source list of its target, so {@link #weight} and {@link #set}
+ * cost time proportional to the smaller of the two degrees, rather than
+ * the constant time of a hash table. Updating or removing an edge that
+ * exists also scans the other list.
+ *
+ * <p>The off-heap memory is released when the graph is garbage-collected.
+ * Each vertex may have at most 2^22 targets and 2^22 sources.
+ */
+public class OffHeapGraph implements IndexedGraph<String> {
+    private static final int CHUNK_BITS = 22;
+    private static final int MAX_CHUNK_SLOTS = 1 << CHUNK_BITS;
+    private static final int FIRST_CHUNK_SLOTS = 1 << 10;
+    private static final int NONE = -1;
+
+    // vertex table: VERTEX_INTS ints per vertex ID
+    private static final int OUT_RUN = 0;
+    private static final int OUT_COUNT = 1;
+    private static final int OUT_CLASS = 2;
+    private static final int IN_RUN = 3;
+    private static final int IN_COUNT = 4;
+    private static final int IN_CLASS = 5;
+    private static final int VERTEX_INTS = 6;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] labels = new String[16];
+    private IntBuffer vertexTable = allocate(16 * VERTEX_INTS);
+    private int[] freeIds = new int[16];
+    private int freeIdCount = 0;
+    private int idLimit = 0;
+
+    private final List<IntBuffer> chunks = new ArrayList<>();
+    private int chunkTop = 0;
+    private final int[] freeRuns = new int[CHUNK_BITS + 1];
+
+    // Abstraction function:
+    //   AF = the graph whose vertices are labels[v] for every v < idLimit
+    //     with labels[v] != null, with an edge from labels[v] to labels[t]
+    //     of weight w for every slot (t, w) in the target list of v.
+    //   The target list of v is the first vertexTable[v, OUT_COUNT] slots
+    //     of the run at vertexTable[v, OUT_RUN]; the source list (IN_*) is
+    //     the reverse index of the same edges.
+    //   A run address is (chunk << CHUNK_BITS) | first slot in the chunk; a
+    //     slot is two ints of its chunk, a neighbour ID and a weight.
+    //
+    // Representation invariant:
+    //   - ids.get(labels[v]) == v for every live v, and ids.size() is the
+    //     number of live v
+    //   - freeIds[0..freeIdCount-1] are distinct, < idLimit, and exactly
+    //     the v < idLimit with labels[v] == null
+    //   - a list with a run of class k holds at most 2^k slots, and a list
+    //     with no run (class NONE) is empty
+    //   - (t, w) is in the target list of v iff (v, w) is in the source list
+    //     of t; each neighbour appears at most once in a list, and w > 0
+    //   - freeRuns[k] heads a list of free runs of class k, linked through
+    //     their first int, ending in NONE
+    //
+    // Safety from rep exposure:
+    //   - all fields are private, and no buffer or array escapes
+    //   - labels are immutable Strings
+    //   - vertices(), sources() and targets() return new collections
+    //   - forEachSource() and forEachTarget() pass only labels and ints
+    //
+    // Memory:
+    //   off the heap, 16 to 32 bytes per edge (an 8-byte slot in each
+    //   direction, in runs at least half full while they grow) and 24
+    //   bytes per vertex; on the heap, only the label and its ids entry,
+    //   about 80 to 100 bytes per vertex.
+
+    /**
+     * Make an empty graph.
+     */
+    public OffHeapGraph() {
+        Arrays.fill(freeRuns, NONE);
+    }
+
+    private static IntBuffer allocate(int ints) {
+        return ByteBuffer.allocateDirect(4 * ints).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Check the rep invariant for one edge: it is in both lists with the
+     * same weight, or in neither.
+     */
+    private void checkRep(int source, int target) {
+        if (!Verification.checkTouched()) {
+            return;
+        }
+        assert ids.size() + freeIdCount == idLimit;
+        if (source == NONE || target == NONE || labels[source] == null || labels[target] == null) {
+            return;
+        }
+        int forward = find(source, OUT_RUN, target);
+        int reverse = find(target, IN_RUN, source);
+        assert (forward < 0) == (reverse < 0);
+        if (forward >= 0) {
+            int w = weightAt(field(source, OUT_RUN), forward);
+            assert w > 0 && w == weightAt(field(target, IN_RUN), reverse);
+        }
+    }
+
+    // --- vertex table
+
+    private int field(int vertex, int field) {
+        return vertexTable.get(vertex * VERTEX_INTS + field);
+    }
+
+    private void setField(int vertex, int field, int value) {
+        vertexTable.put(vertex * VERTEX_INTS + field, value);
+    }
+
+    /**
+     * @return the ID of label, adding a vertex for it if it has none
+     */
+    private int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        int v;
+        if (freeIdCount > 0) {
+            v = freeIds[--freeIdCount];
+        } else {
+            v = idLimit++;
+            if (v == labels.length) {
+                labels = Arrays.copyOf(labels, 2 * v);
+                IntBuffer grown = allocate(2 * v * VERTEX_INTS);
+                grown.put(vertexTable.duplicate().clear());
+                vertexTable = grown;
+            }
+        }
+        labels[v] = label;
+        ids.put(label, v);
+        clear(v, OUT_RUN);
+        clear(v, IN_RUN);
+        return v;
+    }
+
+    private int idOf(String label) {
+        Integer id = ids.get(label);
+        return id == null ? NONE : id;
+    }
+
+    // --- arena
+
+    private IntBuffer chunk(int run) {
+        return chunks.get(run >>> CHUNK_BITS);
+    }
+
+    private static int slotIndex(int run, int i) {
+        return 2 * ((run & (MAX_CHUNK_SLOTS - 1)) + i);
+    }
+
+    private int neighbourAt(int run, int i) {
+        return chunk(run).get(slotIndex(run, i));
+    }
+
+    private int weightAt(int run, int i) {
+        return chunk(run).get(slotIndex(run, i) + 1);
+    }
+
+    private void putSlot(int run, int i, int neighbour, int weight) {
+        IntBuffer chunk = chunk(run);
+        int index = slotIndex(run, i);
+        chunk.put(index, neighbour);
+        chunk.put(index + 1, weight);
+    }
+
+    /**
+     * @return a run of 2^sizeClass slots, reused if one is free
+     */
+    private int allocateRun(int sizeClass) {
+        if (sizeClass > CHUNK_BITS) {
+            throw new IllegalStateException("too many edges at one vertex");
+        }
+        int run = freeRuns[sizeClass];
+        if (run != NONE) {
+            freeRuns[sizeClass] = chunk(run).get(slotIndex(run, 0));
+            return run;
+        }
+        int size = 1 << sizeClass;
+        int chunkSlots = chunks.isEmpty() ? 0 : chunks.get(chunks.size() - 1).capacity() / 2;
+        if (chunkTop + size > chunkSlots) {
+            if (chunks.size() == 1 << (Integer.SIZE - 1 - CHUNK_BITS)) {
+                throw new IllegalStateException("graph too large");
+            }
+            // start a chunk twice the size of the last, big enough for the run
+            int slots = Math.max(Math.min(2 * chunkSlots, MAX_CHUNK_SLOTS), Math.max(FIRST_CHUNK_SLOTS, size));
+            chunks.add(allocate(2 * slots));
+            chunkTop = 0;
+        }
+        run = ((chunks.size() - 1) << CHUNK_BITS) | chunkTop;
+        chunkTop += size;
+        return run;
+    }
+
+    private void freeRun(int run, int sizeClass) {
+        chunk(run).put(slotIndex(run, 0), freeRuns[sizeClass]);
+        freeRuns[sizeClass] = run;
+    }
+
+    // --- adjacency lists, named by their RUN field: OUT_RUN or IN_RUN
+
+    private void clear(int vertex, int list) {
+        setField(vertex, list, NONE);
+        setField(vertex, list + 1, 0);
+        setField(vertex, list + 2, NONE);
+    }
+
+    /**
+     * @return the index of neighbour in a list of vertex, or -1 if absent
+     */
+    private int find(int vertex, int list, int neighbour) {
+        int run = field(vertex, list);
+        int count = field(vertex, list + 1);
+        if (count == 0) {
+            return -1;
+        }
+        IntBuffer chunk = chunk(run);
+        int start = slotIndex(run, 0);
+        for (int i = 0; i < count; i++) {
+            if (chunk.get(start + 2 * i) == neighbour) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void append(int vertex, int list, int neighbour, int weight) {
+        int run = field(vertex, list);
+        int count = field(vertex, list + 1);
+        int sizeClass = field(vertex, list + 2);
+        if (sizeClass == NONE || count == 1 << sizeClass) {
+            int grown = allocateRun(sizeClass + 1);
+            for (int i = 0; i < count; i++) {
+                putSlot(grown, i, neighbourAt(run, i), weightAt(run, i));
+            }
+            if (sizeClass != NONE) {
+                freeRun(run, sizeClass);
+            }
+            run = grown;
+            setField(vertex, list, run);
+            setField(vertex, list + 2, sizeClass + 1);
+        }
+        putSlot(run, count, neighbour, weight);
+        setField(vertex, list + 1, count + 1);
+    }
+
+    /**
+     * Remove slot i of a list by moving the last slot into it.
+     */
+    private void removeAt(int vertex, int list, int i) {
+        int run = field(vertex, list);
+        int last = field(vertex, list + 1) - 1;
+        putSlot(run, i, neighbourAt(run, last), weightAt(run, last));
+        setField(vertex, list + 1, last);
+        if (last == 0) {
+            freeRun(run, field(vertex, list + 2));
+            setField(vertex, list, NONE);
+            setField(vertex, list + 2, NONE);
+        }
+    }
+
+    private void forEach(int vertex, int list, ObjIntConsumer<? super String> visitor) {
+        int run = field(vertex, list);
+        int count = field(vertex, list + 1);
+        for (int i = 0; i < count; i++) {
+            visitor.accept(labels[neighbourAt(run, i)], weightAt(run, i));
+        }
+    }
+
+    /**
+     * @return the total size of the direct buffers of this graph, in bytes
+     */
+    public long offHeapBytes() {
+        long bytes = 4L * vertexTable.capacity();
+        for (IntBuffer chunk : chunks) {
+            bytes += 4L * chunk.capacity();
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean add(String vertex) {
+        if (ids.containsKey(vertex)) {
+            return false;
+        }
+        int v = intern(vertex);
+        checkRep(v, v);
+        return true;
+    }
+
+    @Override
+    public int set(String source, String target, int weight) {
+        int previous;
+        if (weight == 0) {
+            int s = idOf(source);
+            int t = idOf(target);
+            int i = s == NONE || t == NONE ? -1 : find(s, OUT_RUN, t);
+            if (i < 0) {
+                return 0;
+            }
+            previous = weightAt(field(s, OUT_RUN), i);
+            removeAt(s, OUT_RUN, i);
+            removeAt(t, IN_RUN, find(t, IN_RUN, s));
+            checkRep(s, t);
+            return previous;
+        }
+        int s = intern(source);
+        int t = intern(target);
+        // look for the edge in the shorter list; only an edge that exists
+        // needs finding in the other
+        boolean fromSource = field(s, OUT_COUNT) <= field(t, IN_COUNT);
+        int i = fromSource ? find(s, OUT_RUN, t) : find(t, IN_RUN, s);
+        if (i < 0) {
+            previous = 0;
+            append(s, OUT_RUN, t, weight);
+            append(t, IN_RUN, s, weight);
+        } else {
+            int out = fromSource ? i : find(s, OUT_RUN, t);
+            int in = fromSource ? find(t, IN_RUN, s) : i;
+            previous = weightAt(field(s, OUT_RUN), out);
+            putSlot(field(s, OUT_RUN), out, t, weight);
+            putSlot(field(t, IN_RUN), in, s, weight);
+        }
+        checkRep(s, t);
+        return previous;
+    }
+
+    @Override
+    public boolean remove(String vertex) {
+        int v = idOf(vertex);
+        if (v == NONE) {
+            return false;
+        }
+        int run = field(v, OUT_RUN);
+        for (int i = field(v, OUT_COUNT) - 1; i >= 0; i--) {
+            int t = neighbourAt(run, i);
+            if (t != v) {
+                removeAt(t, IN_RUN, find(t, IN_RUN, v));
+            }
+        }
+        run = field(v, IN_RUN);
+        for (int i = field(v, IN_COUNT) - 1; i >= 0; i--) {
+            int s = neighbourAt(run, i);
+            if (s != v) {
+                removeAt(s, OUT_RUN, find(s, OUT_RUN, v));
+            }
+        }
+        if (field(v, OUT_CLASS) != NONE) {
+            freeRun(field(v, OUT_RUN), field(v, OUT_CLASS));
+        }
+        if (field(v, IN_CLASS) != NONE) {
+            freeRun(field(v, IN_RUN), field(v, IN_CLASS));
+        }
+        ids.remove(vertex);
+        labels[v] = null;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, 2 * freeIdCount);
+        }
+        freeIds[freeIdCount++] = v;
+        checkRep(NONE, NONE);
+        return true;
+    }
+
+    @Override
+    public Set<String> vertices() {
+        return new HashSet<>(ids.keySet());
+    }
+
+    @Override
+    public Map<String, Integer> sources(String target) {
+        Map<String, Integer> sources = new HashMap<>();
+        forEachSource(target, sources::put);
+        return sources;
+    }
+
+    @Override
+    public Map<String, Integer> targets(String source) {
+        Map<String, Integer> targets = new HashMap<>();
+        forEachTarget(source, targets::put);
+        return targets;
+    }
+
+    @Override
+    public int weight(String source, String target) {
+        int s = idOf(source);
+        int t = idOf(target);
+        if (s == NONE || t == NONE) {
+            return 0;
+        }
+        if (field(s, OUT_COUNT) <= field(t, IN_COUNT)) {
+            int i = find(s, OUT_RUN, t);
+            return i < 0 ? 0 : weightAt(field(s, OUT_RUN), i);
+        }
+        int i = find(t, IN_RUN, s);
+        return i < 0 ? 0 : weightAt(field(t, IN_RUN), i);
+    }
+
+    @Override
+    public void forEachTarget(String source, ObjIntConsumer<? super String> visitor) {
+        int s = idOf(source);
+        if (s != NONE) {
+            forEach(s, OUT_RUN, visitor);
+        }
+    }
+
+    @Override
+    public void forEachSource(String target, ObjIntConsumer<? super String> visitor) {
+        int t = idOf(target);
+        if (t != NONE) {
+            forEach(t, IN_RUN, visitor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Map<String, Integer>> edges = new HashMap<>();
+        for (String vertex : ids.keySet()) {
+            edges.put(vertex, targets(vertex));
+        }
+        return "Vertices: " + ids.keySet() + ", Edges: " + edges;
+    }
+}
@@ -0,0 +1,102 @@
+package graph;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How much of their rep invariants the graphs, and the classes built on
+ * them, check as they change.
+ *
+ * <p>The mode is set by the system property {@value #PROPERTY}, one of
+ * {@code off}, {@code sampled} or {@code full}. Without it, the mode is
+ * FULL when assertions are enabled and OFF when they are not, so that a
+ * production run, without {@code -ea}, pays nothing for checks that could
+ * not fail anyway. The checks are assertions, so SAMPLED and FULL only
+ * report a broken rep when assertions are enabled.
+ */
+public enum Verification {
+
+    /** Check nothing. */
+    OFF,
+
+    /**
+     * After each change, check only the edges it touched; make the full
+     * checks after a random one in {@value #PERIOD_PROPERTY} (default
+     * {@value #DEFAULT_PERIOD}) of the changes.
+     */
+    SAMPLED,
+
+    /**
+     * After each change, make the full checks: of the whole rep where a
+     * class checks it, and otherwise of every edge of the vertices the
+     * change touched.
+     */
+    FULL;
+
+    /** System property that sets the mode. */
+    public static final String PROPERTY = "graph.verify";
+
+    /** System property that sets how rarely SAMPLED checks the whole rep. */
+    public static final String PERIOD_PROPERTY = "graph.verify.period";
+
+    private static final int DEFAULT_PERIOD = 64;
+
+    private static final int PERIOD = Math.max(1, Integer.getInteger(PERIOD_PROPERTY, DEFAULT_PERIOD));
+
+    private static volatile Verification mode = fromProperty(System.getProperty(PROPERTY));
+
+    /**
+     * Parse the value of the {@value #PROPERTY} property.
+     *
+     * @param value value of the property, or null if it is not set
+     * @return the mode it names, or the default mode if value is null
+     * @throws IllegalArgumentException if value names no mode
+     */
+    static Verification fromProperty(String value) {
+        if (value == null) {
+            boolean assertions = false;
+            assert assertions = true; // deliberate side effect
+            return assertions ? FULL : OFF;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the current mode
+     */
+    public static Verification mode() {
+        return mode;
+    }
+
+    /**
+     * Change the mode, for every thread from now on. Meant for tests that
+     * need a particular mode; otherwise set the {@value #PROPERTY} property.
+     *
+     * @param newMode the new mode
+     * @return the mode before the change
+     */
+    public static Verification setMode(Verification newMode) {
+        Verification old = mode;
+        mode = newMode;
+        return old;
+    }
+
+    /**
+     * @return true if a change should check the edges it touched: in
+     *         SAMPLED and FULL mode
+     */
+    public static boolean checkTouched() {
+        return mode != OFF;
+    }
+
+    /**
+     * @return true if a change should make the full checks: always in FULL
+     *         mode, for a random one in PERIOD changes in SAMPLED mode, and
+     *         never in OFF mode
+     */
+    public static boolean checkAll() {
+        Verification current = mode;
+        return current == FULL
+                || current == SAMPLED && ThreadLocalRandom.current().nextInt(PERIOD) == 0;
+    }
+}
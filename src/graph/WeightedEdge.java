@@ -0,0 +1,85 @@
+package graph;
+
+import java.util.Objects;
+
+/**
+ * An immutable (source, target, weight) triple, describing a directed edge
+ * for {@link GraphBuilder} to load.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class WeightedEdge<L> {
+
+    private final L source;
+    private final L target;
+    private final int weight;
+
+    // Abstraction function:
+    //   AF(source, target, weight) = the edge from source to target of
+    //     weight weight; a weight of zero stands for no edge
+    // Representation invariant:
+    //   source != null, target != null, weight >= 0
+    // Safety from rep exposure:
+    //   all fields are private, final and immutable
+
+    /**
+     * @param source label of the source vertex, not null
+     * @param target label of the target vertex, not null
+     * @param weight nonnegative weight of the edge
+     * @throws IllegalArgumentException if weight is negative
+     */
+    public WeightedEdge(L source, L target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        this.source = Objects.requireNonNull(source);
+        this.target = Objects.requireNonNull(target);
+        this.weight = weight;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert source != null && target != null;
+        assert weight >= 0;
+    }
+
+    /**
+     * @return label of the source vertex
+     */
+    public L source() {
+        return source;
+    }
+
+    /**
+     * @return label of the target vertex
+     */
+    public L target() {
+        return target;
+    }
+
+    /**
+     * @return weight of the edge
+     */
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof WeightedEdge)) {
+            return false;
+        }
+        WeightedEdge<?> other = (WeightedEdge<?>) that;
+        return source.equals(other.source) && target.equals(other.target) && weight == other.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, target, weight);
+    }
+
+    @Override
+    public String toString() {
+        return source + " -> " + target + " (" + weight + ")";
+    }
+}
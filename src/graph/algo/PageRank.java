@@ -0,0 +1,281 @@
+package graph.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import graph.CompactGraph;
+import graph.Graph;
+
+/**
+ * Immutable PageRank scores of the vertices of a weighted graph.
+ *
+ * <p>The rank of a vertex is the long-run fraction of time spent there by a
+ * random surfer who, with probability {@code damping}, follows an edge from
+ * the current vertex, chosen with probability proportional to its weight,
+ * and otherwise jumps to a vertex chosen uniformly at random. From a vertex
+ * without edges the surfer always jumps. Ranks sum to 1.
+ *
+ * <p>Ranks are found by power iteration over a {@link CompactGraph}
+ * snapshot of the graph. Each iteration pulls rank along the edges into
+ * each vertex, so vertices can be updated in parallel without sharing
+ * writes; the vertices are cut into fixed blocks run on a fork-join pool.
+ * Each block sums its share in a fixed order, so the ranks do not depend on
+ * the pool or its parallelism.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class PageRank<L> {
+
+    /** The usual probability of following an edge. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Default bound on the total change of ranks in the last iteration. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /** Default maximum number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 200;
+
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    private final CompactGraph<L> graph;
+    private final double[] ranks;
+    private final int iterations;
+
+    // Abstraction function:
+    //   AF(graph, ranks, iterations) = the ranks of the vertices of graph,
+    //     where the vertex with ID v has rank ranks[v], found in iterations
+    //     iterations
+    // Representation invariant:
+    //   ranks.length == graph.vertexCount()
+    //   every rank is positive, and they sum to 1 (within rounding)
+    //   iterations >= 0
+    // Safety from rep exposure:
+    //   all fields are private and final; ranks is never returned, and
+    //   graph is immutable.
+    // Thread safety argument:
+    //   this type is immutable.
+
+    private PageRank(CompactGraph<L> graph, double[] ranks, int iterations) {
+        this.graph = graph;
+        this.ranks = ranks;
+        this.iterations = iterations;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert ranks.length == graph.vertexCount();
+        assert iterations >= 0;
+        double total = 0;
+        for (double rank : ranks) {
+            assert rank > 0;
+            total += rank;
+        }
+        assert ranks.length == 0 || Math.abs(total - 1) < 1e-6;
+    }
+
+    /**
+     * Rank the vertices of a graph with the default damping, tolerance and
+     * maximum number of iterations, on the common fork-join pool.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to rank; not modified
+     * @return the ranks of the vertices of graph
+     */
+    public static <L> PageRank<L> compute(Graph<L> graph) {
+        return compute(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Rank the vertices of a graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to rank; not modified
+     * @param damping probability of following an edge, 0 <= damping < 1
+     * @param tolerance stop once the ranks change by less than this in
+     *                  total (the sum of the absolute changes) in one
+     *                  iteration, > 0
+     * @param maxIterations stop after this many iterations anyway, >= 1
+     * @param pool pool on which to run each iteration
+     * @return the ranks of the vertices of graph
+     * @throws IllegalArgumentException if damping, tolerance or maxIterations
+     *         is out of range
+     */
+    public static <L> PageRank<L> compute(Graph<L> graph, double damping, double tolerance,
+            int maxIterations, ForkJoinPool pool) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1): " + damping);
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        }
+        CompactGraph<L> compact = CompactGraph.copyOf(graph);
+        int n = compact.vertexCount();
+        if (n == 0) {
+            return new PageRank<>(compact, new double[0], 0);
+        }
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        // total weight out of each vertex, and the share of its rank that
+        // each unit of weight carries, recomputed every iteration
+        long[] outWeights = new long[n];
+        inParallel(pool, n, blocks, v -> {
+            long total = 0;
+            for (int i = 0, degree = compact.outDegree(v); i < degree; i++) {
+                total += compact.targetWeight(v, i);
+            }
+            outWeights[v] = total;
+        });
+
+        double[] ranks = new double[n];
+        double[] next = new double[n];
+        double[] shares = new double[n];
+        Arrays.fill(ranks, 1.0 / n);
+        double[] dangling = new double[blocks];
+        double[] change = new double[blocks];
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            double[] current = ranks;
+            inParallel(pool, n, blocks, v -> {
+                if (outWeights[v] == 0) {
+                    dangling[v / BLOCK_SIZE] += current[v];
+                    shares[v] = 0;
+                } else {
+                    shares[v] = current[v] / outWeights[v];
+                }
+            });
+            double jump = (1 - damping + damping * sum(dangling)) / n;
+            Arrays.fill(dangling, 0);
+            double[] updated = next;
+            inParallel(pool, n, blocks, v -> {
+                double pulled = 0;
+                for (int i = 0, degree = compact.inDegree(v); i < degree; i++) {
+                    pulled += shares[compact.source(v, i)] * compact.sourceWeight(v, i);
+                }
+                updated[v] = jump + damping * pulled;
+                change[v / BLOCK_SIZE] += Math.abs(updated[v] - current[v]);
+            });
+            next = ranks;
+            ranks = updated;
+            iterations++;
+            double total = sum(change);
+            Arrays.fill(change, 0);
+            if (total < tolerance) {
+                break;
+            }
+        }
+        return new PageRank<>(compact, ranks, iterations);
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Run an action on every vertex, block by block on a pool. Vertices of
+     * the same block are visited in increasing order by one thread.
+     */
+    private static void inParallel(ForkJoinPool pool, int n, int blocks, IntConsumer action) {
+        pool.invoke(new BlockTask(n, 0, blocks, action));
+    }
+
+    /**
+     * Runs an action on the vertices of blocks from..to-1.
+     */
+    private static class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int n;
+        private final int from;
+        private final int to;
+        private final transient IntConsumer action;
+
+        BlockTask(int n, int from, int to, IntConsumer action) {
+            this.n = n;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockTask(n, from, middle, action), new BlockTask(n, middle, to, action));
+                return;
+            }
+            for (int v = from * BLOCK_SIZE, end = Math.min(n, to * BLOCK_SIZE); v < end; v++) {
+                action.accept(v);
+            }
+        }
+    }
+
+    /**
+     * @param label a label
+     * @return the rank of the vertex with that label, or 0 if there is none
+     */
+    public double rank(L label) {
+        int id = graph.id(label);
+        return id < 0 ? 0 : ranks[id];
+    }
+
+    /**
+     * @return map from the label of every vertex to its rank
+     */
+    public Map<L, Double> ranks() {
+        Map<L, Double> map = new HashMap<>();
+        for (int v = 0; v < ranks.length; v++) {
+            map.put(graph.label(v), ranks[v]);
+        }
+        return map;
+    }
+
+    /**
+     * @param k maximum number of vertices to return, >= 0
+     * @return the labels of the min(k, number of vertices) vertices of
+     *         highest rank, in decreasing order of rank; the order among
+     *         equal ranks is unspecified
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<L> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int v = 0; v < ranks.length; v++) {
+            ids.add(v);
+        }
+        ids.sort(Comparator.comparingDouble((Integer v) -> ranks[v]).reversed());
+        List<L> top = new ArrayList<>();
+        for (int v : ids.subList(0, Math.min(k, ids.size()))) {
+            top.add(graph.label(v));
+        }
+        return top;
+    }
+
+    /**
+     * @return the number of iterations run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRank of " + ranks.length + " vertices after " + iterations + " iterations";
+    }
+}
@@ -0,0 +1,308 @@
+package graph.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import graph.CompactGraph;
+import graph.Graph;
+
+/**
+ * An immutable tree of shortest paths from one vertex of a graph to every
+ * vertex it can reach, found by Dijkstra's algorithm. The length of an edge
+ * is its weight, and the length of a path the sum of the lengths of its
+ * edges.
+ *
+ * <p>The search runs over a {@link CompactGraph} snapshot of the graph,
+ * with an indexed binary heap of vertex IDs, in O((n + m) log n) time for n
+ * vertices and m edges. Searches from many sources can share one snapshot
+ * and run in parallel: see {@link #fromEach}.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class ShortestPaths<L> {
+
+    private final CompactGraph<L> graph;
+    private final int source;
+    private final long[] distances;
+    private final int[] parents;
+
+    // Abstraction function:
+    //   AF(graph, source, distances, parents) = the shortest paths in graph
+    //     from graph.label(source), where the shortest path to the vertex
+    //     with ID v has length distances[v], or there is none if
+    //     distances[v] == -1, and ends with the edge parents[v] -> v
+    // Representation invariant:
+    //   distances and parents have length graph.vertexCount()
+    //   distances[source] == 0, parents[source] == -1
+    //   for every other v: distances[v] == -1 and parents[v] == -1, or
+    //     distances[parents[v]] >= 0 and distances[v] ==
+    //     distances[parents[v]] + graph.weight(parents[v], v)
+    // Safety from rep exposure:
+    //   all fields are private and final; the arrays are never returned,
+    //   and graph is immutable.
+    // Thread safety argument:
+    //   this type is immutable.
+
+    private ShortestPaths(CompactGraph<L> graph, int source, long[] distances, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert distances.length == graph.vertexCount() && parents.length == graph.vertexCount();
+        assert distances[source] == 0 && parents[source] == -1;
+        for (int v = 0; v < distances.length; v++) {
+            if (v != source) {
+                int parent = parents[v];
+                assert distances[v] == -1 && parent == -1
+                        || distances[parent] >= 0 && distances[v] == distances[parent] + graph.weight(parent, v);
+            }
+        }
+    }
+
+    /**
+     * Find the shortest paths from a vertex.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph in which to search; not modified
+     * @param source label of a vertex of graph
+     * @return the shortest paths in graph from source
+     * @throws IllegalArgumentException if source is not a vertex of graph
+     */
+    public static <L> ShortestPaths<L> from(Graph<L> graph, L source) {
+        CompactGraph<L> compact = CompactGraph.copyOf(graph);
+        return search(compact, idOf(compact, source));
+    }
+
+    /**
+     * Find the shortest paths from each of several vertices, searching from
+     * different sources in parallel over one snapshot of the graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph in which to search; not modified
+     * @param sources labels of vertices of graph
+     * @param pool pool on which to run the searches
+     * @return map from each source to the shortest paths from it, iterating
+     *         over the sources in the order given
+     * @throws IllegalArgumentException if any source is not a vertex of graph
+     */
+    public static <L> Map<L, ShortestPaths<L>> fromEach(Graph<L> graph, List<L> sources, ForkJoinPool pool) {
+        CompactGraph<L> compact = CompactGraph.copyOf(graph);
+        List<Callable<ShortestPaths<L>>> searches = new ArrayList<>();
+        for (L source : sources) {
+            int id = idOf(compact, source);
+            searches.add(() -> search(compact, id));
+        }
+        Map<L, ShortestPaths<L>> paths = new LinkedHashMap<>();
+        for (Future<ShortestPaths<L>> search : pool.invokeAll(searches)) {
+            try {
+                ShortestPaths<L> found = search.get();
+                paths.put(compact.label(found.source), found);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while searching", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("search failed", e.getCause());
+            }
+        }
+        return paths;
+    }
+
+    private static <L> int idOf(CompactGraph<L> graph, L source) {
+        int id = graph.id(source);
+        if (id < 0) {
+            throw new IllegalArgumentException("source is not a vertex: " + source);
+        }
+        return id;
+    }
+
+    private static <L> ShortestPaths<L> search(CompactGraph<L> graph, int source) {
+        int n = graph.vertexCount();
+        long[] distances = new long[n];
+        int[] parents = new int[n];
+        Arrays.fill(distances, -1);
+        Arrays.fill(parents, -1);
+        boolean[] settled = new boolean[n];
+        Heap heap = new Heap(distances, n);
+        distances[source] = 0;
+        heap.push(source);
+        while (!heap.isEmpty()) {
+            int u = heap.pop();
+            settled[u] = true;
+            long base = distances[u];
+            for (int i = 0, degree = graph.outDegree(u); i < degree; i++) {
+                int v = graph.target(u, i);
+                if (settled[v]) {
+                    continue;
+                }
+                long distance = base + graph.targetWeight(u, i);
+                if (distances[v] < 0) {
+                    distances[v] = distance;
+                    parents[v] = u;
+                    heap.push(v);
+                } else if (distance < distances[v]) {
+                    distances[v] = distance;
+                    parents[v] = u;
+                    heap.decreased(v);
+                }
+            }
+        }
+        return new ShortestPaths<>(graph, source, distances, parents);
+    }
+
+    /*
+     * A binary min-heap of vertex IDs ordered by their distances, which can
+     * move a vertex up when its distance decreases.
+     */
+    private static final class Heap {
+        private final long[] keys;
+        private final int[] heap;
+        private final int[] positions;
+        private int size = 0;
+
+        // Abstraction function:
+        //   AF(keys, heap, positions, size) = the set heap[0..size-1] of
+        //     vertex IDs, ordered by keys
+        // Representation invariant:
+        //   keys[heap[(i-1)/2]] <= keys[heap[i]] for 0 < i < size
+        //   positions[heap[i]] == i for 0 <= i < size, and positions[v] ==
+        //     -1 for every v not in the heap
+
+        Heap(long[] keys, int capacity) {
+            this.keys = keys;
+            this.heap = new int[capacity];
+            this.positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int v) {
+            heap[size] = v;
+            positions[v] = size;
+            up(size++);
+        }
+
+        /** Restore the order after the key of v, in the heap, decreased. */
+        void decreased(int v) {
+            up(positions[v]);
+        }
+
+        int pop() {
+            int top = heap[0];
+            positions[top] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                down(0);
+            }
+            return top;
+        }
+
+        private void up(int i) {
+            int v = heap[i];
+            long key = keys[v];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[heap[parent]] <= key) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                positions[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            positions[v] = i;
+        }
+
+        private void down(int i) {
+            int v = heap[i];
+            long key = keys[v];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                    child++;
+                }
+                if (key <= keys[heap[child]]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                positions[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            positions[v] = i;
+        }
+    }
+
+    /**
+     * @return the label of the vertex the paths start from
+     */
+    public L source() {
+        return graph.label(source);
+    }
+
+    /**
+     * @param target a label
+     * @return the length of the shortest path from the source to target, or
+     *         -1 if there is no such path; 0 if target is the source
+     */
+    public long distance(L target) {
+        int id = graph.id(target);
+        return id < 0 ? -1 : distances[id];
+    }
+
+    /**
+     * @param target a label
+     * @return the vertices of a shortest path from the source to target, in
+     *         order, starting with the source and ending with target; an
+     *         empty list if there is no such path
+     */
+    public List<L> path(L target) {
+        int id = graph.id(target);
+        if (id < 0 || distances[id] < 0) {
+            return List.of();
+        }
+        List<L> path = new ArrayList<>();
+        for (int v = id; v >= 0; v = parents[v]) {
+            path.add(graph.label(v));
+        }
+        Collections.reverse(path);
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * @return the number of vertices reachable from the source, including
+     *         the source itself
+     */
+    public int reachable() {
+        int count = 0;
+        for (long distance : distances) {
+            if (distance >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ShortestPaths from " + source() + " to " + reachable() + " vertices";
+    }
+}
@@ -0,0 +1,197 @@
+package graph.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import graph.CompactGraph;
+import graph.Graph;
+
+/**
+ * The immutable strongly connected components of a graph: the largest sets
+ * of vertices such that each vertex of a set has a path to every other.
+ *
+ * <p>Components are found by Tarjan's algorithm over a {@link CompactGraph}
+ * snapshot of the graph, in O(n + m) time for n vertices and m edges. The
+ * depth-first search keeps its own stack of vertex IDs and edge positions
+ * rather than recursing, so long paths do not overflow the thread's stack.
+ *
+ * <p>Components are numbered 0 to count()-1 in reverse topological order:
+ * every edge between two components goes from the one with the higher
+ * number to the one with the lower.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class StronglyConnectedComponents<L> {
+
+    private final CompactGraph<L> graph;
+    private final int[] components;
+    private final int count;
+
+    // Abstraction function:
+    //   AF(graph, components, count) = the count components of graph, where
+    //     the vertex with ID v is in component components[v]
+    // Representation invariant:
+    //   components.length == graph.vertexCount()
+    //   0 <= components[v] < count for every v, and every number in
+    //     0..count-1 is some vertex's component
+    //   for every edge u -> v of graph, components[u] >= components[v]
+    // Safety from rep exposure:
+    //   all fields are private and final; components is never returned,
+    //   and graph is immutable.
+    // Thread safety argument:
+    //   this type is immutable.
+
+    private StronglyConnectedComponents(CompactGraph<L> graph, int[] components, int count) {
+        this.graph = graph;
+        this.components = components;
+        this.count = count;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert components.length == graph.vertexCount();
+        boolean[] used = new boolean[count];
+        for (int u = 0; u < components.length; u++) {
+            assert 0 <= components[u] && components[u] < count;
+            used[components[u]] = true;
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                assert components[u] >= components[graph.target(u, i)];
+            }
+        }
+        for (boolean component : used) {
+            assert component;
+        }
+    }
+
+    /**
+     * Find the strongly connected components of a graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to divide; not modified
+     * @return the strongly connected components of graph
+     */
+    public static <L> StronglyConnectedComponents<L> of(Graph<L> graph) {
+        CompactGraph<L> compact = CompactGraph.copyOf(graph);
+        int n = compact.vertexCount();
+        int[] components = new int[n];
+        int[] order = new int[n];
+        int[] lowLinks = new int[n];
+        Arrays.fill(order, -1);
+        // vertices visited but not yet assigned a component
+        int[] stack = new int[n];
+        boolean[] onStack = new boolean[n];
+        int stackSize = 0;
+        // the path of the depth-first search, with the next edge of each
+        int[] path = new int[n];
+        int[] nextEdge = new int[n];
+        int visited = 0;
+        int count = 0;
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            path[0] = root;
+            nextEdge[0] = 0;
+            order[root] = lowLinks[root] = visited++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int u = path[depth];
+                if (nextEdge[depth] < compact.outDegree(u)) {
+                    int v = compact.target(u, nextEdge[depth]++);
+                    if (order[v] < 0) {
+                        depth++;
+                        path[depth] = v;
+                        nextEdge[depth] = 0;
+                        order[v] = lowLinks[v] = visited++;
+                        stack[stackSize++] = v;
+                        onStack[v] = true;
+                    } else if (onStack[v]) {
+                        lowLinks[u] = Math.min(lowLinks[u], order[v]);
+                    }
+                    continue;
+                }
+                // every edge of u done: close its component if it is the root
+                if (lowLinks[u] == order[u]) {
+                    int v;
+                    do {
+                        v = stack[--stackSize];
+                        onStack[v] = false;
+                        components[v] = count;
+                    } while (v != u);
+                    count++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = path[depth];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[u]);
+                }
+            }
+        }
+        return new StronglyConnectedComponents<>(compact, components, count);
+    }
+
+    /**
+     * @return the number of components
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param label a label
+     * @return the number of the component of the vertex with that label, or
+     *         -1 if there is none
+     */
+    public int component(L label) {
+        int id = graph.id(label);
+        return id < 0 ? -1 : components[id];
+    }
+
+    /**
+     * @param a a label
+     * @param b a label
+     * @return true iff a and b are vertices in the same component
+     */
+    public boolean connected(L a, L b) {
+        int component = component(a);
+        return component >= 0 && component == component(b);
+    }
+
+    /**
+     * @return the components as sets of labels, the component numbered i at
+     *         index i
+     */
+    public List<Set<L>> components() {
+        List<Set<L>> sets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sets.add(new HashSet<>());
+        }
+        for (int v = 0; v < components.length; v++) {
+            sets.get(components[v]).add(graph.label(v));
+        }
+        return sets;
+    }
+
+    /**
+     * @return the number of vertices in the largest component, or 0 if the
+     *         graph has no vertices
+     */
+    public int largest() {
+        int[] sizes = new int[count];
+        int largest = 0;
+        for (int component : components) {
+            largest = Math.max(largest, ++sizes[component]);
+        }
+        return largest;
+    }
+
+    @Override
+    public String toString() {
+        return "StronglyConnectedComponents: " + count + " components of " + components.length + " vertices";
+    }
+}
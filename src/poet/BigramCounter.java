@@ -0,0 +1,251 @@
+package poet;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the adjacent word pairs of a UTF-8 corpus file in parallel.
+ *
+ * <p>The file is cut into chunks at separator bytes. Every separator is an
+ * ASCII character, so a cut never falls inside a word or inside the UTF-8
+ * encoding of a character, and each chunk can be decoded and scanned on its
+ * own. Chunks are counted on a fork-join pool and their partial counts are
+ * merged pairwise, adding the pair that straddles each cut. The counts are
+ * the same as scanning the whole file with {@link WordScanner}, and so is
+ * the order in which the pairs first occur.
+ */
+class BigramCounter {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private BigramCounter() {
+        // not instantiable
+    }
+
+    /**
+     * Count the adjacent word pairs of a corpus.
+     *
+     * @param corpus path of a UTF-8 text file
+     * @param pool pool on which to count chunks of the file
+     * @return the pair counts of the corpus, with its first and last words
+     * @throws IOException if the corpus cannot be found or read
+     */
+    static Counts count(Path corpus, ForkJoinPool pool) throws IOException {
+        return count(corpus, pool, 0);
+    }
+
+    /**
+     * Count the adjacent word pairs of a corpus, with a particular chunk size.
+     *
+     * @param corpus path of a UTF-8 text file
+     * @param pool pool on which to count chunks of the file
+     * @param chunkSize approximate size in bytes of each chunk, or 0 to pick
+     *                  one from the file size and the parallelism of pool
+     * @return pair counts as described by {@link #count(Path, ForkJoinPool)}
+     * @throws IOException if the corpus cannot be found or read
+     */
+    static Counts count(Path corpus, ForkJoinPool pool, long chunkSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(corpus)) {
+            if (chunkSize <= 0) {
+                chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE,
+                        channel.size() / ((long) pool.getParallelism() * CHUNKS_PER_THREAD)));
+            }
+            long[] cuts = cuts(channel, chunkSize);
+            try {
+                return pool.invoke(new CountTask(channel, cuts, 0, cuts.length - 1));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Choose the chunk boundaries of a file.
+     *
+     * @return strictly increasing offsets, starting at 0 and ending at the
+     *         file size, such that every offset other than the first and last
+     *         is the position of a separator byte
+     */
+    private static long[] cuts(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> cuts = new ArrayList<>();
+        cuts.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        long position = chunkSize;
+        while (position < size) {
+            long cut = nextSeparator(channel, position, probe);
+            if (cut >= size) {
+                break;
+            }
+            cuts.add(cut);
+            position = cut + chunkSize;
+        }
+        cuts.add(size);
+        return cuts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * @return the position of the first separator byte at or after position,
+     *         or the file size if there is none
+     */
+    private static long nextSeparator(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int count = channel.read(probe, position);
+            if (count <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < count; i++) {
+                byte b = probe.get(i);
+                if (b >= 0 && WordScanner.isSeparator((char) b)) {
+                    return position + i;
+                }
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * Pair counts of a run of text, with the words at either end of the run
+     * so that the pair spanning two adjacent runs can be added on merge.
+     */
+    static class Counts {
+        private final Map<Map.Entry<String, String>, Integer> pairs;
+        private final List<String> words;
+        private final String first;
+        private final String last;
+
+        Counts(Map<Map.Entry<String, String>, Integer> pairs, List<String> words, String first, String last) {
+            this.pairs = pairs;
+            this.words = words;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * @return map from each pair (word1, word2) of words such that word2
+         *         follows word1 in the run to the number of times it does
+         *         so, in order of the first occurrence of each pair; words
+         *         are split and lowercased as by WordScanner
+         */
+        Map<Map.Entry<String, String>, Integer> pairs() {
+            return pairs;
+        }
+
+        /**
+         * @return the distinct words of the run, in order of their first
+         *         occurrence
+         */
+        List<String> words() {
+            return words;
+        }
+
+        /**
+         * @return the first word of the run, or null if it has no words
+         */
+        String first() {
+            return first;
+        }
+
+        /**
+         * @return the last word of the run, or null if it has no words
+         */
+        String last() {
+            return last;
+        }
+
+        /**
+         * Combine with the counts of the run immediately after this one.
+         * Destroys both this and next.
+         */
+        Counts append(Counts next) {
+            // always into this run, whatever the sizes, so that pairs of next
+            // and the pair across the cut come after the pairs of this run
+            if (last != null && next.first != null) {
+                pairs.merge(Map.entry(last, next.first), 1, Integer::sum);
+            }
+            for (Map.Entry<Map.Entry<String, String>, Integer> pair : next.pairs.entrySet()) {
+                pairs.merge(pair.getKey(), pair.getValue(), Integer::sum);
+            }
+            Set<String> merged = new LinkedHashSet<>(words);
+            merged.addAll(next.words);
+            return new Counts(pairs, new ArrayList<>(merged),
+                    first != null ? first : next.first,
+                    next.last != null ? next.last : last);
+        }
+    }
+
+    /**
+     * Counts the chunks between cuts[from] and cuts[to].
+     */
+    private static class CountTask extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] cuts;
+        private final int from;
+        private final int to;
+
+        CountTask(FileChannel channel, long[] cuts, int from, int to) {
+            this.channel = channel;
+            this.cuts = cuts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                CountTask right = new CountTask(channel, cuts, middle, to);
+                right.fork();
+                Counts left = new CountTask(channel, cuts, from, middle).compute();
+                return left.append(right.join());
+            }
+            try {
+                return countChunk(cuts[from], cuts[to]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Counts countChunk(long start, long end) throws IOException {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+            WordScanner words = new WordScanner(
+                    new CharArrayReader(chars.array(), chars.arrayOffset(), chars.remaining()));
+            Map<Map.Entry<String, String>, Integer> pairs = new LinkedHashMap<>();
+            // every word but the last of the chunk starts a pair where it
+            // first occurs
+            Set<String> distinct = new LinkedHashSet<>();
+            String first = words.next();
+            String word1 = first;
+            if (word1 != null) {
+                for (String word2 = words.next(); word2 != null; word2 = words.next()) {
+                    distinct.add(word1);
+                    pairs.merge(Map.entry(word1, word2), 1, Integer::sum);
+                    word1 = word2;
+                }
+                distinct.add(word1);
+            }
+            return new Counts(pairs, new ArrayList<>(distinct), first, word1);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package poet;
+
+/**
+ * An immutable bridge between two words of an affinity graph: a word that
+ * follows the first word and precedes the second, with the total weight of
+ * the two edges through it.
+ *
+ * @param <L> type of word labels, must be immutable
+ */
+public final class Bridge<L> {
+
+    private final L word;
+    private final int weight;
+
+    // Abstraction function:
+    //   AF(word, weight) = the bridge through word with total weight weight
+    // Representation invariant:
+    //   word != null, weight > 0
+    // Safety from rep exposure:
+    //   all fields are private, final and immutable
+
+    /**
+     * @param word the bridge word, not null
+     * @param weight total weight of the edges into and out of word, > 0
+     */
+    Bridge(L word, int weight) {
+        this.word = word;
+        this.weight = weight;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert word != null;
+        assert weight > 0;
+    }
+
+    /**
+     * @return the bridge word
+     */
+    public L word() {
+        return word;
+    }
+
+    /**
+     * @return total weight of the edges into and out of the bridge word
+     */
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof Bridge)) {
+            return false;
+        }
+        Bridge<?> other = (Bridge<?>) that;
+        return word.equals(other.word) && weight == other.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return word.hashCode() * 31 + weight;
+    }
+
+    @Override
+    public String toString() {
+        return word + " (" + weight + ")";
+    }
+}
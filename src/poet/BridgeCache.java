@@ -0,0 +1,216 @@
+package poet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe, bounded cache of the best bridge between pairs of words,
+ * including pairs that have no bridge.
+ *
+ * <p>The cache is split into segments by key hash. Each segment is an
+ * access-ordered map guarded by its own lock that evicts its least recently
+ * used entry when full, so threads looking up different pairs rarely
+ * contend, and the cache as a whole approximates LRU.
+ *
+ * @param <L> type of word labels, must be immutable
+ */
+class BridgeCache<L> {
+
+    private static final int SEGMENTS = 16;
+    private static final Object NO_BRIDGE = new Object();
+
+    private final int maxEntries;
+    private final Segment<L>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Abstraction function:
+    //   AF(segments) = the cache mapping each pair (first, second) of every
+    //     Key in a segment to its value: the Bridge, or no bridge if the
+    //     value is NO_BRIDGE.
+    //   hits, misses and evictions count the lookups that found an entry,
+    //     the lookups that did not, and the entries evicted.
+    // Representation invariant:
+    //   segments.length is a power of two
+    //   each Key is in segments[spread(key.hash) & (segments.length - 1)]
+    //   each segment holds at most its capacity entries, and the capacities
+    //     sum to at most maxEntries
+    //   every value is a Bridge or NO_BRIDGE
+    //   a segment's epoch counts the invalidations and clears of it
+    // Safety from rep exposure:
+    //   all fields are private and final; segments are only touched while
+    //   holding their lock; keys, values and labels are immutable.
+
+    /**
+     * Create an empty cache.
+     *
+     * @param maxEntries maximum number of pairs to hold, > 0
+     */
+    @SuppressWarnings("unchecked")
+    BridgeCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        int count = Integer.highestOneBit(Math.min(SEGMENTS, maxEntries));
+        this.maxEntries = maxEntries;
+        this.segments = (Segment<L>[]) new Segment<?>[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(maxEntries / count + (i < maxEntries % count ? 1 : 0), evictions);
+        }
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert Integer.bitCount(segments.length) == 1;
+        int capacity = 0;
+        for (Segment<L> segment : segments) {
+            capacity += segment.capacity;
+        }
+        assert capacity <= maxEntries;
+    }
+
+    /**
+     * Look up the best bridge between two words, computing and caching it on
+     * a miss.
+     *
+     * @param first first word
+     * @param second second word
+     * @param compute function giving the best bridge from first to second,
+     *                or null if there is none; called without holding any
+     *                lock, so it may run more than once for the same pair
+     *                under contention. Its result is not cached if
+     *                {@link #invalidate} or {@link #clear} runs meanwhile.
+     * @return the cached or computed best bridge, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    Bridge<L> get(L first, L second, BiFunction<L, L, Bridge<L>> compute) {
+        Key<L> key = new Key<>(first, second);
+        Segment<L> segment = segments[spread(key.hash) & (segments.length - 1)];
+        Object value;
+        long epoch;
+        synchronized (segment) {
+            value = segment.map.get(key);
+            epoch = segment.epoch;
+        }
+        if (value != null) {
+            hits.increment();
+            return value == NO_BRIDGE ? null : (Bridge<L>) value;
+        }
+        misses.increment();
+        Bridge<L> bridge = compute.apply(first, second);
+        synchronized (segment) {
+            // an invalidation while computing may mean bridge is stale
+            if (segment.epoch == epoch) {
+                segment.map.put(key, bridge == null ? NO_BRIDGE : bridge);
+            }
+        }
+        return bridge;
+    }
+
+    /**
+     * Remove every entry. Counters are not reset.
+     */
+    void clear() {
+        for (Segment<L> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+                segment.epoch++;
+            }
+        }
+    }
+
+    /**
+     * Remove the entry for a pair of words, if any. A lookup of the pair
+     * already computing its bridge when this is called does not cache it.
+     *
+     * @param first first word
+     * @param second second word
+     */
+    void invalidate(L first, L second) {
+        Key<L> key = new Key<>(first, second);
+        Segment<L> segment = segments[spread(key.hash) & (segments.length - 1)];
+        synchronized (segment) {
+            segment.map.remove(key);
+            segment.epoch++;
+        }
+    }
+
+    /**
+     * @return a snapshot of the counters and size of this cache
+     */
+    CacheStats stats() {
+        int size = 0;
+        for (Segment<L> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, maxEntries);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "BridgeCache: " + stats();
+    }
+
+    /**
+     * An ordered pair of words.
+     */
+    private static final class Key<L> {
+        private final L first;
+        private final L second;
+        private final int hash;
+
+        Key(L first, L second) {
+            this.first = first;
+            this.second = second;
+            this.hash = first.hashCode() * 31 + second.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            if (!(that instanceof Key)) {
+                return false;
+            }
+            Key<?> other = (Key<?>) that;
+            return hash == other.hash && first.equals(other.first) && second.equals(other.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * One least-recently-used segment of the cache; guarded by its own lock.
+     */
+    private static final class Segment<L> {
+        private final int capacity;
+        private final LinkedHashMap<Key<L>, Object> map;
+        private long epoch = 0;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key<L>, Object> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
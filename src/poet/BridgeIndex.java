@@ -0,0 +1,169 @@
+package poet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import graph.IndexedGraph;
+
+/**
+ * A thread-safe index of the best bridge between every pair of vertices of a
+ * graph, which can be brought up to date as the graph gains edges.
+ *
+ * <p>A bridge from word1 to word2 is a vertex b with edges word1 -> b and
+ * b -> word2; its weight is the sum of the weights of those two edges. The
+ * best bridge has the greatest weight; among bridges of equal weight, the
+ * first visited by {@code graph.forEachTarget(word1, ...)} wins, the same
+ * choice GraphPoet makes when it searches for a bridge directly.
+ *
+ * <p>Lookups never block. While {@link #update} runs, a lookup may see the
+ * bridges of a word from before the update or from after it.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+class BridgeIndex<L> {
+
+    private final Map<L, Map<L, Bridge<L>>> bridges;
+
+    // Abstraction function:
+    //   AF(bridges) = the index whose best bridge from word1 to word2 is
+    //     bridges.get(word1).get(word2), or none if that is absent.
+    // Representation invariant:
+    //   every Bridge has positive weight; no inner map is empty
+    // Safety from rep exposure:
+    //   bridges is private, final, and never returned; Bridge and labels
+    //   are immutable.
+    // Thread safety argument:
+    //   bridges is a ConcurrentHashMap; its inner maps are never modified
+    //   once put in it, so an update replaces whole rows and a lookup sees
+    //   each row either before or after.
+
+    private BridgeIndex(Map<L, Map<L, Bridge<L>>> bridges) {
+        this.bridges = bridges;
+        checkRep();
+    }
+
+    private void checkRep() {
+        for (Map<L, Bridge<L>> row : bridges.values()) {
+            checkRow(row);
+        }
+    }
+
+    private static <L> void checkRow(Map<L, Bridge<L>> row) {
+        assert !row.isEmpty();
+        for (Bridge<L> bridge : row.values()) {
+            assert bridge.weight() > 0;
+        }
+    }
+
+    /**
+     * Index the best bridges of a graph. Takes time proportional to the
+     * number of two-edge paths in the graph.
+     *
+     * @param <L> type of vertex labels, must be immutable
+     * @param graph graph to index; not modified
+     * @return index of the best bridge between every pair of vertices
+     */
+    static <L> BridgeIndex<L> build(IndexedGraph<L> graph) {
+        Map<L, Map<L, Bridge<L>>> bridges = new ConcurrentHashMap<>();
+        for (L word1 : graph.vertices()) {
+            Map<L, Bridge<L>> row = row(graph, word1);
+            if (!row.isEmpty()) {
+                bridges.put(word1, row);
+            }
+        }
+        return new BridgeIndex<>(bridges);
+    }
+
+    /**
+     * Find the best bridges from one vertex to every other.
+     *
+     * @return map from each vertex with a bridge from word1 to the best
+     *         such bridge; empty if there are none
+     */
+    private static <L> Map<L, Bridge<L>> row(IndexedGraph<L> graph, L word1) {
+        Map<L, Bridge<L>> best = new HashMap<>();
+        graph.forEachTarget(word1, (candidate, first) -> {
+            graph.forEachTarget(candidate, (word2, second) -> {
+                Bridge<L> current = best.get(word2);
+                if (current == null || first + second > current.weight()) {
+                    best.put(word2, new Bridge<>(candidate, first + second));
+                }
+            });
+        });
+        return best;
+    }
+
+    /**
+     * Bring this index up to date after the graph it indexes gained or
+     * changed some edges. Takes time proportional to the number of two-edge
+     * paths through those edges' source vertices, rather than through the
+     * whole graph.
+     *
+     * @param graph the graph this index was built from, after the change;
+     *              not modified
+     * @param changed map from the source of every changed edge to the
+     *                targets of the changed edges from it
+     * @param search function giving the best bridge between two vertices of
+     *               graph, as described above, or null if there is none
+     */
+    void update(IndexedGraph<L> graph, Map<L, ? extends Set<L>> changed, BiFunction<L, L, Bridge<L>> search) {
+        // a changed edge word1 -> b changes the bridges from word1 through
+        // b, and may change the order in which word1's bridges are visited,
+        // so every bridge from word1 is found again
+        for (L word1 : changed.keySet()) {
+            replaceRow(word1, row(graph, word1));
+        }
+        // it also changes the bridge word1 from each source of word1 to b
+        Map<L, Set<L>> pairs = new HashMap<>();
+        for (Map.Entry<L, ? extends Set<L>> edges : changed.entrySet()) {
+            graph.forEachSource(edges.getKey(), (source, weight) -> {
+                if (!changed.containsKey(source)) {
+                    pairs.computeIfAbsent(source, k -> new HashSet<>()).addAll(edges.getValue());
+                }
+            });
+        }
+        for (Map.Entry<L, Set<L>> entry : pairs.entrySet()) {
+            L word1 = entry.getKey();
+            Map<L, Bridge<L>> row = new HashMap<>(bridges.getOrDefault(word1, Map.of()));
+            for (L word2 : entry.getValue()) {
+                Bridge<L> bridge = search.apply(word1, word2);
+                if (bridge == null) {
+                    row.remove(word2);
+                } else {
+                    row.put(word2, bridge);
+                }
+            }
+            replaceRow(word1, row);
+        }
+    }
+
+    private void replaceRow(L word1, Map<L, Bridge<L>> row) {
+        if (row.isEmpty()) {
+            bridges.remove(word1);
+        } else {
+            checkRow(row);
+            bridges.put(word1, row);
+        }
+    }
+
+    /**
+     * Look up the best bridge between two vertices.
+     *
+     * @param word1 source label
+     * @param word2 target label
+     * @return the best bridge from word1 to word2, or null if there is none
+     */
+    Bridge<L> get(L word1, L word2) {
+        Map<L, Bridge<L>> row = bridges.get(word1);
+        return row == null ? null : row.get(word2);
+    }
+
+    @Override
+    public String toString() {
+        return "BridgeIndex: " + bridges;
+    }
+}
@@ -0,0 +1,437 @@
+package poet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+import java.util.function.ObjIntConsumer;
+
+import graph.IndexedGraph;
+
+/**
+ * A search for the best bridges of up to a given number of words between
+ * pairs of vertices of a graph, which remembers the bridges it has found in
+ * a {@link Memo}. Searches that share a memo, with the same limits, find
+ * each pair only once until the memo is cleared. Thread-safe if its graph
+ * and one-word function are, and nothing changes the graph while it runs.
+ *
+ * <p>A bridge of j words from word1 to word2 is a walk word1 -> b1 -> ... ->
+ * bj -> word2 in the graph; its weight is the sum of the weights of its j+1
+ * edges. The best bridge has the greatest weight, and among bridges of equal
+ * weight, the fewest words. The best one-word bridge is whatever the
+ * function given to the constructor says it is, so that a search limited to
+ * one word agrees exactly with GraphPoet's bridges.
+ *
+ * <p>Longer bridges are found by meeting in the middle: a search forward
+ * from word1 over targets and a search backward from word2 over sources,
+ * each about half as deep as the bridge is long, joined by looking up the
+ * weight of an edge from each end of a forward walk to each start of a
+ * backward walk. Each level of either search keeps only its maxFrontier
+ * heaviest partial walks, so a two-word bridge takes time proportional to
+ * the degrees of word1 and word2 plus maxFrontier squared, however many
+ * targets the words in between have. Deeper levels also scan the targets or
+ * sources of the walks they keep. With that bound, the bridge found may not
+ * be the best.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+class BridgePathSearch<L> {
+
+    private final IndexedGraph<L> graph;
+    private final int maxWords;
+    private final int maxFrontier;
+    private final BiFunction<L, L, Bridge<L>> oneWord;
+    private final Memo<L> memo;
+
+    // Abstraction function:
+    //   AF(graph, maxWords, maxFrontier, oneWord, memo) = the search for
+    //     bridges of at most maxWords words in graph, keeping maxFrontier
+    //     partial walks per level, which has already found the bridges that
+    //     memo holds for maxWords and maxFrontier
+    // Representation invariant:
+    //   maxWords >= 1, maxFrontier >= 1
+    // Safety from rep exposure:
+    //   all fields are private and final; find returns unmodifiable lists.
+    //   graph, oneWord and memo are shared with the caller, which may not
+    //   change the graph while the search is in use, and must clear the
+    //   memo once it has.
+
+    /*
+     * The heaviest partial walk found to a vertex at some level of the
+     * search: its weight, and the vertex one level closer to where the
+     * search started.
+     */
+    private static final class Step<L> {
+        private final long weight;
+        private final L via;
+
+        Step(long weight, L via) {
+            this.weight = weight;
+            this.via = via;
+        }
+    }
+
+    /**
+     * Make a search with a memo of its own.
+     *
+     * @param graph graph in which to search; not modified
+     * @param maxWords maximum number of words in a bridge, >= 1
+     * @param maxFrontier maximum number of partial walks kept at each level
+     *                    of the search, >= 1
+     * @param oneWord function giving the best one-word bridge between two
+     *                vertices of graph, or null if there is none
+     * @throws IllegalArgumentException if maxWords or maxFrontier is not
+     *         positive
+     */
+    BridgePathSearch(IndexedGraph<L> graph, int maxWords, int maxFrontier,
+            BiFunction<L, L, Bridge<L>> oneWord) {
+        this(graph, maxWords, maxFrontier, oneWord, new Memo<>(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Make a search that remembers its bridges in a shared memo.
+     *
+     * @param graph graph in which to search; not modified
+     * @param maxWords maximum number of words in a bridge, >= 1
+     * @param maxFrontier maximum number of partial walks kept at each level
+     *                    of the search, >= 1
+     * @param oneWord function giving the best one-word bridge between two
+     *                vertices of graph, or null if there is none
+     * @param memo memo of bridges found in graph, by this and other searches
+     * @throws IllegalArgumentException if maxWords or maxFrontier is not
+     *         positive
+     */
+    BridgePathSearch(IndexedGraph<L> graph, int maxWords, int maxFrontier,
+            BiFunction<L, L, Bridge<L>> oneWord, Memo<L> memo) {
+        if (maxWords < 1) {
+            throw new IllegalArgumentException("maxWords must be positive: " + maxWords);
+        }
+        if (maxFrontier < 1) {
+            throw new IllegalArgumentException("maxFrontier must be positive: " + maxFrontier);
+        }
+        this.graph = graph;
+        this.maxWords = maxWords;
+        this.maxFrontier = maxFrontier;
+        this.oneWord = oneWord;
+        this.memo = memo;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert maxWords >= 1;
+        assert maxFrontier >= 1;
+    }
+
+    /**
+     * Find the best bridge between two vertices, as described above.
+     *
+     * @param word1 source label
+     * @param word2 target label
+     * @return unmodifiable list of the words of the best bridge from word1
+     *         to word2, in order, or an empty list if there is none
+     */
+    List<L> find(L word1, L word2) {
+        return memo.get(maxWords, maxFrontier, word1, word2, this::search);
+    }
+
+    private List<L> search(L word1, L word2) {
+        Bridge<L> bridge = oneWord.apply(word1, word2);
+        long bestWeight = bridge == null ? 0 : bridge.weight();
+        List<L> best = bridge == null ? List.of() : List.of(bridge.word());
+        if (maxWords == 1) {
+            return best;
+        }
+        // a bridge of j words has j+1 edges: j/2 found backward from word2,
+        // (j+1)/2 forward from word1, and one between them, whose weight is
+        // looked up
+        List<Map<L, Step<L>>> forward = new ArrayList<>();
+        List<Map<L, Step<L>>> backward = new ArrayList<>();
+        forward.add(start(word1));
+        backward.add(start(word2));
+        for (int words = 2; words <= maxWords; words++) {
+            int forwardEdges = (words + 1) / 2;
+            int backwardEdges = words / 2;
+            while (forward.size() <= forwardEdges) {
+                forward.add(expand(forward.get(forward.size() - 1), true));
+            }
+            while (backward.size() <= backwardEdges) {
+                backward.add(expand(backward.get(backward.size() - 1), false));
+            }
+            L last = null;
+            L next = null;
+            long weight = bestWeight;
+            Map<L, Step<L>> ends = backward.get(backwardEdges);
+            for (Map.Entry<L, Step<L>> start : forward.get(forwardEdges).entrySet()) {
+                for (Map.Entry<L, Step<L>> end : ends.entrySet()) {
+                    int middle = graph.weight(start.getKey(), end.getKey());
+                    long total = start.getValue().weight + middle + end.getValue().weight;
+                    if (middle > 0 && total > weight) {
+                        last = start.getKey();
+                        next = end.getKey();
+                        weight = total;
+                    }
+                }
+            }
+            if (last != null) {
+                best = walk(forward, forwardEdges, last, backward, backwardEdges, next);
+                bestWeight = weight;
+            }
+        }
+        assert best.size() <= maxWords;
+        return best;
+    }
+
+    private static <L> Map<L, Step<L>> start(L vertex) {
+        Map<L, Step<L>> level = new LinkedHashMap<>();
+        level.put(vertex, new Step<>(0, null));
+        return level;
+    }
+
+    /**
+     * Extend every partial walk of a level by one edge, keeping the
+     * heaviest walk to each vertex, and then the maxFrontier heaviest of
+     * those; the first found wins ties.
+     *
+     * @return the walks kept, heaviest first
+     */
+    private Map<L, Step<L>> expand(Map<L, Step<L>> level, boolean forward) {
+        PriorityQueue<Candidate<L>> heaviest = new PriorityQueue<>();
+        if (level.size() == 1) {
+            // one walk to extend, so each vertex is reached at most once
+            L from = level.keySet().iterator().next();
+            long base = level.get(from).weight;
+            int[] found = { 0 };
+            visit(from, forward, (to, weight) -> offer(heaviest, to, base + weight, from, found[0]++));
+        } else {
+            Map<L, Step<L>> next = new LinkedHashMap<>();
+            for (Map.Entry<L, Step<L>> entry : level.entrySet()) {
+                L from = entry.getKey();
+                long base = entry.getValue().weight;
+                visit(from, forward, (to, weight) -> {
+                    Step<L> current = next.get(to);
+                    if (current == null || base + weight > current.weight) {
+                        next.put(to, new Step<>(base + weight, from));
+                    }
+                });
+            }
+            int found = 0;
+            for (Map.Entry<L, Step<L>> entry : next.entrySet()) {
+                offer(heaviest, entry.getKey(), entry.getValue().weight, entry.getValue().via, found++);
+            }
+        }
+        List<Candidate<L>> kept = new ArrayList<>(heaviest);
+        Collections.sort(kept, Collections.reverseOrder());
+        Map<L, Step<L>> result = new LinkedHashMap<>();
+        for (Candidate<L> candidate : kept) {
+            result.put(candidate.vertex, candidate.step);
+        }
+        return result;
+    }
+
+    private void visit(L vertex, boolean forward, ObjIntConsumer<L> visitor) {
+        if (forward) {
+            graph.forEachTarget(vertex, visitor);
+        } else {
+            graph.forEachSource(vertex, visitor);
+        }
+    }
+
+    /**
+     * Keep a walk among the maxFrontier heaviest, if it is one of them.
+     */
+    private void offer(PriorityQueue<Candidate<L>> heaviest, L vertex, long weight, L via, int found) {
+        if (heaviest.size() < maxFrontier) {
+            heaviest.add(new Candidate<>(vertex, new Step<>(weight, via), found));
+        } else if (weight > heaviest.peek().step.weight) {
+            heaviest.poll();
+            heaviest.add(new Candidate<>(vertex, new Step<>(weight, via), found));
+        }
+    }
+
+    /*
+     * A walk competing for a place in a level, ordered from the lightest
+     * and, among equals, the last found.
+     */
+    private static final class Candidate<L> implements Comparable<Candidate<L>> {
+        private final L vertex;
+        private final Step<L> step;
+        private final int found;
+
+        Candidate(L vertex, Step<L> step, int found) {
+            this.vertex = vertex;
+            this.step = step;
+            this.found = found;
+        }
+
+        @Override
+        public int compareTo(Candidate<L> that) {
+            int byWeight = Long.compare(step.weight, that.step.weight);
+            return byWeight != 0 ? byWeight : Integer.compare(that.found, found);
+        }
+    }
+
+    /**
+     * @return the words of the walk made of the forward walk to last, the
+     *         edge last -> next, and the backward walk from next, from the
+     *         word after word1 to the word before word2
+     */
+    private static <L> List<L> walk(List<Map<L, Step<L>>> forward, int forwardEdges, L last,
+            List<Map<L, Step<L>>> backward, int backwardEdges, L next) {
+        List<L> words = new ArrayList<>();
+        L vertex = last;
+        for (int level = forwardEdges; level > 0; level--) {
+            words.add(vertex);
+            vertex = forward.get(level).get(vertex).via;
+        }
+        Collections.reverse(words);
+        vertex = next;
+        for (int level = backwardEdges; level > 0; level--) {
+            words.add(vertex);
+            vertex = backward.get(level).get(vertex).via;
+        }
+        return Collections.unmodifiableList(words);
+    }
+
+    @Override
+    public String toString() {
+        return "BridgePathSearch of up to " + maxWords + " words, " + memo;
+    }
+
+    /**
+     * A thread-safe, bounded memo of the best bridges found between pairs of
+     * words, by searches with given limits, including pairs that have no
+     * bridge. When full, it forgets its least recently used bridge.
+     *
+     * @param <L> type of word labels, must be immutable
+     */
+    static final class Memo<L> {
+
+        private final int maxEntries;
+        private final Map<Key<L>, List<L>> found; // guarded by this
+        private long epoch = 0; // guarded by this
+
+        // Abstraction function:
+        //   AF(found) = the memo in which a search of at most key.maxWords
+        //     words and key.maxFrontier walks per level found the bridge
+        //     found.get(key) from key.word1 to key.word2, for every key
+        //   epoch counts the clears of the memo
+        // Representation invariant:
+        //   found has at most maxEntries entries, and is in access order
+        //   every list in found is unmodifiable, with at most key.maxWords
+        //     labels
+        // Safety from rep exposure:
+        //   all fields are private; found is only touched while holding the
+        //   lock; keys, lists and labels are immutable.
+
+        /**
+         * Create an empty memo.
+         *
+         * @param maxEntries maximum number of bridges to remember, > 0
+         * @throws IllegalArgumentException if maxEntries is not positive
+         */
+        Memo(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+            }
+            this.maxEntries = maxEntries;
+            this.found = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key<L>, List<L>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        /**
+         * Look up a bridge, searching for it and remembering it on a miss.
+         *
+         * @param maxWords maximum number of words of the bridge
+         * @param maxFrontier maximum number of walks per level of the search
+         * @param word1 source label
+         * @param word2 target label
+         * @param search function finding the bridge from word1 to word2;
+         *               called without holding any lock, so it may run more
+         *               than once for the same pair under contention. Its
+         *               result is not remembered if {@link #clear} runs
+         *               meanwhile.
+         * @return the remembered or found bridge
+         */
+        List<L> get(int maxWords, int maxFrontier, L word1, L word2, BiFunction<L, L, List<L>> search) {
+            Key<L> key = new Key<>(maxWords, maxFrontier, word1, word2);
+            long start;
+            synchronized (this) {
+                List<L> words = found.get(key);
+                if (words != null) {
+                    return words;
+                }
+                start = epoch;
+            }
+            List<L> words = search.apply(word1, word2);
+            synchronized (this) {
+                // a clear while searching may mean words is stale
+                if (epoch == start) {
+                    found.put(key, words);
+                }
+            }
+            return words;
+        }
+
+        /**
+         * Forget every bridge.
+         */
+        synchronized void clear() {
+            found.clear();
+            epoch++;
+        }
+
+        /**
+         * @return number of bridges remembered
+         */
+        synchronized int size() {
+            return found.size();
+        }
+
+        @Override
+        public synchronized String toString() {
+            return found.size() + " of at most " + maxEntries + " pairs found";
+        }
+    }
+
+    /**
+     * An ordered pair of words, with the limits of the search that found
+     * its bridge.
+     */
+    private static final class Key<L> {
+        private final int maxWords;
+        private final int maxFrontier;
+        private final L word1;
+        private final L word2;
+
+        Key(int maxWords, int maxFrontier, L word1, L word2) {
+            this.maxWords = maxWords;
+            this.maxFrontier = maxFrontier;
+            this.word1 = word1;
+            this.word2 = word2;
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            if (!(that instanceof Key)) {
+                return false;
+            }
+            Key<?> other = (Key<?>) that;
+            return maxWords == other.maxWords && maxFrontier == other.maxFrontier
+                    && word1.equals(other.word1) && word2.equals(other.word2);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((maxWords * 31 + maxFrontier) * 31 + word1.hashCode()) * 31 + word2.hashCode();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package poet;
+
+/**
+ * An immutable snapshot of the counters of a GraphPoet bridge cache.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final int maxEntries;
+
+    // Abstraction function:
+    //   AF(hitCount, missCount, evictionCount, size, maxEntries) = a cache
+    //     that has answered hitCount lookups from its entries, computed
+    //     missCount, evicted evictionCount entries, and holds size of at
+    //     most maxEntries entries.
+    // Representation invariant:
+    //   all counts are nonnegative; 0 <= size <= maxEntries
+    // Safety from rep exposure:
+    //   all fields are private, final and immutable
+
+    CacheStats(long hitCount, long missCount, long evictionCount, int size, int maxEntries) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.maxEntries = maxEntries;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert hitCount >= 0 && missCount >= 0 && evictionCount >= 0;
+        assert 0 <= size && size <= maxEntries;
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of lookups that had to search the graph
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return number of entries evicted to stay within the maximum size
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return number of entries currently held
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return maximum number of entries the cache holds
+     */
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return fraction of lookups answered from the cache, or 0 if there
+     *         have been none
+     */
+    public double hitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d evictions=%d size=%d/%d hitRate=%.3f",
+                hitCount, missCount, evictionCount, size, maxEntries, hitRate());
+    }
+}
@@ -2,24 +2,86 @@ package poet;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 
-import graph.Graph;
+import graph.ConcurrentGraph;
+import graph.IndexedGraph;
+import graph.MappedGraph;
+import graph.Verification;
 
 /**
  * A graph-based poetry generator.
+ *
+ * <p>A poet is thread-safe: any number of threads may write poems while
+ * another {@link #feed feeds} it more text.
  */
 public class GraphPoet {
-    private final Graph<String> graph = Graph.empty();
+    private static final int BATCH_SIZE = 256;
+    // stands for every word not in the corpus; never a vertex of the graph
+    private static final Integer UNKNOWN = -1;
+    private static final int BRIDGE_PATH_ENTRIES = 1 << 14;
+
+    private final IndexedGraph<Integer> graph;
+    private final TokenDictionary tokens;
+    private volatile BridgeIndex<Integer> bridgeIndex = null;
+    private volatile BridgeCache<Integer> bridgeCache = null;
+    private volatile MarkovChain<Integer> markovChain = null;
+    private volatile SortedAdjacency<Integer> sortedAdjacency = null;
+    private final BridgePathSearch.Memo<Integer> bridgePaths = new BridgePathSearch.Memo<>(BRIDGE_PATH_ENTRIES);
+    private Integer lastWord = null; // guarded by this
 
     // Abstraction function:
     //   The graph represents a word affinity graph where vertices are words and edges
     //   are weighted by the adjacency count of the words in the provided corpus.
+    //   Each vertex of graph is the ID in tokens of its word; words are looked up
+    //   only where they enter and leave the poet, and graph and the structures
+    //   derived from it hash and compare IDs.
+    //   A poet started from a snapshot reads its graph and tokens from the mapped
+    //   snapshot file.
+    //   bridgeIndex, if present, caches the best bridge between every pair of words.
+    //   bridgeCache, if present, caches the best bridge between recently used pairs.
+    //   markovChain, if present, is the random walk over the graph used by generate.
+    //   sortedAdjacency, if present, orders the edges of words by weight for topBridges.
+    //   bridgePaths remembers the multi-word bridges of recently used pairs.
+    //   lastWord is the ID of the last word of the text read so far, or null if there
+    //   is none (or if the poet was started from a snapshot).
     // Representation invariant:
-    //   Graph vertices must be non-empty, case-insensitive strings, and edges must have positive weights.
+    //   Graph vertices must be IDs in tokens of non-empty, lowercase words, and edges
+    //   must have positive weights.
+    //   tokens is a TokenInterner unless the poet was started from a snapshot.
+    //   bridgeIndex, bridgeCache, markovChain and sortedAdjacency, if present, and
+    //   bridgePaths agree with the current graph.
     // Safety from rep exposure:
-    //   The graph field is private and final. No mutable references to the graph are exposed.
+    //   The graph and tokens fields are private and final. No mutable references to
+    //   them are exposed; clients only ever see words.
+    //   bridgeIndex and markovChain are private and immutable. bridgeCache,
+    //   sortedAdjacency and bridgePaths are private and thread-safe;
+    //   clients only see immutable snapshots of its counters.
+    // Thread safety argument:
+    //   The graph is a thread-safe ConcurrentGraph, or a read-only MappedGraph;
+    //   tokens is thread-safe, and only feed, holding the lock, adds to it.
+    //   feed, precomputeBridges and cacheBridges are synchronized, so one thread
+    //   at a time changes the graph, lastWord, bridgeIndex and bridgeCache;
+    //   markovChain and sortedAdjacency are created only while holding the same lock.
+    //   poem takes no lock: it reads the graph, which is weakly consistent,
+    //   bridgeIndex and bridgeCache, which are volatile and thread-safe, and
+    //   bridgePaths, which is thread-safe and ignores searches a clear overtakes. feed
+    //   updates the bridges derived from the graph after changing the graph, so
+    //   once a feed returns, poems reflect all of it.
 
     /**
      * Create a new poet with the graph from the corpus (as described above).
@@ -28,108 +90,756 @@ public class GraphPoet {
      * @throws IOException if the corpus file cannot be found or read
      */
     public GraphPoet(File corpus) throws IOException {
-        List<String> words = parseWords(Files.readString(corpus.toPath()));
+        this(corpus.toPath());
+    }
 
-        for (int i = 0; i < words.size() - 1; i++) {
-            String word1 = words.get(i);
-            String word2 = words.get(i + 1);
+    /**
+     * Create a new poet with the graph from the corpus (as described above).
+     * The corpus is read as UTF-8 text, a buffer at a time, so its size is
+     * not limited by the heap.
+     *
+     * @param corpus path of the text file from which to derive the poet's
+     *               affinity graph
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    public GraphPoet(Path corpus) throws IOException {
+        graph = new ConcurrentGraph<>();
+        tokens = new TokenInterner();
+        try (Reader reader = Files.newBufferedReader(corpus)) {
+            addCorpus(reader, null);
+        }
+        checkRep();
+    }
 
-            // Add the vertices to the graph
-            graph.add(word1);
-            graph.add(word2);
+    /**
+     * Create a new poet with the graph from the corpus (as described above),
+     * counting word pairs in parallel. The poet is the same as one created
+     * by {@link #GraphPoet(Path)} from the same corpus.
+     *
+     * @param corpus path of the UTF-8 text file from which to derive the
+     *               poet's affinity graph
+     * @param pool pool on which to count chunks of the corpus
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    public GraphPoet(Path corpus, ForkJoinPool pool) throws IOException {
+        this(corpus, pool, 0);
+    }
 
-            // Update the weight of the edge
-            int currentWeight = graph.targets(word1).getOrDefault(word2, 0);
-            graph.set(word1, word2, currentWeight + 1);
+    /**
+     * Create a new poet as by {@link #GraphPoet(Path, ForkJoinPool)}, cutting
+     * the corpus into chunks of a particular size.
+     *
+     * @param corpus path of the UTF-8 text file from which to derive the
+     *               poet's affinity graph
+     * @param pool pool on which to count chunks of the corpus
+     * @param chunkSize approximate size in bytes of each chunk, or 0 to pick
+     *                  one from the corpus size and the parallelism of pool
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    GraphPoet(Path corpus, ForkJoinPool pool, long chunkSize) throws IOException {
+        graph = new ConcurrentGraph<>();
+        TokenInterner interner = new TokenInterner();
+        tokens = interner;
+        BigramCounter.Counts counts = BigramCounter.count(corpus, pool, chunkSize);
+        // the same IDs as reading the corpus in order would give
+        for (String word : counts.words()) {
+            interner.intern(word);
+        }
+        // each edge and vertex added in the same order as reading the corpus
+        // in order would add it, so the graph iterates, and breaks ties
+        // between bridges, the same way
+        for (Map.Entry<Map.Entry<String, String>, Integer> pair : counts.pairs().entrySet()) {
+            graph.set(interner.id(pair.getKey().getKey()), interner.id(pair.getKey().getValue()), pair.getValue());
         }
+        lastWord = counts.last() == null ? null : interner.id(counts.last());
+        checkRep();
+    }
 
+    /**
+     * Create a new poet with the graph from the corpus (as described above).
+     * The corpus is read as UTF-8 text, a buffer at a time, so its size is
+     * not limited by the heap.
+     *
+     * @param corpus stream of the text from which to derive the poet's
+     *               affinity graph; read to its end but not closed
+     * @throws IOException if the corpus cannot be read
+     */
+    public GraphPoet(InputStream corpus) throws IOException {
+        graph = new ConcurrentGraph<>();
+        tokens = new TokenInterner();
+        addCorpus(new InputStreamReader(corpus, StandardCharsets.UTF_8.newDecoder()), null);
         checkRep();
     }
 
     /**
-     * Parse words from the given corpus text.
+     * Create a new poet over an existing affinity graph.
      *
-     * @param corpusText the text to parse
-     * @return a list of words in order
+     * @param graph affinity graph (as described above) over IDs in tokens,
+     *              owned by the new poet from now on
+     * @param tokens dictionary of the words of graph
      */
-    private List<String> parseWords(String corpusText) {
-        String[] splitWords = corpusText.split("\\s+");
-        List<String> words = new ArrayList<>();
-        for (String word : splitWords) {
-            if (!word.isBlank()) {
-                words.add(word.toLowerCase());
+    private GraphPoet(IndexedGraph<Integer> graph, TokenDictionary tokens) {
+        this.graph = graph;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Create a new poet from a snapshot saved by {@link #saveSnapshot}. The
+     * snapshot is memory-mapped rather than read, so this takes time
+     * independent of the size of the corpus, and the poet serves bridges
+     * straight from the file. The poet writes the same poems as the one
+     * that saved the snapshot. The file must not change while the poet is
+     * in use, except by {@link #saveSnapshot}, which replaces it atomically.
+     *
+     * @param snapshot path of a snapshot file
+     * @return a poet with the affinity graph saved in snapshot
+     * @throws IOException if the snapshot cannot be read or is not a
+     *         snapshot
+     */
+    public static GraphPoet fromSnapshot(Path snapshot) throws IOException {
+        // not checkRep(): that would read every word of the snapshot, and
+        // MappedGraph.open has checked the file's structure
+        MappedGraph mapped = MappedGraph.open(snapshot);
+        return new GraphPoet(mapped.byId(), TokenDictionary.of(mapped));
+    }
+
+    /**
+     * Save this poet's affinity graph as a snapshot file, for
+     * {@link #fromSnapshot} to start from without reading the corpus again.
+     *
+     * @param snapshot path of the snapshot file to write; replaced if it
+     *                 exists
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void saveSnapshot(Path snapshot) throws IOException {
+        MappedGraph.write(graph, tokens::word, snapshot);
+    }
+
+    /**
+     * Add more text to the corpus of this poet, as if it were appended to
+     * the corpus after a space: the last word read so far and the first
+     * word of text are counted as adjacent. Poems written after this returns
+     * reflect text; poems written while it runs may reflect any part of it.
+     * Takes time proportional to the length of text, plus, if bridges are
+     * precomputed or cached, to the number of two-word paths through the
+     * words of text.
+     *
+     * @param text text to add to the corpus
+     * @throws UnsupportedOperationException if this poet was started from a
+     *         snapshot
+     */
+    public void feed(CharSequence text) {
+        try {
+            feed(new StringReader(text.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringReader does not throw
+        }
+    }
+
+    /**
+     * Add the text of a file to the corpus of this poet, as described by
+     * {@link #feed(CharSequence)}. If the file cannot be read, the words
+     * read before the failure are added.
+     *
+     * @param corpus path of a UTF-8 text file to add to the corpus
+     * @throws IOException if the file cannot be found or read
+     * @throws UnsupportedOperationException if this poet was started from a
+     *         snapshot
+     */
+    public void feed(Path corpus) throws IOException {
+        try (Reader reader = Files.newBufferedReader(corpus)) {
+            feed(reader);
+        }
+    }
+
+    private synchronized void feed(Reader text) throws IOException {
+        if (!(tokens instanceof TokenInterner)) {
+            throw new UnsupportedOperationException("a poet started from a snapshot cannot be fed");
+        }
+        BridgeIndex<Integer> index = bridgeIndex;
+        BridgeCache<Integer> cache = bridgeCache;
+        SortedAdjacency<Integer> adjacency = sortedAdjacency;
+        Map<Integer, Set<Integer>> changed = index == null && cache == null && adjacency == null
+                ? null : new HashMap<>();
+        try {
+            addCorpus(text, changed);
+        } finally {
+            if (index != null) {
+                index.update(graph, changed, this::searchBridge);
             }
+            if (cache != null) {
+                invalidateBridges(cache, changed);
+            }
+            if (adjacency != null) {
+                adjacency.invalidate(changed);
+            }
+            bridgePaths.clear();
+            markovChain = null;
+        }
+        // not checkRep(): that would take time proportional to the whole
+        // graph, and addCorpus only adds positive weights between words
+    }
+
+    /**
+     * Add the word pairs of text to the graph, one pair at a time, starting
+     * with the pair of lastWord and the first word of text, and update
+     * lastWord. Adds the words of text to tokens, which must be a
+     * TokenInterner.
+     *
+     * @param text text to read to its end
+     * @param changed if not null, map to which to add, from each word whose
+     *                edges changed, the targets of the changed edges
+     * @throws IOException if the corpus cannot be read
+     */
+    private void addCorpus(Reader text, Map<Integer, Set<Integer>> changed) throws IOException {
+        TokenInterner interner = (TokenInterner) tokens;
+        WordScanner words = new WordScanner(text);
+        Integer word1 = lastWord;
+        try {
+            for (String word = words.next(); word != null; word = words.next()) {
+                Integer word2 = interner.intern(word);
+                if (word1 != null) {
+                    graph.addWeight(word1, word2, 1);
+                    if (changed != null) {
+                        changed.computeIfAbsent(word1, id -> new HashSet<>()).add(word2);
+                    }
+                }
+                word1 = word2;
+            }
+        } finally {
+            lastWord = word1;
+        }
+    }
+
+    /**
+     * Remove from a bridge cache every pair whose best bridge may have
+     * changed when edges of the graph changed: every pair from the source of
+     * a changed edge, whose bridges or their order may have changed, and
+     * every pair through the source of a changed edge to its target.
+     *
+     * @param cache cache to update
+     * @param changed map from the source of every changed edge to the
+     *                targets of the changed edges from it
+     */
+    private void invalidateBridges(BridgeCache<Integer> cache, Map<Integer, Set<Integer>> changed) {
+        for (Map.Entry<Integer, Set<Integer>> edges : changed.entrySet()) {
+            Integer word1 = edges.getKey();
+            graph.forEachTarget(word1, (bridge, first) -> {
+                graph.forEachTarget(bridge, (word2, second) -> cache.invalidate(word1, word2));
+            });
+            graph.forEachSource(word1, (source, weight) -> {
+                for (Integer word2 : edges.getValue()) {
+                    cache.invalidate(source, word2);
+                }
+            });
         }
-        return words;
+    }
+
+    /**
+     * Index the best bridge between every pair of words, so that each later
+     * call to {@link #poem(String)} looks bridges up instead of searching the
+     * graph. Poems are unchanged. Takes time and space proportional to the
+     * number of two-word paths in the graph.
+     */
+    public synchronized void precomputeBridges() {
+        bridgeIndex = BridgeIndex.build(graph);
+    }
+
+    /**
+     * Cache the best bridges of the most recently used word pairs, including
+     * pairs that have no bridge, so that repeated pairs in later calls to
+     * {@link #poem(String)} do not search the graph again. Poems are
+     * unchanged. Replaces any cache enabled before.
+     *
+     * @param maxEntries maximum number of word pairs to cache, > 0
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    public synchronized void cacheBridges(int maxEntries) {
+        bridgeCache = new BridgeCache<>(maxEntries);
+    }
+
+    /**
+     * Get the counters of the bridge cache enabled by {@link #cacheBridges}.
+     *
+     * @return snapshot of the hit, miss and eviction counts and size of the
+     *         bridge cache, or null if no cache is enabled
+     */
+    public CacheStats bridgeCacheStats() {
+        BridgeCache<Integer> cache = bridgeCache;
+        return cache == null ? null : cache.stats();
     }
 
     /**
      * Generate a poem.
      *
      * @param input string from which to create the poem
-     * @return poem (as described above)
+     * @return poem (as described above); the empty string if input is empty
+     *         or only whitespace
      */
     public String poem(String input) {
-        String[] inputWords = input.split("\\s+");
-        StringBuilder poemBuilder = new StringBuilder();
+        return poem(input, null);
+    }
+
+    /**
+     * Generate a poem with bridges of up to maxBridgeWords words. Between
+     * each pair of adjacent input words w1 and w2, the poem inserts the words
+     * of the heaviest walk w1 -> b1 -> ... -> bj -> w2 in the graph with
+     * 1 <= j <= maxBridgeWords, by the sum of the weights of its edges; among
+     * walks of equal weight, the one with the fewest words. Bridges of one
+     * word are chosen exactly as by {@link #poem(String)}, so
+     * poem(input, 1, maxFrontier) equals poem(input).
+     *
+     * <p>Each level of the search for a longer bridge keeps only its
+     * maxFrontier heaviest partial walks, so that words that many others
+     * follow, like "the", do not make the search explore the whole graph.
+     * A smaller maxFrontier bounds the time for each pair more tightly, but
+     * may miss the heaviest bridge.
+     *
+     * <p>The poet remembers the bridges of the pairs it has most recently
+     * searched, with each maxBridgeWords and maxFrontier, until the next
+     * {@link #feed}, so repeated pairs in later calls do not search the
+     * graph again.
+     *
+     * @param input string from which to create the poem
+     * @param maxBridgeWords maximum number of words in each bridge, >= 1
+     * @param maxFrontier maximum number of partial walks kept at each level
+     *                    of the search for a bridge, >= 1
+     * @return poem (as described above); the empty string if input is empty
+     *         or only whitespace
+     * @throws IllegalArgumentException if maxBridgeWords or maxFrontier is
+     *         not positive
+     */
+    public String poem(String input, int maxBridgeWords, int maxFrontier) {
+        return poem(input, new BridgePathSearch<>(graph, maxBridgeWords, maxFrontier, this::findBridge,
+                bridgePaths));
+    }
+
+    /**
+     * Generate a poem with the one-word bridges of findBridgeWord if paths is
+     * null, or else with the bridges found by paths.
+     */
+    private String poem(String input, BridgePathSearch<Integer> paths) {
+        InputScanner words = new InputScanner(input);
+        if (!words.next()) {
+            return ""; // only whitespace, so no words
+        }
+        // toLowerCase returns the same string when it has no uppercase, so
+        // each word is copied once, and again only if it has capitals
+        Locale locale = Locale.getDefault();
+        StringBuilder poemBuilder = new StringBuilder(input.length() * 2);
+        poemBuilder.append(input, words.start, words.end);
+        Integer word1 = token(input.substring(words.start, words.end).toLowerCase(locale));
+        while (words.next()) {
+            Integer word2 = token(input.substring(words.start, words.end).toLowerCase(locale));
+            poemBuilder.append(' ');
+            if (paths == null) {
+                String bridge = findBridgeWord(word1, word2);
+                if (bridge != null) {
+                    poemBuilder.append(bridge).append(' ');
+                }
+            } else {
+                for (Integer bridge : paths.find(word1, word2)) {
+                    poemBuilder.append(tokens.word(bridge)).append(' ');
+                }
+            }
+            poemBuilder.append(input, words.start, words.end);
+            word1 = word2;
+        }
+        return poemBuilder.toString();
+    }
 
-        for (int i = 0; i < inputWords.length - 1; i++) {
-            String word1 = inputWords[i].toLowerCase();
-            String word2 = inputWords[i + 1].toLowerCase();
+    /**
+     * Find the heaviest bridges between two words, with their weights: the
+     * words b that follow word1 and precede word2 in the corpus, weighted by
+     * the sum of the weights of the edges word1 -> b and b -> word2. Bridges
+     * of equal weight are ordered alphabetically, so the first bridge
+     * returned may differ from the one {@link #poem(String)} chooses among
+     * equals.
+     *
+     * <p>Keeps the edges of each word it has looked at sorted by weight, and
+     * reads them from the heaviest down only until no unread bridge could
+     * weigh more than the k-th heaviest found, so it usually reads far fewer
+     * edges than the number of words that follow word1.
+     *
+     * @param word1 the first word; case-insensitive
+     * @param word2 the second word; case-insensitive
+     * @param k maximum number of bridges to return, >= 1
+     * @return up to k of the heaviest bridges from word1 to word2, in
+     *         decreasing order of weight, and among equals, in alphabetical
+     *         order; fewer than k if there are fewer bridges
+     * @throws IllegalArgumentException if k is not positive
+     */
+    public List<Bridge<String>> topBridges(String word1, String word2, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        Integer id1 = token(word1.toLowerCase());
+        Integer id2 = token(word2.toLowerCase());
+        if (id1.equals(UNKNOWN) || id2.equals(UNKNOWN)) {
+            return List.of();
+        }
+        SortedAdjacency<Integer> adjacency = sortedAdjacency;
+        if (adjacency == null) {
+            synchronized (this) {
+                adjacency = sortedAdjacency;
+                if (adjacency == null) {
+                    adjacency = new SortedAdjacency<>(graph, Comparator.comparing(tokens::word));
+                    sortedAdjacency = adjacency;
+                }
+            }
+        }
+        List<Bridge<String>> bridges = new ArrayList<>();
+        for (Bridge<Integer> bridge : adjacency.top(id1, id2, k)) {
+            bridges.add(new Bridge<>(tokens.word(bridge.word()), bridge.weight()));
+        }
+        return bridges;
+    }
 
-            // Add the current word to the poem
-            poemBuilder.append(inputWords[i]).append(" ");
+    /**
+     * Generate text by a random walk over the word affinity graph. The walk
+     * starts at seed, and each following word is chosen with probability
+     * proportional to the weight of the edge to it from the word before, that
+     * is, to how often it follows that word in the corpus. The walk ends
+     * early at a word that nothing follows in the corpus, or that is not in
+     * the corpus at all.
+     *
+     * <p>The first call after the poet is created or fed takes time
+     * proportional to the size of the graph, to build tables with which each
+     * later step takes constant time. Until the poet is fed again, the same
+     * arguments always give the same text.
+     *
+     * @param seed first word of the text; case-insensitive
+     * @param length maximum number of words in the text, >= 1
+     * @param randomSeed seed of the random choices of the walk
+     * @return the words of the walk in lowercase, starting with seed,
+     *         separated by single spaces
+     * @throws IllegalArgumentException if length < 1
+     */
+    public String generate(String seed, int length, long randomSeed) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be positive: " + length);
+        }
+        MarkovChain<Integer> chain = markovChain();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        String word = seed.toLowerCase();
+        StringBuilder text = new StringBuilder(word);
+        int id = chain.id(token(word));
+        for (int words = 1; words < length && id >= 0; words++) {
+            id = chain.next(id, random);
+            if (id >= 0) {
+                text.append(' ').append(tokens.word(chain.label(id)));
+            }
+        }
+        return text.toString();
+    }
 
-            // Find the bridge word
-            String bridge = findBridgeWord(word1, word2);
-            if (bridge != null) {
-                poemBuilder.append(bridge).append(" ");
+    /**
+     * @return the random walk over the current graph, building it if needed
+     */
+    private MarkovChain<Integer> markovChain() {
+        MarkovChain<Integer> chain = markovChain;
+        if (chain == null) {
+            synchronized (this) {
+                chain = markovChain;
+                if (chain == null) {
+                    chain = MarkovChain.build(graph);
+                    markovChain = chain;
+                }
             }
         }
+        return chain;
+    }
 
-        // Add the last word
-        poemBuilder.append(inputWords[inputWords.length - 1]);
-        return poemBuilder.toString();
+    /**
+     * Generate a poem for each of a batch of inputs, in the calling thread.
+     * Equivalent to calling {@link #poem(String)} on each input in turn, but
+     * looks up the bridge of each distinct pair of words in the batch only
+     * once.
+     *
+     * @param inputs strings from which to create poems
+     * @return list of the poems of inputs, in the same order
+     */
+    public List<String> poems(List<String> inputs) {
+        return poems(inputs, Runnable::run);
     }
 
     /**
-     * Find the bridge word between two words.
+     * Generate a poem for each of a batch of inputs, splitting the work into
+     * tasks run by an executor. Equivalent to calling
+     * {@link #poem(String)} on each input in turn, but looks up the bridge
+     * of each distinct pair of words in the batch only once.
      *
-     * @param word1 the first word
-     * @param word2 the second word
-     * @return the bridge word, or null if none exists
+     * @param inputs strings from which to create poems
+     * @param executor executor on which to run the tasks; this call waits
+     *                 for them to finish
+     * @return list of the poems of inputs, in the same order
      */
-    private String findBridgeWord(String word1, String word2) {
-        int maxWeight = 0;
-        String bridge = null;
+    public List<String> poems(List<String> inputs, Executor executor) {
+        int count = inputs.size();
+        String[][] words = new String[count][];
+        Integer[][] tokenIds = new Integer[count][];
+        forEachIndex(count, executor, i -> {
+            words[i] = parseWords(inputs.get(i));
+            tokenIds[i] = new Integer[words[i].length];
+            for (int j = 0; j < words[i].length; j++) {
+                tokenIds[i][j] = token(words[i][j].toLowerCase());
+            }
+        });
 
-        for (String candidate : graph.targets(word1).keySet()) {
-            if (graph.targets(candidate).containsKey(word2)) {
-                int weight = graph.targets(word1).get(candidate) + graph.targets(candidate).get(word2);
-                if (weight > maxWeight) {
-                    maxWeight = weight;
-                    bridge = candidate;
+        // number the distinct pairs of the batch
+        Map<Integer, Map<Integer, Integer>> pairIds = new HashMap<>();
+        List<Integer> firsts = new ArrayList<>();
+        List<Integer> seconds = new ArrayList<>();
+        int[][] pairs = new int[count][];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = new int[Math.max(0, words[i].length - 1)];
+            for (int j = 0; j < pairs[i].length; j++) {
+                Integer word1 = tokenIds[i][j];
+                Integer word2 = tokenIds[i][j + 1];
+                Map<Integer, Integer> row = pairIds.computeIfAbsent(word1, word -> new HashMap<>());
+                Integer id = row.get(word2);
+                if (id == null) {
+                    id = firsts.size();
+                    row.put(word2, id);
+                    firsts.add(word1);
+                    seconds.add(word2);
+                }
+                pairs[i][j] = id;
+            }
+        }
+
+        String[] bridges = new String[firsts.size()];
+        forEachIndex(bridges.length, executor, k -> bridges[k] = findBridgeWord(firsts.get(k), seconds.get(k)));
+
+        String[] poems = new String[count];
+        forEachIndex(count, executor, i -> {
+            String[] poemBridges = new String[pairs[i].length];
+            for (int j = 0; j < poemBridges.length; j++) {
+                poemBridges[j] = bridges[pairs[i][j]];
+            }
+            poems[i] = assemble(words[i], poemBridges);
+        });
+        return List.of(poems);
+    }
+
+    /**
+     * Run a body for every index in 0..count-1, in tasks of up to
+     * BATCH_SIZE indexes each run by an executor, and wait for them all.
+     *
+     * @throws RuntimeException or Error thrown by body for some index
+     */
+    private static void forEachIndex(int count, Executor executor, IntConsumer body) {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < count; from += BATCH_SIZE) {
+            int start = from;
+            int end = Math.min(count, from + BATCH_SIZE);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (int i = start; i < end; i++) {
+                    body.accept(i);
                 }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
             }
+            throw e;
         }
+    }
 
+    /**
+     * Split the input of a poem into words.
+     *
+     * @param input string from which to create a poem
+     * @return the words of input, split at runs of whitespace as by
+     *         {@code input.split("\\s+")}
+     */
+    private static String[] parseWords(String input) {
+        List<String> words = new ArrayList<>();
+        InputScanner scanner = new InputScanner(input);
+        while (scanner.next()) {
+            words.add(input.substring(scanner.start, scanner.end));
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Scans the words of a poem input over char offsets, without copying
+     * them, splitting the input exactly as {@code input.split("\\s+")}
+     * does: at runs of whitespace, with an empty first word if the input
+     * starts with whitespace, no empty last word, no words at all if the
+     * input is only whitespace, and one empty word if the input is empty.
+     */
+    private static final class InputScanner {
+        private final String input;
+        private int start = 0;
+        private int end = -1;
+
+        // the current word is input[start, end); end is -1 before the first
+
+        InputScanner(String input) {
+            this.input = input;
+        }
+
+        /**
+         * Move to the next word.
+         *
+         * @return true if there is another word, false if the input has no
+         *         more words
+         */
+        boolean next() {
+            int length = input.length();
+            int position = Math.max(end, 0);
+            boolean first = end < 0;
+            while (position < length && WordScanner.isSeparator(input.charAt(position))) {
+                position++;
+            }
+            if (first && (position > 0 || length == 0)) {
+                // leading whitespace, or an empty input, gives an empty first
+                // word, unless the input is nothing but whitespace
+                end = 0;
+                return length == 0 || position < length;
+            }
+            if (position == length) {
+                return false;
+            }
+            start = position;
+            while (position < length && !WordScanner.isSeparator(input.charAt(position))) {
+                position++;
+            }
+            end = position;
+            return true;
+        }
+    }
+
+    /**
+     * Join the words of a poem with their bridges.
+     *
+     * @param words words of the input, as given by parseWords
+     * @param bridges bridges[i] is the bridge word between words[i] and
+     *                words[i+1], or null if there is none
+     * @return words and their bridges, in order, separated by spaces
+     */
+    private static String assemble(String[] words, String[] bridges) {
+        if (words.length == 0) {
+            return ""; // only whitespace, so no words
+        }
+        StringBuilder poemBuilder = new StringBuilder();
+        for (int i = 0; i < bridges.length; i++) {
+            poemBuilder.append(words[i]).append(" ");
+            if (bridges[i] != null) {
+                poemBuilder.append(bridges[i]).append(" ");
+            }
+        }
+        poemBuilder.append(words[words.length - 1]);
+        return poemBuilder.toString();
+    }
+
+    /**
+     * @param word a word in lowercase
+     * @return the ID of word, or UNKNOWN if it is not in the corpus
+     */
+    private Integer token(String word) {
+        Integer id = tokens.id(word);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Find the bridge word between two words.
+     *
+     * @param word1 ID of the first word
+     * @param word2 ID of the second word
+     * @return the bridge word, or null if none exists
+     */
+    private String findBridgeWord(Integer word1, Integer word2) {
+        Bridge<Integer> bridge = findBridge(word1, word2);
+        return bridge == null ? null : tokens.word(bridge.word());
+    }
+
+    /**
+     * Find the best bridge between two words, from the bridge index or
+     * cache if there is one, or else by searching the graph.
+     *
+     * @param word1 ID of the first word
+     * @param word2 ID of the second word
+     * @return the bridge with the greatest weight, the first found among
+     *         equals, or null if none exists
+     */
+    private Bridge<Integer> findBridge(Integer word1, Integer word2) {
+        Bridge<Integer> bridge;
+        BridgeIndex<Integer> index = bridgeIndex;
+        BridgeCache<Integer> cache = bridgeCache;
+        if (index != null) {
+            bridge = index.get(word1, word2);
+        } else if (cache != null) {
+            bridge = cache.get(word1, word2, this::searchBridge);
+        } else {
+            bridge = searchBridge(word1, word2);
+        }
         return bridge;
     }
 
+    /**
+     * Search the graph for the best bridge between two words.
+     *
+     * @param word1 ID of the first word
+     * @param word2 ID of the second word
+     * @return the bridge with the greatest weight, the first found among
+     *         equals, or null if none exists
+     */
+    private Bridge<Integer> searchBridge(Integer word1, Integer word2) {
+        BridgeSearch search = new BridgeSearch(word2);
+        graph.forEachTarget(word1, search);
+        return search.bridge == null ? null : new Bridge<>(search.bridge, search.maxWeight);
+    }
+
+    /**
+     * Visits the targets of the first word of a pair, keeping the best bridge
+     * to the second word.
+     */
+    private class BridgeSearch implements ObjIntConsumer<Integer> {
+        private final Integer word2;
+        private int maxWeight = 0;
+        private Integer bridge = null;
+
+        BridgeSearch(Integer word2) {
+            this.word2 = word2;
+        }
+
+        @Override
+        public void accept(Integer candidate, int first) {
+            int second = graph.weight(candidate, word2);
+            if (second > 0 && first + second > maxWeight) {
+                maxWeight = first + second;
+                bridge = candidate;
+            }
+        }
+    }
+
     /**
      * Check the representation invariant.
      */
     private void checkRep() {
-        for (String vertex : graph.vertices()) {
-            assert !vertex.isBlank() : "Vertex must be non-empty";
-            for (Map.Entry<String, Integer> entry : graph.targets(vertex).entrySet()) {
-                assert entry.getValue() > 0 : "Edge weights must be positive";
+        if (!Verification.checkTouched()) {
+            return;
+        }
+        for (Integer vertex : graph.vertices()) {
+            if (!Verification.checkAll()) {
+                continue; // SAMPLED mode checks a random subset of the words
             }
+            assert !tokens.word(vertex).isBlank() : "Vertex must be non-empty";
+            graph.forEachTarget(vertex, (target, weight) -> {
+                assert weight > 0 : "Edge weights must be positive";
+            });
         }
     }
 
     @Override
     public String toString() {
-        return "GraphPoet using graph: " + graph;
+        return "GraphPoet using graph: " + graph + " over " + tokens;
     }
 }
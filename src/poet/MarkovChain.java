@@ -0,0 +1,234 @@
+package poet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import graph.IndexedGraph;
+
+/**
+ * An immutable random walk over a weighted graph: from each vertex, the walk
+ * moves to a target with probability proportional to the weight of the edge
+ * to it.
+ *
+ * <p>Each step takes constant time, however many targets a vertex has: the
+ * chain keeps an alias table (Walker's alias method, in Vose's construction)
+ * for each vertex. Probabilities are exact, since the tables are built in
+ * integer arithmetic from the integer edge weights.
+ *
+ * <p>Vertices are numbered 0 to size()-1. Given the same chain and the same
+ * random seed, a walk always makes the same steps.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+class MarkovChain<L> {
+
+    private final Object[] labels;
+    private final Map<L, Integer> ids;
+    private final int[] offsets;
+    private final long[] totals;
+    private final int[] targets;
+    private final long[] thresholds;
+    private final int[] aliases;
+
+    // Abstraction function:
+    //   AF(labels, ids, offsets, totals, targets, thresholds, aliases) =
+    //     the chain over vertices labels[0..n-1], n = labels.length, which
+    //     from vertex v with out-degree d = offsets[v+1] - offsets[v] picks
+    //     a slot i in offsets[v]..offsets[v+1]-1 uniformly, and then moves
+    //     to targets[i] with probability thresholds[i] / totals[v], or else
+    //     to targets[aliases[i]]. totals[v] is the sum of v's edge weights.
+    // Representation invariant:
+    //   ids.get(labels[v]) == v for every v, and ids has no other keys
+    //   offsets has n+1 entries, offsets[0] == 0, nondecreasing, and
+    //     offsets[n] == targets.length == thresholds.length == aliases.length
+    //   for each slot i of v: 0 <= targets[i] < n,
+    //     0 <= thresholds[i] <= totals[v], and aliases[i] is a slot of v
+    //   the slots of v together move to each target t with probability
+    //     weight(v, t) / totals[v] (not checked: it follows from the
+    //     construction in build)
+    // Safety from rep exposure:
+    //   all fields are private, final, and never returned; labels are
+    //   immutable.
+    //
+    // Memory: 20 bytes per edge in the three slot arrays, plus about 60 bytes
+    // per vertex for its offset, total, label reference and ids entry.
+
+    private MarkovChain(Object[] labels, Map<L, Integer> ids, int[] offsets, long[] totals,
+            int[] targets, long[] thresholds, int[] aliases) {
+        this.labels = labels;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.totals = totals;
+        this.targets = targets;
+        this.thresholds = thresholds;
+        this.aliases = aliases;
+        checkRep();
+    }
+
+    private void checkRep() {
+        int n = labels.length;
+        assert ids.size() == n;
+        assert offsets.length == n + 1 && offsets[0] == 0 && offsets[n] == targets.length;
+        assert thresholds.length == targets.length && aliases.length == targets.length;
+        for (int v = 0; v < n; v++) {
+            assert ids.get(labels[v]) == v;
+            assert offsets[v] <= offsets[v + 1];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                assert 0 <= targets[i] && targets[i] < n;
+                assert 0 <= thresholds[i] && thresholds[i] <= totals[v];
+                assert offsets[v] <= aliases[i] && aliases[i] < offsets[v + 1];
+            }
+        }
+    }
+
+    /**
+     * Make the chain of a graph. Takes time proportional to the number of
+     * vertices and edges of the graph.
+     *
+     * @param <L> type of vertex labels, must be immutable
+     * @param graph graph whose edge weights give the transition
+     *              probabilities; not modified
+     * @return the chain of graph, as described above
+     */
+    static <L> MarkovChain<L> build(IndexedGraph<L> graph) {
+        Object[] labels = graph.vertices().toArray();
+        int n = labels.length;
+        Map<L, Integer> ids = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            @SuppressWarnings("unchecked") // labels came from graph.vertices()
+            L label = (L) labels[v];
+            ids.put(label, v);
+        }
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) labels[v];
+            int[] degree = { 0 };
+            graph.forEachTarget(label, (target, weight) -> degree[0]++);
+            offsets[v + 1] = offsets[v] + degree[0];
+        }
+        long[] totals = new long[n];
+        int[] targets = new int[offsets[n]];
+        long[] thresholds = new long[offsets[n]];
+        int[] aliases = new int[offsets[n]];
+        int[] small = new int[0];
+        int[] large = new int[0];
+        for (int v = 0; v < n; v++) {
+            @SuppressWarnings("unchecked")
+            L label = (L) labels[v];
+            int start = offsets[v];
+            int[] next = { start };
+            graph.forEachTarget(label, (target, weight) -> {
+                targets[next[0]] = ids.get(target);
+                thresholds[next[0]] = weight;
+                next[0]++;
+            });
+            int degree = offsets[v + 1] - start;
+            if (small.length < degree) {
+                small = new int[degree];
+                large = new int[degree];
+            }
+            totals[v] = fillAliasTable(thresholds, aliases, start, degree, small, large);
+        }
+        return new MarkovChain<>(labels, ids, offsets, totals, targets, thresholds, aliases);
+    }
+
+    /**
+     * Turn the weights of one vertex's slots into its alias table.
+     *
+     * @param thresholds holds the weights of the slots start..start+degree-1,
+     *                   and receives their thresholds
+     * @param aliases receives the aliases of the same slots
+     * @param small scratch space of at least degree entries
+     * @param large scratch space of at least degree entries
+     * @return the sum of the weights
+     */
+    private static long fillAliasTable(long[] thresholds, int[] aliases, int start, int degree,
+            int[] small, int[] large) {
+        long total = 0;
+        for (int i = start; i < start + degree; i++) {
+            total += thresholds[i];
+        }
+        // scale each weight by degree, so that a slot whose scaled weight is
+        // exactly total is taken with probability 1 by itself
+        int smalls = 0;
+        int larges = 0;
+        for (int i = start; i < start + degree; i++) {
+            thresholds[i] *= degree;
+            aliases[i] = i;
+            if (thresholds[i] < total) {
+                small[smalls++] = i;
+            } else {
+                large[larges++] = i;
+            }
+        }
+        while (smalls > 0 && larges > 0) {
+            int less = small[--smalls];
+            int more = large[larges - 1];
+            aliases[less] = more;
+            thresholds[more] -= total - thresholds[less];
+            if (thresholds[more] < total) {
+                larges--;
+                small[smalls++] = more;
+            }
+        }
+        // what remains has scaled weight exactly total
+        while (larges > 0) {
+            thresholds[large[--larges]] = total;
+        }
+        while (smalls > 0) {
+            thresholds[small[--smalls]] = total;
+        }
+        return total;
+    }
+
+    /**
+     * @return number of vertices of this chain
+     */
+    int size() {
+        return labels.length;
+    }
+
+    /**
+     * @param label a label
+     * @return the ID of the vertex with that label, or -1 if there is none
+     */
+    int id(L label) {
+        Integer id = ids.get(label);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id ID of a vertex, 0 <= id < size()
+     * @return its label
+     */
+    @SuppressWarnings("unchecked") // only L labels are stored
+    L label(int id) {
+        return (L) labels[id];
+    }
+
+    /**
+     * Take one step of the walk.
+     *
+     * @param id ID of the current vertex, 0 <= id < size()
+     * @param random source of randomness; advanced by the step
+     * @return ID of a target of the current vertex, chosen with probability
+     *         proportional to the weight of the edge to it, or -1 if the
+     *         vertex has no targets
+     */
+    int next(int id, SplittableRandom random) {
+        int start = offsets[id];
+        int degree = offsets[id + 1] - start;
+        if (degree == 0) {
+            return -1;
+        }
+        int slot = start + random.nextInt(degree);
+        return targets[random.nextLong(totals[id]) < thresholds[slot] ? slot : aliases[slot]];
+    }
+
+    @Override
+    public String toString() {
+        return "MarkovChain of " + labels.length + " vertices and " + targets.length + " edges";
+    }
+}
@@ -0,0 +1,212 @@
+package poet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import graph.IndexedGraph;
+
+/**
+ * A thread-safe index of the edges of each vertex of a graph in order of
+ * decreasing weight, built for each vertex when first needed, and the
+ * search for the heaviest bridges between two vertices that it makes fast.
+ *
+ * <p>Edges of equal weight are ordered by the label at their other end, and
+ * bridges of equal weight by their word, in the order given to the
+ * constructor, so results do not depend on the order in which the graph
+ * visits edges.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+class SortedAdjacency<L> {
+
+    private final IndexedGraph<L> graph;
+    private final Comparator<? super L> order;
+    private final Map<L, Row<L>> targets = new ConcurrentHashMap<>();
+    private final Map<L, Row<L>> sources = new ConcurrentHashMap<>();
+
+    // Abstraction function:
+    //   AF(graph, order, targets, sources) = the index of graph whose row of
+    //     targets (sources) of v is targets.get(v) (sources.get(v)), or is
+    //     built from graph when next needed if that is absent
+    // Representation invariant:
+    //   every row is sorted by decreasing weight, then by order of label,
+    //   and all its weights are positive
+    //   each row agrees with graph, except while an update of graph is being
+    //   followed by invalidate
+    // Safety from rep exposure:
+    //   all fields are private and final; rows are immutable and never
+    //   returned. graph is shared with the caller, which tells the index
+    //   about its changes through invalidate.
+    // Thread safety argument:
+    //   rows are immutable, and kept in ConcurrentHashMaps. A row built while
+    //   graph changes may be stale, but invalidate removes it after the
+    //   change, and computeIfAbsent makes that removal wait for a row being
+    //   built.
+
+    /*
+     * The edges at one end of a vertex: labels at their other end and
+     * weights, in decreasing order of weight.
+     */
+    private static final class Row<L> {
+        private final Object[] labels;
+        private final int[] weights;
+
+        Row(Object[] labels, int[] weights) {
+            this.labels = labels;
+            this.weights = weights;
+        }
+
+        int size() {
+            return labels.length;
+        }
+
+        @SuppressWarnings("unchecked") // only L labels are stored
+        L label(int i) {
+            return (L) labels[i];
+        }
+    }
+
+    /**
+     * Make an index of a graph, with no rows built yet.
+     *
+     * @param graph graph to index; not modified
+     * @param order order of labels, by which to break ties between edges and
+     *              between bridges of equal weight
+     */
+    SortedAdjacency(IndexedGraph<L> graph, Comparator<? super L> order) {
+        this.graph = graph;
+        this.order = order;
+    }
+
+    private void checkRow(Row<L> row) {
+        for (int i = 0; i < row.size(); i++) {
+            assert row.weights[i] > 0;
+            assert i == 0 || row.weights[i - 1] > row.weights[i]
+                    || row.weights[i - 1] == row.weights[i]
+                            && order.compare(row.label(i - 1), row.label(i)) < 0;
+        }
+    }
+
+    private Row<L> targetRow(L vertex) {
+        return targets.computeIfAbsent(vertex, v -> row(v, true));
+    }
+
+    private Row<L> sourceRow(L vertex) {
+        return sources.computeIfAbsent(vertex, v -> row(v, false));
+    }
+
+    private Row<L> row(L vertex, boolean forward) {
+        List<Map.Entry<L, Integer>> edges = new ArrayList<>();
+        if (forward) {
+            graph.forEachTarget(vertex, (target, weight) -> edges.add(Map.entry(target, weight)));
+        } else {
+            graph.forEachSource(vertex, (source, weight) -> edges.add(Map.entry(source, weight)));
+        }
+        edges.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? order.compare(a.getKey(), b.getKey())
+                : Integer.compare(b.getValue(), a.getValue()));
+        Object[] labels = new Object[edges.size()];
+        int[] weights = new int[edges.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = edges.get(i).getKey();
+            weights[i] = edges.get(i).getValue();
+        }
+        Row<L> row = new Row<>(labels, weights);
+        checkRow(row);
+        return row;
+    }
+
+    /**
+     * Forget the rows that changes to the graph made stale. Call after the
+     * change.
+     *
+     * @param changed map from the source of every changed edge to the
+     *                targets of the changed edges from it
+     */
+    void invalidate(Map<L, ? extends Set<L>> changed) {
+        for (Map.Entry<L, ? extends Set<L>> edges : changed.entrySet()) {
+            targets.remove(edges.getKey());
+            for (L target : edges.getValue()) {
+                sources.remove(target);
+            }
+        }
+    }
+
+    /**
+     * Find the heaviest bridges from one vertex to another, by the threshold
+     * algorithm: read the targets of word1 and the sources of word2 in
+     * decreasing order of weight, one of each at a time, look up the other
+     * edge of each bridge word read, and stop once no word not yet read can
+     * weigh more than the k-th heaviest bridge found. Takes time
+     * proportional to the number of edges read, which is small when a few
+     * bridges are much heavier than the rest, rather than to the degree of
+     * word1.
+     *
+     * @param word1 source label
+     * @param word2 target label
+     * @param k maximum number of bridges to find, >= 1
+     * @return the min(k, number of bridges) heaviest bridges from word1 to
+     *         word2, in decreasing order of weight, and among equals, in
+     *         order of word
+     * @throws IllegalArgumentException if k is not positive
+     */
+    List<Bridge<L>> top(L word1, L word2, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        Comparator<Bridge<L>> better = Comparator.comparingInt((Bridge<L> bridge) -> bridge.weight())
+                .reversed().thenComparing(Bridge::word, order);
+        PriorityQueue<Bridge<L>> best = new PriorityQueue<>(better.reversed());
+        Row<L> out = targetRow(word1);
+        Row<L> in = sourceRow(word2);
+        Set<L> read = new HashSet<>();
+        // every bridge word is both a target of word1 and a source of word2,
+        // so once either row is read to its end, every bridge has been found
+        for (int i = 0; i < out.size() && i < in.size(); i++) {
+            L next = out.label(i);
+            if (read.add(next)) {
+                offer(best, better, k, next, out.weights[i], graph.weight(next, word2));
+            }
+            next = in.label(i);
+            if (read.add(next)) {
+                offer(best, better, k, next, graph.weight(word1, next), in.weights[i]);
+            }
+            if (best.size() == k && i + 1 < out.size() && i + 1 < in.size()) {
+                long threshold = (long) out.weights[i + 1] + in.weights[i + 1];
+                if (best.peek().weight() > threshold) {
+                    break;
+                }
+            }
+        }
+        List<Bridge<L>> top = new ArrayList<>(best);
+        Collections.sort(top, better);
+        return top;
+    }
+
+    private static <L> void offer(PriorityQueue<Bridge<L>> best, Comparator<Bridge<L>> better,
+            int k, L word, int first, int second) {
+        if (first == 0 || second == 0) {
+            return;
+        }
+        Bridge<L> bridge = new Bridge<>(word, first + second);
+        if (best.size() < k) {
+            best.add(bridge);
+        } else if (better.compare(bridge, best.peek()) < 0) {
+            best.poll();
+            best.add(bridge);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SortedAdjacency of " + targets.size() + " target rows and "
+                + sources.size() + " source rows";
+    }
+}
@@ -0,0 +1,64 @@
+package poet;
+
+import graph.MappedGraph;
+
+/**
+ * A dictionary of words, each with a dense int ID: the words of a
+ * dictionary of n words have IDs 0 to n-1.
+ *
+ * <p>A graph keyed by IDs rather than words hashes and compares an int
+ * wherever it would hash and compare a String. Implementations are
+ * thread-safe.
+ */
+interface TokenDictionary {
+
+    /**
+     * @param word a word
+     * @return the ID of word, or null if it is not in this dictionary
+     */
+    Integer id(String word);
+
+    /**
+     * @param id an ID of this dictionary, 0 <= id < size()
+     * @return the word with that ID
+     */
+    String word(int id);
+
+    /**
+     * @return the number of words in this dictionary
+     */
+    int size();
+
+    /**
+     * Get the dictionary of the labels of a snapshot, whose IDs are the
+     * vertex IDs of the snapshot.
+     *
+     * @param snapshot a snapshot; its labels are looked up and decoded on
+     *                 every call, never copied
+     * @return a read-only dictionary of the labels of snapshot
+     */
+    static TokenDictionary of(MappedGraph snapshot) {
+        return new TokenDictionary() {
+            @Override
+            public Integer id(String word) {
+                int id = snapshot.id(word);
+                return id < 0 ? null : id;
+            }
+
+            @Override
+            public String word(int id) {
+                return snapshot.label(id);
+            }
+
+            @Override
+            public int size() {
+                return snapshot.vertexCount();
+            }
+
+            @Override
+            public String toString() {
+                return "TokenDictionary of " + snapshot;
+            }
+        };
+    }
+}
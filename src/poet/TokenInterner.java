@@ -0,0 +1,91 @@
+package poet;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A growing dictionary that gives each new word the next ID as it is
+ * interned. Any number of threads may look words and IDs up while another
+ * interns new ones.
+ *
+ * <p>IDs are handed out as canonical Integer instances: an ID is always the
+ * same object, so a graph keyed by IDs boxes nothing and holds one Integer
+ * per word, however many edges it has.
+ */
+class TokenInterner implements TokenDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] words = new String[16];
+    private volatile int size = 0;
+
+    // Abstraction function:
+    //   AF(ids, words, size) = the dictionary in which words[i] has ID i,
+    //     for 0 <= i < size
+    // Representation invariant:
+    //   ids.size() == size <= words.length
+    //   ids.get(words[i]) == i for 0 <= i < size, and is the only Integer
+    //     instance of i that this dictionary hands out
+    // Safety from rep exposure:
+    //   all fields are private; words is never returned, and Strings and
+    //   Integers are immutable.
+    // Thread safety argument:
+    //   intern adds new words while holding the lock on this, so one thread
+    //   at a time grows words and size. It stores a word in words, and
+    //   publishes any new array, before putting the word's ID in ids, so a
+    //   thread that has found an ID in ids, or read it from a graph built
+    //   after intern returned, finds the word in the current words array.
+
+    private void checkRep() {
+        assert ids.size() == size && size <= words.length;
+    }
+
+    /**
+     * Get the ID of a word, adding the word with the next ID if it is new.
+     *
+     * @param word a word
+     * @return the ID of word
+     */
+    Integer intern(String word) {
+        Integer id = ids.get(word);
+        return id != null ? id : add(word);
+    }
+
+    private synchronized Integer add(String word) {
+        Integer id = ids.get(word);
+        if (id != null) {
+            return id;
+        }
+        String[] current = words;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, 2 * size);
+            words = current;
+        }
+        id = size;
+        current[id] = word;
+        size = id + 1;
+        ids.put(word, id);
+        checkRep();
+        return id;
+    }
+
+    @Override
+    public Integer id(String word) {
+        return ids.get(word);
+    }
+
+    @Override
+    public String word(int id) {
+        return words[id];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenInterner of " + size + " words";
+    }
+}
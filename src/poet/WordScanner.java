@@ -0,0 +1,123 @@
+package poet;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a stream of text into lowercase words, reading through a fixed-size
+ * buffer so that the text is never held in memory all at once.
+ *
+ * <p>Words are separated by runs of the characters matched by the regular
+ * expression {@code \s}, and words made only of other whitespace are
+ * skipped, so the words produced are the same as splitting the whole text
+ * with {@code split("\\s+")} and dropping blank strings.
+ */
+class WordScanner {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private final StringBuilder word = new StringBuilder();
+
+    // Abstraction function:
+    //   AF(reader, buffer, position, limit) = the text still to be scanned,
+    //     which is buffer[position..limit) followed by the unread remainder
+    //     of reader.
+    // Representation invariant:
+    //   0 <= position <= limit <= buffer.length, and buffer.length > 0
+    //   word is empty between calls to next()
+    // Safety from rep exposure:
+    //   all fields are private; next() returns immutable Strings.
+
+    /**
+     * Create a scanner over the given text.
+     *
+     * @param reader text to scan; the caller remains responsible for closing it
+     */
+    WordScanner(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a scanner over the given text with a particular buffer size.
+     *
+     * @param reader text to scan; the caller remains responsible for closing it
+     * @param bufferSize number of characters to read at a time, > 0
+     */
+    WordScanner(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert buffer.length > 0;
+        assert 0 <= position && position <= limit && limit <= buffer.length;
+        assert word.length() == 0;
+    }
+
+    /**
+     * Get the next word.
+     *
+     * @return the next word of the text, lowercased, or null if there are no
+     *         more words
+     * @throws IOException if the text cannot be read
+     */
+    String next() throws IOException {
+        while (true) {
+            // skip separators
+            while (true) {
+                if (position == limit && !fill()) {
+                    return null;
+                }
+                if (!isSeparator(buffer[position])) {
+                    break;
+                }
+                position++;
+            }
+            // collect the word, which may span several buffer fills
+            boolean blank = true;
+            while (position < limit || fill()) {
+                char c = buffer[position];
+                if (isSeparator(c)) {
+                    break;
+                }
+                blank &= Character.isWhitespace(c);
+                word.append(c);
+                position++;
+            }
+            String next = word.toString();
+            word.setLength(0);
+            checkRep();
+            if (!blank) {
+                return next.toLowerCase();
+            }
+        }
+    }
+
+    /**
+     * Refill the buffer from the reader.
+     *
+     * @return true if at least one character was read, false at end of text
+     */
+    private boolean fill() throws IOException {
+        int count;
+        do {
+            count = reader.read(buffer, 0, buffer.length);
+        } while (count == 0);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c is matched by the regular expression \s
+     */
+    static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
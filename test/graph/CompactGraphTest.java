@@ -0,0 +1,141 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for CompactGraph.
+ */
+public class CompactGraphTest {
+    
+    // Testing strategy
+    //   copyOf: empty graph; graph with isolated vertices, self-loops,
+    //           vertices with many targets and sources; a CompactGraph
+    //   Graph queries: label present or absent
+    //   int accessors: neighbours ordered by ID, weight of present and
+    //           absent edges
+    //   weight, forEachTarget, forEachSource: agree with the original graph
+    //   mutators: always throw
+    
+    private static Graph<String> sample() {
+        Graph<String> graph = new HashGraph<>();
+        graph.add("lonely");
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        graph.set("a", "d", 3);
+        graph.set("b", "d", 4);
+        graph.set("c", "d", 5);
+        graph.set("d", "d", 6);
+        return graph;
+    }
+    
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+    
+    @Test
+    public void testCopyOfEmpty() {
+        CompactGraph<String> graph = CompactGraph.copyOf(new HashGraph<>());
+        assertEquals(0, graph.vertexCount());
+        assertEquals(0, graph.edgeCount());
+        assertEquals(Collections.emptySet(), graph.vertices());
+        assertEquals(Collections.emptyMap(), graph.targets("a"));
+        assertEquals(-1, graph.id("a"));
+    }
+    
+    @Test
+    public void testCopyOfMatchesOriginal() {
+        Graph<String> original = sample();
+        CompactGraph<String> graph = CompactGraph.copyOf(original);
+        assertEquals(original.vertices(), graph.vertices());
+        assertEquals(6, graph.edgeCount());
+        for (String vertex : original.vertices()) {
+            assertEquals(original.targets(vertex), graph.targets(vertex));
+            assertEquals(original.sources(vertex), graph.sources(vertex));
+        }
+        assertEquals(Collections.emptyMap(), graph.sources("missing"));
+    }
+    
+    @Test
+    public void testIntAccessors() {
+        CompactGraph<String> graph = CompactGraph.copyOf(sample());
+        int a = graph.id("a");
+        int d = graph.id("d");
+        assertEquals("a", graph.label(a));
+        assertEquals(3, graph.outDegree(a));
+        assertEquals(4, graph.inDegree(d));
+        for (int i = 1; i < graph.outDegree(a); i++) {
+            assertTrue("expected targets in ID order", graph.target(a, i - 1) < graph.target(a, i));
+        }
+        for (int i = 1; i < graph.inDegree(d); i++) {
+            assertTrue("expected sources in ID order", graph.source(d, i - 1) < graph.source(d, i));
+        }
+        int total = 0;
+        for (int i = 0; i < graph.inDegree(d); i++) {
+            total += graph.sourceWeight(d, i);
+        }
+        assertEquals(3 + 4 + 5 + 6, total);
+        assertEquals(3, graph.weight(a, d));
+        assertEquals(6, graph.weight(d, d));
+        assertEquals(0, graph.weight(d, a));
+        assertEquals(0, graph.outDegree(graph.id("lonely")));
+    }
+    
+    @Test
+    public void testCopyIsIndependentOfOriginal() {
+        Graph<String> original = sample();
+        CompactGraph<String> graph = CompactGraph.copyOf(original);
+        original.set("a", "b", 0);
+        original.remove("c");
+        assertEquals(Map.of("b", 1, "c", 2, "d", 3), graph.targets("a"));
+        assertEquals(Set.of("a", "b", "c", "d", "lonely"), graph.vertices());
+    }
+    
+    @Test
+    public void testCopyOfCompactGraphIsSame() {
+        CompactGraph<String> graph = CompactGraph.copyOf(sample());
+        assertSame(graph, CompactGraph.copyOf(graph));
+    }
+    
+    @Test
+    public void testVisitorsMatchMaps() {
+        Graph<String> original = sample();
+        CompactGraph<String> graph = CompactGraph.copyOf(original);
+        for (String vertex : original.vertices()) {
+            Map<String, Integer> targets = new HashMap<>();
+            graph.forEachTarget(vertex, targets::put);
+            assertEquals(original.targets(vertex), targets);
+            Map<String, Integer> sources = new HashMap<>();
+            graph.forEachSource(vertex, sources::put);
+            assertEquals(original.sources(vertex), sources);
+            for (String other : original.vertices()) {
+                assertEquals(original.targets(vertex).getOrDefault(other, 0).intValue(),
+                        graph.weight(vertex, other));
+            }
+        }
+        assertEquals(0, graph.weight("missing", "a"));
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddUnsupported() {
+        CompactGraph.copyOf(sample()).add("e");
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetUnsupported() {
+        CompactGraph.copyOf(sample()).set("a", "b", 2);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveUnsupported() {
+        CompactGraph.copyOf(sample()).remove("a");
+    }
+    
+}
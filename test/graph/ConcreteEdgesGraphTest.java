@@ -1,8 +1,13 @@
+package graph;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -10,11 +15,11 @@ import org.junit.jupiter.api.Test;
 
 public class ConcreteEdgesGraphTest {
 
-    private ConcreteEdgesGraph graph;
+    private ConcreteEdgesGraph<String> graph;
 
     @BeforeEach
     public void setUp() {
-        graph = new ConcreteEdgesGraph();
+        graph = new ConcreteEdgesGraph<>();
     }
 
     @Test
@@ -97,4 +102,46 @@ public class ConcreteEdgesGraphTest {
         // The original graph should not contain "B"
         assertFalse(graph.vertices().contains("B"));
     }
+
+    @Test
+    public void testSetAllMatchesSet() {
+        // One pass over an existing graph agrees with a set per edge,
+        // including updates, removals and repeats of the same edge
+        Random random = new Random(3);
+        ConcreteEdgesGraph<String> replay = new ConcreteEdgesGraph<>();
+        for (int i = 0; i < 50; i++) {
+            String source = "v" + random.nextInt(10);
+            String target = "v" + random.nextInt(10);
+            graph.set(source, target, 1 + i);
+            replay.set(source, target, 1 + i);
+        }
+        List<WeightedEdge<String>> edges = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            WeightedEdge<String> edge = new WeightedEdge<>(
+                    "v" + random.nextInt(12), "v" + random.nextInt(12), random.nextInt(3));
+            edges.add(edge);
+            replay.set(edge.source(), edge.target(), edge.weight());
+        }
+        graph.setAll(edges);
+        assertEquals(replay.vertices(), graph.vertices());
+        for (String vertex : replay.vertices()) {
+            assertEquals(replay.targets(vertex), graph.targets(vertex));
+            assertEquals(replay.sources(vertex), graph.sources(vertex));
+        }
+    }
+
+    @Test
+    public void testIntegerLabels() {
+        // Labels of any immutable type work, not only strings
+        ConcreteEdgesGraph<Integer> numbers = new ConcreteEdgesGraph<>();
+        assertEquals(0, numbers.set(1, 2, 3));
+        assertEquals(0, numbers.addWeight(2, 1, 4));
+        assertEquals(3, numbers.addWeight(1, 2, 1));
+        assertEquals(Set.of(1, 2), numbers.vertices());
+        assertEquals(Map.of(2, 4), numbers.targets(1));
+        assertEquals(Map.of(1, 4), numbers.sources(2));
+        assertEquals(4, numbers.weight(2, 1));
+        assertTrue(numbers.remove(2));
+        assertEquals(Map.of(), numbers.targets(1));
+    }
 }
@@ -1,3 +1,5 @@
+package graph;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -8,11 +10,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class ConcreteVerticesGraphTest {
 
-    private ConcreteVerticesGraph graph;
+    private ConcreteVerticesGraph<String> graph;
 
     @BeforeEach
     public void setUp() {
-        graph = new ConcreteVerticesGraph();
+        graph = new ConcreteVerticesGraph<>();
     }
 
     @Test
@@ -42,6 +44,26 @@ public class ConcreteVerticesGraphTest {
         assertTrue(sources.isEmpty());  // No source for B anymore
     }
 
+    @Test
+    public void testSetFirstInsertReturnsZero() {
+        // A first insert between vertices not yet added returns 0 rather
+        // than unboxing a missing previous weight
+        assertEquals(0, graph.set("A", "B", 5));
+        assertEquals(0, graph.set("B", "A", 7));
+        assertEquals(5, graph.weight("A", "B"));
+    }
+
+    @Test
+    public void testSetZeroReturnsOldWeight() {
+        graph.set("A", "B", 5);
+        assertEquals(5, graph.set("A", "B", 0));
+        assertEquals(0, graph.weight("A", "B"));
+        // and removing a missing edge returns 0 and adds no vertices
+        assertEquals(0, graph.set("A", "B", 0));
+        assertEquals(0, graph.set("C", "D", 0));
+        assertEquals(Set.of("A", "B"), graph.vertices());
+    }
+
     @Test
     public void testRemoveVertex() {
         graph.add("A");
@@ -61,6 +83,21 @@ public class ConcreteVerticesGraphTest {
         assertFalse(graph.remove("C"));
     }
 
+    @Test
+    public void testRemoveVertexOfTwoCycle() {
+        // Edges both to and from the removed vertex: each neighbour must be
+        // checked only after both directions are cleaned up
+        graph.set("A", "B", 1);
+        graph.set("B", "A", 2);
+        graph.set("B", "C", 3);
+
+        assertTrue(graph.remove("A"));
+        assertEquals(Set.of("B", "C"), graph.vertices());
+        assertTrue(graph.sources("B").isEmpty());
+        assertEquals(Map.of("C", 3), graph.targets("B"));
+        assertEquals(0, graph.weight("B", "A"));
+    }
+
     @Test
     public void testSourcesAndTargets() {
         graph.add("A");
@@ -132,4 +169,19 @@ public class ConcreteVerticesGraphTest {
         Map<String, Integer> targets = graph.targets("A");
         assertTrue(targets.isEmpty());
     }
+
+    @Test
+    public void testIntegerLabels() {
+        // Labels of any immutable type work, not only strings
+        ConcreteVerticesGraph<Integer> numbers = new ConcreteVerticesGraph<>();
+        assertEquals(0, numbers.set(1, 2, 3));
+        assertEquals(0, numbers.addWeight(2, 1, 4));
+        assertEquals(3, numbers.addWeight(1, 2, 1));
+        assertEquals(Set.of(1, 2), numbers.vertices());
+        assertEquals(Map.of(2, 4), numbers.targets(1));
+        assertEquals(Map.of(1, 4), numbers.sources(2));
+        assertEquals(4, numbers.weight(2, 1));
+        assertTrue(numbers.remove(2));
+        assertEquals(Map.of(), numbers.targets(1));
+    }
 }
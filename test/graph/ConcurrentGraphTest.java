@@ -0,0 +1,210 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ *
+ * <p>This class runs the IndexedGraphInstanceTest tests against ConcurrentGraph, as well
+ * as the tests for that particular implementation.
+ */
+public class ConcurrentGraphTest extends IndexedGraphInstanceTest {
+
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public IndexedGraph<String> emptyInstance() {
+        return new ConcurrentGraph<>();
+    }
+
+    // Testing strategy for ConcurrentGraph
+    //   labels: String, non-String type
+    //   concurrency: writers on disjoint edges, writers on one shared edge,
+    //                mixed writers (add, set, remove) and readers on a small
+    //                shared vertex set; addWeight on one shared edge
+
+    private static final int THREADS = 8;
+
+    /**
+     * Run body on THREADS threads started together, and rethrow the first
+     * failure of any of them.
+     */
+    private static void runConcurrently(ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(index);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.peek());
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * Assert the Graph spec invariants: every edge has positive weight,
+     * connects two vertices, and appears identically from both ends.
+     */
+    private static void assertConsistent(Graph<String> graph) {
+        Set<String> vertices = graph.vertices();
+        for (String source : vertices) {
+            for (Map.Entry<String, Integer> edge : graph.targets(source).entrySet()) {
+                assertTrue(edge.getValue() > 0);
+                assertTrue(vertices.contains(edge.getKey()));
+                assertEquals(edge.getValue(), graph.sources(edge.getKey()).get(source));
+            }
+            for (Map.Entry<String, Integer> edge : graph.sources(source).entrySet()) {
+                assertTrue(vertices.contains(edge.getKey()));
+                assertEquals(edge.getValue(), graph.targets(edge.getKey()).get(source));
+            }
+        }
+    }
+
+    @Test
+    public void testNonStringLabels() {
+        Graph<Integer> graph = new ConcurrentGraph<>();
+        graph.set(1, 2, 5);
+        graph.set(2, 3, 6);
+        assertEquals(Map.of(2, 5), graph.targets(1));
+        assertEquals(Map.of(2, 6), graph.sources(3));
+    }
+
+    @Test
+    public void testDisjointWritersSeeOwnHistory() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        runConcurrently(index -> {
+            String source = "s" + index;
+            String target = "t" + index;
+            int previous = 0;
+            for (int weight = 1; weight <= 2000; weight++) {
+                assertEquals(previous, graph.set(source, target, weight % 7));
+                previous = weight % 7;
+            }
+        });
+        assertEquals(2 * THREADS, graph.vertices().size());
+        assertConsistent(graph);
+    }
+
+    @Test
+    public void testSharedEdgeUpdatesFormOneHistory() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        int perThread = 5000;
+        ConcurrentLinkedQueue<int[]> updates = new ConcurrentLinkedQueue<>();
+        runConcurrently(index -> {
+            for (int i = 0; i < perThread; i++) {
+                int weight = index * perThread + i + 1;
+                updates.add(new int[] { graph.set("a", "b", weight), weight });
+            }
+        });
+        // linearizable: every weight written, except the last, is returned
+        // as the previous weight by exactly one other set
+        Set<Integer> written = new HashSet<>();
+        Set<Integer> replaced = new HashSet<>();
+        for (int[] update : updates) {
+            assertTrue(written.add(update[1]));
+            assertTrue("replaced twice: " + update[0], replaced.add(update[0]));
+        }
+        assertTrue(replaced.contains(0));
+        replaced.remove(0);
+        int last = graph.weight("a", "b");
+        assertTrue(written.remove(last));
+        assertEquals(written, replaced);
+        assertConsistent(graph);
+    }
+
+    @Test
+    public void testMixedWritersAndReaders() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        String[] labels = new String[12];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = "v" + i;
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch writers = new CountDownLatch(THREADS / 2);
+        runConcurrently(index -> {
+            SplittableRandom random = new SplittableRandom(index);
+            if (index % 2 == 0) {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        String source = labels[random.nextInt(labels.length)];
+                        String target = labels[random.nextInt(labels.length)];
+                        int op = random.nextInt(10);
+                        if (op == 0) {
+                            graph.remove(source);
+                        } else if (op == 1) {
+                            graph.add(source);
+                        } else {
+                            graph.set(source, target, random.nextInt(4));
+                        }
+                    }
+                } finally {
+                    writers.countDown();
+                    if (writers.getCount() == 0) {
+                        writing.set(false);
+                    }
+                }
+            } else {
+                while (writing.get()) {
+                    String vertex = labels[random.nextInt(labels.length)];
+                    for (int weight : graph.targets(vertex).values()) {
+                        assertTrue(weight > 0);
+                    }
+                    for (int weight : graph.sources(vertex).values()) {
+                        assertTrue(weight > 0);
+                    }
+                    graph.forEachTarget(vertex, (target, weight) -> assertTrue(weight > 0));
+                    graph.forEachSource(vertex, (source, weight) -> assertTrue(weight > 0));
+                    assertTrue(graph.weight(vertex, vertex) >= 0);
+                    assertTrue(graph.vertices().size() <= labels.length);
+                }
+            }
+        });
+        assertConsistent(graph);
+    }
+
+    @Test
+    public void testConcurrentAddWeightLosesNoUpdates() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        int perThread = 10000;
+        runConcurrently(index -> {
+            for (int i = 0; i < perThread; i++) {
+                graph.addWeight("a", "b", 1);
+                graph.addWeight("b", "a" + (i % 10), 1);
+            }
+        });
+        assertEquals(THREADS * perThread, graph.weight("a", "b"));
+        assertEquals(THREADS * perThread / 10, graph.weight("b", "a3"));
+        assertConsistent(graph);
+    }
+
+}
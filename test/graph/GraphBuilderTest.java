@@ -0,0 +1,202 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import graph.GraphBuilder.DuplicatePolicy;
+
+/**
+ * Tests for GraphBuilder and WeightedEdge.
+ */
+public class GraphBuilderTest {
+
+    // Testing strategy
+    //   addVertex: new, already added as a vertex, already an endpoint
+    //   addEdge: weight negative, zero, positive; edge new, repeated;
+    //            self-loop; SUM overflowing
+    //   addEdges: from an iterator, a stream; empty; overflow part way
+    //   policy: SUM, LAST_WRITE_WINS; last weight zero, positive
+    //   build: HashGraph, each other mutable implementation, CompactGraph;
+    //          no edges, one, many (past the initial table capacity)
+    //   all: agree with replaying addWeight or set over random edges
+    //   WeightedEdge: weight negative, zero, positive; null label; equals
+
+    private static final List<Supplier<IndexedGraph<String>>> IMPLEMENTATIONS = List.of(
+            HashGraph::new, ConcurrentGraph::new, ConcreteEdgesGraph::new,
+            ConcreteVerticesGraph::new, LabeledIntGraph::new, OffHeapGraph::new);
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals("expected same vertices", expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("expected same targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals("expected same sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        GraphBuilder<String> builder = new GraphBuilder<>(DuplicatePolicy.SUM);
+        assertEquals("expected no vertices", Collections.emptySet(), builder.build().vertices());
+        assertEquals("expected no vertices", Collections.emptySet(), builder.buildCompact().vertices());
+    }
+
+    @Test
+    public void testAddVertex() {
+        GraphBuilder<String> builder = new GraphBuilder<String>(DuplicatePolicy.SUM)
+                .addVertex("a").addVertex("a").addEdge("b", "c", 1).addVertex("b");
+        Graph<String> graph = builder.build();
+        assertEquals("expected vertices", Set.of("a", "b", "c"), graph.vertices());
+        assertEquals("expected one edge", Map.of("c", 1), graph.targets("b"));
+        assertEquals("expected no edges", Collections.emptyMap(), graph.targets("a"));
+    }
+
+    @Test
+    public void testSumPolicy() {
+        Graph<String> graph = new GraphBuilder<String>(DuplicatePolicy.SUM)
+                .addEdge("a", "b", 2).addEdge("a", "b", 3).addEdge("a", "a", 1).addEdge("b", "a", 4)
+                .addEdge("a", "b", 0)
+                .build();
+        assertEquals("expected summed weights", Map.of("a", 1, "b", 5), graph.targets("a"));
+        assertEquals("expected one edge", Map.of("a", 4), graph.targets("b"));
+    }
+
+    @Test
+    public void testLastWriteWinsPolicy() {
+        Graph<String> graph = new GraphBuilder<String>(DuplicatePolicy.LAST_WRITE_WINS)
+                .addEdge("a", "b", 2).addEdge("a", "b", 3)
+                .addEdge("a", "c", 5).addEdge("a", "c", 0)
+                .build();
+        assertEquals("expected last weights", Map.of("b", 3), graph.targets("a"));
+        assertEquals("expected removed edge to leave its endpoints", Set.of("a", "b", "c"), graph.vertices());
+    }
+
+    @Test
+    public void testZeroWeightsAddNoVertices() {
+        Graph<String> graph = new GraphBuilder<String>(DuplicatePolicy.LAST_WRITE_WINS)
+                .addEdge("a", "b", 0).addEdge("a", "c", 1)
+                .build();
+        assertEquals("expected only endpoints of positive edges", Set.of("a", "c"), graph.vertices());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddEdgeNegativeWeight() {
+        new GraphBuilder<String>(DuplicatePolicy.SUM).addEdge("a", "b", -1);
+    }
+
+    @Test
+    public void testSumOverflowLeavesEdgeUnchanged() {
+        GraphBuilder<String> builder = new GraphBuilder<String>(DuplicatePolicy.SUM)
+                .addEdge("a", "b", Integer.MAX_VALUE);
+        try {
+            builder.addEdge("a", "b", 1);
+            fail("expected overflow");
+        } catch (ArithmeticException e) {
+            // expected
+        }
+        assertEquals("expected unchanged weight", Integer.MAX_VALUE, builder.build().set("a", "b", 0));
+    }
+
+    @Test
+    public void testAddEdgesIteratorAndStream() {
+        List<WeightedEdge<String>> edges = List.of(
+                new WeightedEdge<>("a", "b", 1), new WeightedEdge<>("b", "c", 2), new WeightedEdge<>("a", "b", 3));
+        Graph<String> fromIterator = new GraphBuilder<String>(DuplicatePolicy.SUM)
+                .addEdges(edges.iterator()).build();
+        Graph<String> fromStream = new GraphBuilder<String>(DuplicatePolicy.SUM)
+                .addEdges(edges.stream()).build();
+        assertEquals("expected summed weights", Map.of("b", 4), fromIterator.targets("a"));
+        assertSameGraph(fromIterator, fromStream);
+        Graph<String> empty = new GraphBuilder<String>(DuplicatePolicy.SUM)
+                .addEdges(Stream.empty()).build();
+        assertEquals("expected no vertices", Collections.emptySet(), empty.vertices());
+    }
+
+    @Test
+    public void testAddEdgesOverflowPartWay() {
+        GraphBuilder<String> builder = new GraphBuilder<>(DuplicatePolicy.SUM);
+        try {
+            builder.addEdges(Stream.of(new WeightedEdge<>("a", "b", Integer.MAX_VALUE),
+                    new WeightedEdge<>("a", "b", 1), new WeightedEdge<>("b", "c", 1)));
+            fail("expected overflow");
+        } catch (ArithmeticException e) {
+            // expected
+        }
+        Graph<String> graph = builder.build();
+        assertEquals("expected edges before the overflow", Set.of("a", "b"), graph.vertices());
+    }
+
+    @Test
+    public void testBuildEachImplementationMatchesReplay() {
+        for (DuplicatePolicy policy : DuplicatePolicy.values()) {
+            for (long seed = 0; seed < 5; seed++) {
+                Random random = new Random(seed);
+                GraphBuilder<String> builder = new GraphBuilder<>(policy);
+                HashGraph<String> replay = new HashGraph<>();
+                for (int i = 0; i < 40; i++) {
+                    String vertex = "v" + random.nextInt(60);
+                    builder.addVertex(vertex);
+                    replay.add(vertex);
+                }
+                for (int i = 0; i < 500; i++) {
+                    String source = "v" + random.nextInt(60);
+                    String target = "v" + random.nextInt(60);
+                    int weight = random.nextInt(4);
+                    builder.addEdge(source, target, weight);
+                    if (policy == DuplicatePolicy.SUM) {
+                        replay.addWeight(source, target, weight);
+                    } else {
+                        replay.set(source, target, weight);
+                    }
+                }
+                for (Supplier<IndexedGraph<String>> implementation : IMPLEMENTATIONS) {
+                    assertSameGraph(replay, builder.build(implementation));
+                }
+                assertSameGraph(replay, builder.buildCompact());
+            }
+        }
+    }
+
+    @Test
+    public void testBuildTwice() {
+        GraphBuilder<String> builder = new GraphBuilder<String>(DuplicatePolicy.SUM).addEdge("a", "b", 1);
+        Graph<String> first = builder.build();
+        first.set("a", "b", 0);
+        builder.addEdge("a", "b", 1);
+        assertEquals("expected builder unaffected by built graph", Map.of("b", 2), builder.build().targets("a"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWeightedEdgeNegativeWeight() {
+        new WeightedEdge<>("a", "b", -1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWeightedEdgeNullLabel() {
+        new WeightedEdge<>("a", null, 1);
+    }
+
+    @Test
+    public void testWeightedEdgeObservers() {
+        WeightedEdge<String> edge = new WeightedEdge<>("a", "b", 0);
+        assertEquals("expected source", "a", edge.source());
+        assertEquals("expected target", "b", edge.target());
+        assertEquals("expected weight", 0, edge.weight());
+        assertEquals("expected equal edges", new WeightedEdge<>("a", "b", 0), edge);
+        assertEquals("expected equal hash codes", new WeightedEdge<>("a", "b", 0).hashCode(), edge.hashCode());
+        assertNotEquals("expected different weights unequal", new WeightedEdge<>("a", "b", 1), edge);
+    }
+}
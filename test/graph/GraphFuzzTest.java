@@ -0,0 +1,358 @@
+package graph;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ * Differential fuzz tests for the mutable Graph implementations.
+ *
+ * <p>Each run replays a random sequence of operations against one
+ * implementation and against a simple reference model, and fails at the
+ * first operation whose result or effect differs. The failure message names
+ * the implementation, the seed, and the operations leading up to the
+ * divergence.
+ *
+ * <p>If the system property {@code graph.fuzz.seconds} is set, testSoak
+ * also runs every implementation for about that many seconds and prints the
+ * throughput of its operations, not counting the model and the checks;
+ * {@code gradle soak} does this.
+ */
+public class GraphFuzzTest {
+
+    // Testing strategy
+    //   implementations: HashGraph, ConcurrentGraph, ConcreteEdgesGraph,
+    //           ConcreteVerticesGraph, LabeledIntGraph, OffHeapGraph;
+    //           CompactGraph copies of the final state
+    //   operations: add, set, remove, addWeight, on present and absent
+    //           vertices and edges, self-loops
+    //   set: weight zero, small, large
+    //   addWeight: delta negative, zero, positive; sum negative, zero,
+    //           positive, overflowing
+    //   labels: few (dense graph, many repeated edges), many (sparse graph)
+
+    private static final int HISTORY = 16;
+    private static final int FULL_CHECK_INTERVAL = 256;
+    private static final int SOAK_RUN = 20_000;
+    private static final long SOAK_SECONDS = Long.getLong("graph.fuzz.seconds", 0);
+
+    private static final Map<String, Supplier<IndexedGraph<String>>> IMPLEMENTATIONS = Map.of(
+            "HashGraph", HashGraph::new,
+            "ConcurrentGraph", ConcurrentGraph::new,
+            "ConcreteEdgesGraph", ConcreteEdgesGraph::new,
+            "ConcreteVerticesGraph", ConcreteVerticesGraph::new,
+            "LabeledIntGraph", LabeledIntGraph::new,
+            "OffHeapGraph", OffHeapGraph::new);
+
+    /*
+     * Reference model: the obvious implementation of the Graph spec, with
+     * no indexes to keep consistent.
+     */
+    private static final class Model {
+        private final Map<String, Map<String, Integer>> targets = new HashMap<>();
+
+        boolean add(String vertex) {
+            return targets.putIfAbsent(vertex, new HashMap<>()) == null;
+        }
+
+        int set(String source, String target, int weight) {
+            Integer previous;
+            if (weight == 0) {
+                Map<String, Integer> edges = targets.get(source);
+                previous = edges == null ? null : edges.remove(target);
+            } else {
+                add(source);
+                add(target);
+                previous = targets.get(source).put(target, weight);
+            }
+            return previous == null ? 0 : previous;
+        }
+
+        int addWeight(String source, String target, int delta) {
+            int previous = weight(source, target);
+            int weight = Math.addExact(previous, delta);
+            if (weight < 0) {
+                throw new IllegalArgumentException();
+            }
+            set(source, target, weight);
+            return previous;
+        }
+
+        boolean remove(String vertex) {
+            if (targets.remove(vertex) == null) {
+                return false;
+            }
+            for (Map<String, Integer> edges : targets.values()) {
+                edges.remove(vertex);
+            }
+            return true;
+        }
+
+        Set<String> vertices() {
+            return targets.keySet();
+        }
+
+        Map<String, Integer> targets(String source) {
+            return targets.getOrDefault(source, Collections.emptyMap());
+        }
+
+        Map<String, Integer> sources(String target) {
+            Map<String, Integer> sources = new HashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> entry : targets.entrySet()) {
+                Integer weight = entry.getValue().get(target);
+                if (weight != null) {
+                    sources.put(entry.getKey(), weight);
+                }
+            }
+            return sources;
+        }
+
+        int weight(String source, String target) {
+            return targets(source).getOrDefault(target, 0);
+        }
+    }
+
+    private enum Kind { ADD, SET, REMOVE, ADD_WEIGHT }
+
+    /*
+     * One operation of a fuzz run.
+     */
+    private static final class Op {
+        private final Kind kind;
+        private final String source;
+        private final String target;
+        private final int value;
+
+        Op(Kind kind, String source, String target, int value) {
+            this.kind = kind;
+            this.source = source;
+            this.target = target;
+            this.value = value;
+        }
+
+        static Op random(SplittableRandom random, String[] labels) {
+            String source = labels[random.nextInt(labels.length)];
+            String target = random.nextInt(8) == 0 ? source : labels[random.nextInt(labels.length)];
+            int roll = random.nextInt(100);
+            if (roll < 5) {
+                return new Op(Kind.ADD, source, null, 0);
+            } else if (roll < 10) {
+                return new Op(Kind.REMOVE, source, null, 0);
+            } else if (roll < 55) {
+                return new Op(Kind.SET, source, target, weight(random));
+            } else {
+                return new Op(Kind.ADD_WEIGHT, source, target, delta(random));
+            }
+        }
+
+        private static int weight(SplittableRandom random) {
+            int roll = random.nextInt(20);
+            return roll < 6 ? 0 : roll == 19 ? Integer.MAX_VALUE : random.nextInt(1, 5);
+        }
+
+        private static int delta(SplittableRandom random) {
+            int roll = random.nextInt(40);
+            if (roll == 0) {
+                return Integer.MAX_VALUE;
+            } else if (roll == 1) {
+                return Integer.MIN_VALUE;
+            }
+            return random.nextInt(-3, 4);
+        }
+
+        Object apply(IndexedGraph<String> graph) {
+            try {
+                switch (kind) {
+                case ADD: return graph.add(source);
+                case SET: return graph.set(source, target, value);
+                case REMOVE: return graph.remove(source);
+                case ADD_WEIGHT: return graph.addWeight(source, target, value);
+                default: throw new AssertionError(kind);
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return e.getClass();
+            }
+        }
+
+        Object apply(Model model) {
+            try {
+                switch (kind) {
+                case ADD: return model.add(source);
+                case SET: return model.set(source, target, value);
+                case REMOVE: return model.remove(source);
+                case ADD_WEIGHT: return model.addWeight(source, target, value);
+                default: throw new AssertionError(kind);
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return e.getClass();
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+            case ADD: return "add(" + source + ")";
+            case REMOVE: return "remove(" + source + ")";
+            case SET: return "set(" + source + ", " + target + ", " + value + ")";
+            default: return "addWeight(" + source + ", " + target + ", " + value + ")";
+            }
+        }
+    }
+
+    /*
+     * Thrown out of a run with the context needed to reproduce it.
+     */
+    private static AssertionError divergence(String name, long seed, int labels,
+            long step, Op[] history, Throwable cause) {
+        // step is the last operation run, or -1 if there was none
+        List<Op> recent = new ArrayList<>();
+        for (long i = Math.max(0, step - HISTORY + 1); i <= step; i++) {
+            recent.add(history[(int) (i % HISTORY)]);
+        }
+        return new AssertionError(name + " diverged from the model at step " + step
+                + " (seed " + seed + ", " + labels + " labels); last operations: " + recent,
+                cause);
+    }
+
+    private static String[] labels(int count) {
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = "v" + i;
+        }
+        return labels;
+    }
+
+    /**
+     * Run steps random operations against a new graph from factory and
+     * against the model.
+     *
+     * @return total nanoseconds spent in the graph's own operations
+     */
+    private static long run(String name, Supplier<IndexedGraph<String>> factory,
+            long seed, int labelCount, long steps) {
+        IndexedGraph<String> graph = factory.get();
+        Model model = new Model();
+        String[] labels = labels(labelCount);
+        SplittableRandom random = new SplittableRandom(seed);
+        Op[] history = new Op[HISTORY];
+        long step = -1;
+        long nanos = 0;
+        try {
+            while (step + 1 < steps) {
+                step++;
+                Op op = Op.random(random, labels);
+                history[(int) (step % HISTORY)] = op;
+                Object expected = op.apply(model);
+                long start = System.nanoTime();
+                Object actual = op.apply(graph);
+                nanos += System.nanoTime() - start;
+                assertEquals("result", expected, actual);
+                assertSameVertex(model, graph, op.source);
+                if (op.target != null) {
+                    assertSameVertex(model, graph, op.target);
+                }
+                if (step % FULL_CHECK_INTERVAL == 0) {
+                    assertSameGraph(model, graph);
+                }
+            }
+            assertSameGraph(model, graph);
+            assertSameGraph(model, CompactGraph.copyOf(graph));
+        } catch (AssertionError | RuntimeException e) {
+            throw divergence(name, seed, labelCount, step, history, e);
+        }
+        return nanos;
+    }
+
+    private static void assertSameVertex(Model model, IndexedGraph<String> graph, String vertex) {
+        assertEquals("vertex " + vertex, model.vertices().contains(vertex),
+                graph.vertices().contains(vertex));
+        assertEquals("targets(" + vertex + ")", model.targets(vertex), graph.targets(vertex));
+        assertEquals("sources(" + vertex + ")", model.sources(vertex), graph.sources(vertex));
+        Map<String, Integer> visited = new HashMap<>();
+        graph.forEachTarget(vertex, (target, weight) -> assertNull(visited.put(target, weight)));
+        assertEquals("forEachTarget(" + vertex + ")", model.targets(vertex), visited);
+        visited.clear();
+        graph.forEachSource(vertex, (source, weight) -> assertNull(visited.put(source, weight)));
+        assertEquals("forEachSource(" + vertex + ")", model.sources(vertex), visited);
+        for (String target : model.targets(vertex).keySet()) {
+            assertEquals("weight(" + vertex + ", " + target + ")",
+                    model.weight(vertex, target), graph.weight(vertex, target));
+        }
+    }
+
+    private static void assertSameGraph(Model model, IndexedGraph<String> graph) {
+        assertEquals("vertices", model.vertices(), graph.vertices());
+        for (String vertex : model.vertices()) {
+            assertSameVertex(model, graph, vertex);
+        }
+    }
+
+    @Test
+    public void testFewLabels() {
+        for (Map.Entry<String, Supplier<IndexedGraph<String>>> entry : IMPLEMENTATIONS.entrySet()) {
+            for (long seed = 0; seed < 20; seed++) {
+                run(entry.getKey(), entry.getValue(), seed, 6, 2000);
+            }
+        }
+    }
+
+    @Test
+    public void testManyLabels() {
+        for (Map.Entry<String, Supplier<IndexedGraph<String>>> entry : IMPLEMENTATIONS.entrySet()) {
+            for (long seed = 0; seed < 4; seed++) {
+                run(entry.getKey(), entry.getValue(), seed, 200, 5000);
+            }
+        }
+    }
+
+    @Test
+    public void testModelAgreesWithHandWrittenCases() {
+        // guard against a model that agrees with the implementations because
+        // it shares their bugs
+        Model model = new Model();
+        model.add("a");
+        assertEquals(0, model.set("a", "b", 0));
+        assertEquals(Set.of("a"), model.vertices());
+        assertEquals(0, model.addWeight("a", "b", 2));
+        assertEquals(2, model.set("a", "b", 5));
+        assertEquals(Map.of("a", 5), model.sources("b"));
+        assertEquals(5, model.addWeight("a", "b", -5));
+        assertEquals(Collections.emptyMap(), model.targets("a"));
+        assertEquals(Set.of("a", "b"), model.vertices());
+        model.set("b", "a", 1);
+        assertTrue(model.remove("b"));
+        assertEquals(Collections.emptyMap(), model.sources("a"));
+        assertEquals(Set.of("a"), model.vertices());
+    }
+
+    @Test
+    public void testSoak() {
+        assumeTrue("set graph.fuzz.seconds to run", SOAK_SECONDS > 0);
+        for (Map.Entry<String, Supplier<IndexedGraph<String>>> entry : IMPLEMENTATIONS.entrySet()) {
+            long start = System.nanoTime();
+            long deadline = start + SOAK_SECONDS * 1_000_000_000L;
+            long operations = 0;
+            long nanos = 0;
+            for (long seed = 1000; System.nanoTime() < deadline; seed++) {
+                // a fresh graph of SOAK_RUN operations each time, alternating
+                // dense and sparse
+                operations += SOAK_RUN;
+                nanos += run(entry.getKey(), entry.getValue(), seed,
+                        seed % 2 == 0 ? 16 : 500, SOAK_RUN);
+            }
+            System.out.printf("%-22s %,12d operations, %,8.0f ns/operation, %,.0f operations/s%n",
+                    entry.getKey(), operations, (double) nanos / operations, operations * 1e9 / nanos);
+        }
+    }
+
+}
@@ -6,6 +6,8 @@ package graph;
 import static org.junit.Assert.*;
 
 import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 
@@ -20,7 +22,13 @@ import org.junit.Test;
 public abstract class GraphInstanceTest {
     
     // Testing strategy
-    //   TODO
+    //   add: vertex new, vertex already present
+    //   set: weight zero or positive; edge absent or present;
+    //        source and target present or absent; source == target
+    //   remove: vertex present or absent; vertex with incoming, outgoing,
+    //           or self-loop edges
+    //   vertices, sources, targets: result empty or not; result mutated by
+    //           the client
     
     /**
      * Overridden by implementation-specific test classes.
@@ -41,6 +49,98 @@ public abstract class GraphInstanceTest {
                 Collections.emptySet(), emptyInstance().vertices());
     }
     
-    // TODO other tests for instance methods of Graph
+    @Test
+    public void testAddNewAndExistingVertex() {
+        Graph<String> graph = emptyInstance();
+        assertTrue("expected new vertex to be added", graph.add("a"));
+        assertFalse("expected existing vertex not to be added", graph.add("a"));
+        assertEquals(Set.of("a"), graph.vertices());
+    }
+    
+    @Test
+    public void testSetAddsEdgeAndVertices() {
+        Graph<String> graph = emptyInstance();
+        assertEquals("expected no previous edge", 0, graph.set("a", "b", 3));
+        assertEquals(Set.of("a", "b"), graph.vertices());
+        assertEquals(Map.of("b", 3), graph.targets("a"));
+        assertEquals(Map.of("a", 3), graph.sources("b"));
+        assertEquals(Collections.emptyMap(), graph.targets("b"));
+        assertEquals(Collections.emptyMap(), graph.sources("a"));
+    }
+    
+    @Test
+    public void testSetUpdatesWeight() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 3);
+        assertEquals("expected previous weight", 3, graph.set("a", "b", 7));
+        assertEquals(Map.of("b", 7), graph.targets("a"));
+        assertEquals(Map.of("a", 7), graph.sources("b"));
+    }
+    
+    @Test
+    public void testSetZeroRemovesEdgeOnly() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 3);
+        assertEquals("expected previous weight", 3, graph.set("a", "b", 0));
+        assertEquals(Set.of("a", "b"), graph.vertices());
+        assertEquals(Collections.emptyMap(), graph.targets("a"));
+        assertEquals(Collections.emptyMap(), graph.sources("b"));
+    }
+    
+    @Test
+    public void testSetZeroMissingEdgeLeavesGraphUnchanged() {
+        Graph<String> graph = emptyInstance();
+        graph.add("a");
+        assertEquals("expected no previous edge", 0, graph.set("a", "b", 0));
+        assertEquals(Set.of("a"), graph.vertices());
+    }
+    
+    @Test
+    public void testSelfLoop() {
+        Graph<String> graph = emptyInstance();
+        assertEquals(0, graph.set("a", "a", 2));
+        assertEquals(Map.of("a", 2), graph.targets("a"));
+        assertEquals(Map.of("a", 2), graph.sources("a"));
+        assertTrue(graph.remove("a"));
+        assertEquals(Collections.emptySet(), graph.vertices());
+    }
+    
+    @Test
+    public void testRemoveVertexRemovesIncidentEdges() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("c", "a", 3);
+        assertTrue("expected present vertex to be removed", graph.remove("b"));
+        assertFalse("expected absent vertex not to be removed", graph.remove("b"));
+        assertEquals(Set.of("a", "c"), graph.vertices());
+        assertEquals(Collections.emptyMap(), graph.targets("a"));
+        assertEquals(Collections.emptyMap(), graph.sources("c"));
+        assertEquals(Map.of("a", 3), graph.targets("c"));
+    }
+    
+    @Test
+    public void testQueriesOnAbsentVertex() {
+        Graph<String> graph = emptyInstance();
+        assertEquals(Collections.emptyMap(), graph.targets("a"));
+        assertEquals(Collections.emptyMap(), graph.sources("a"));
+    }
+    
+    @Test
+    public void testResultsAreNotRepExposure() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 1);
+        try {
+            graph.vertices().add("c");
+            graph.targets("a").put("c", 2);
+            graph.sources("b").put("c", 2);
+        } catch (UnsupportedOperationException e) {
+            // unmodifiable results are also safe
+        }
+        assertEquals(Set.of("a", "b"), graph.vertices());
+        assertEquals(Map.of("b", 1), graph.targets("a"));
+        assertEquals(Map.of("a", 1), graph.sources("b"));
+    }
+    
     
 }
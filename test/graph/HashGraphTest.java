@@ -0,0 +1,59 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for HashGraph.
+ * 
+ * <p>This class runs the IndexedGraphInstanceTest tests against HashGraph, as well
+ * as the tests for that particular implementation.
+ */
+public class HashGraphTest extends IndexedGraphInstanceTest {
+    
+    /*
+     * Provide a HashGraph for tests in GraphInstanceTest.
+     */
+    @Override public IndexedGraph<String> emptyInstance() {
+        return new HashGraph<>();
+    }
+    
+    // Testing strategy for HashGraph
+    //   labels: String, non-String type
+    //   remove: vertex whose neighbours keep other edges
+    //   Graph.empty(): returns a working graph
+    
+    @Test
+    public void testNonStringLabels() {
+        Graph<Integer> graph = new HashGraph<>();
+        graph.set(1, 2, 5);
+        graph.set(2, 3, 6);
+        assertEquals(Map.of(2, 5), graph.targets(1));
+        assertEquals(Map.of(2, 6), graph.sources(3));
+    }
+    
+    @Test
+    public void testRemoveKeepsUnrelatedEdges() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 1);
+        graph.set("c", "b", 2);
+        graph.set("b", "d", 3);
+        graph.set("c", "d", 4);
+        graph.remove("b");
+        assertEquals(Set.of("a", "c", "d"), graph.vertices());
+        assertEquals(Map.of("d", 4), graph.targets("c"));
+        assertEquals(Map.of("c", 4), graph.sources("d"));
+    }
+    
+    @Test
+    public void testEmptyReturnsWorkingGraph() {
+        Graph<String> graph = Graph.empty();
+        assertEquals(0, graph.set("a", "b", 1));
+        assertEquals(Map.of("b", 1), graph.targets("a"));
+    }
+    
+}
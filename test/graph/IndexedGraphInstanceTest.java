@@ -0,0 +1,177 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for instance methods of IndexedGraph, in addition to those of Graph.
+ * 
+ * <p>Tests obtain IndexedGraph instances only by calling emptyInstance(),
+ * and do not refer to specific concrete implementations.
+ */
+public abstract class IndexedGraphInstanceTest extends GraphInstanceTest {
+    
+    // Testing strategy
+    //   weight: edge present, absent; source vertex present, absent
+    //   forEachTarget, forEachSource: vertex absent, with no edges, with
+    //           several edges, with a self-loop; agree with targets/sources
+    //           after updates and removals
+    //   addWeight: edge absent, present; delta positive, zero, negative;
+    //              sum positive, zero, negative, overflowing; self-loop
+    //   setAll: no edges; edges new, present, repeated; weight zero on a
+    //           present edge, an absent edge
+    
+    /**
+     * Overridden by implementation-specific test classes.
+     * 
+     * @return a new empty graph of the particular implementation being tested
+     */
+    @Override public abstract IndexedGraph<String> emptyInstance();
+    
+    private static Map<String, Integer> visitTargets(IndexedGraph<String> graph, String source) {
+        Map<String, Integer> visited = new HashMap<>();
+        graph.forEachTarget(source, (target, weight) -> {
+            assertNull("expected each target once", visited.put(target, weight));
+        });
+        return visited;
+    }
+    
+    private static Map<String, Integer> visitSources(IndexedGraph<String> graph, String target) {
+        Map<String, Integer> visited = new HashMap<>();
+        graph.forEachSource(target, (source, weight) -> {
+            assertNull("expected each source once", visited.put(source, weight));
+        });
+        return visited;
+    }
+    
+    @Test
+    public void testWeight() {
+        IndexedGraph<String> graph = emptyInstance();
+        graph.set("a", "b", 4);
+        assertEquals(4, graph.weight("a", "b"));
+        assertEquals(0, graph.weight("b", "a"));
+        assertEquals(0, graph.weight("c", "a"));
+        graph.set("a", "b", 0);
+        assertEquals(0, graph.weight("a", "b"));
+    }
+    
+    @Test
+    public void testForEachOnAbsentAndIsolatedVertex() {
+        IndexedGraph<String> graph = emptyInstance();
+        graph.add("a");
+        assertEquals(Map.of(), visitTargets(graph, "a"));
+        assertEquals(Map.of(), visitSources(graph, "a"));
+        assertEquals(Map.of(), visitTargets(graph, "missing"));
+        assertEquals(Map.of(), visitSources(graph, "missing"));
+    }
+    
+    @Test
+    public void testForEachAgreesWithMaps() {
+        IndexedGraph<String> graph = emptyInstance();
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        graph.set("c", "b", 3);
+        graph.set("b", "b", 4);
+        graph.set("c", "a", 5);
+        graph.set("a", "c", 6);
+        graph.set("c", "a", 0);
+        graph.remove("d");
+        for (String vertex : graph.vertices()) {
+            assertEquals(graph.targets(vertex), visitTargets(graph, vertex));
+            assertEquals(graph.sources(vertex), visitSources(graph, vertex));
+        }
+        assertEquals(Map.of("b", 1, "c", 6), visitTargets(graph, "a"));
+        assertEquals(Map.of("a", 1, "c", 3, "b", 4), visitSources(graph, "b"));
+    }
+    
+    @Test
+    public void testAddWeightCreatesAndAccumulates() {
+        IndexedGraph<String> graph = emptyInstance();
+        assertEquals(0, graph.addWeight("a", "b", 1));
+        assertEquals(1, graph.addWeight("a", "b", 2));
+        assertEquals(0, graph.addWeight("b", "b", 5));
+        assertEquals(Set.of("a", "b"), graph.vertices());
+        assertEquals(Map.of("b", 3), graph.targets("a"));
+        assertEquals(Map.of("a", 3, "b", 5), graph.sources("b"));
+    }
+    
+    @Test
+    public void testAddWeightZeroAndNegative() {
+        IndexedGraph<String> graph = emptyInstance();
+        assertEquals(0, graph.addWeight("a", "b", 0));
+        assertEquals(Set.of(), graph.vertices());
+        graph.set("a", "b", 4);
+        assertEquals(4, graph.addWeight("a", "b", 0));
+        assertEquals(4, graph.addWeight("a", "b", -1));
+        assertEquals(3, graph.weight("a", "b"));
+        assertEquals(3, graph.addWeight("a", "b", -3));
+        assertEquals(Map.of(), graph.targets("a"));
+        assertEquals(Map.of(), graph.sources("b"));
+        assertEquals(Set.of("a", "b"), graph.vertices());
+    }
+    
+    @Test
+    public void testAddWeightRejectsNegativeSum() {
+        IndexedGraph<String> graph = emptyInstance();
+        graph.set("a", "b", 2);
+        try {
+            graph.addWeight("a", "b", -3);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            graph.addWeight("b", "c", -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals(Set.of("a", "b"), graph.vertices());
+        assertEquals(Map.of("b", 2), graph.targets("a"));
+    }
+    
+    @Test
+    public void testSetAllAsBySet() {
+        IndexedGraph<String> graph = emptyInstance();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("c", "a", 3);
+        graph.setAll(List.of());
+        assertEquals(Map.of("b", 1), graph.targets("a"));
+        graph.setAll(List.of(
+                new WeightedEdge<>("a", "b", 4),
+                new WeightedEdge<>("b", "c", 0),
+                new WeightedEdge<>("c", "d", 5),
+                new WeightedEdge<>("c", "d", 6),
+                new WeightedEdge<>("d", "e", 0),
+                new WeightedEdge<>("c", "a", 0),
+                new WeightedEdge<>("c", "a", 7)));
+        assertEquals(Set.of("a", "b", "c", "d"), graph.vertices());
+        assertEquals(Map.of("b", 4), graph.targets("a"));
+        assertEquals(Map.of(), graph.targets("b"));
+        assertEquals(Map.of("d", 6, "a", 7), graph.targets("c"));
+        assertEquals(Map.of("c", 6), graph.sources("d"));
+    }
+    
+    @Test
+    public void testAddWeightRejectsOverflow() {
+        IndexedGraph<String> graph = emptyInstance();
+        graph.set("a", "b", Integer.MAX_VALUE - 1);
+        assertEquals(Integer.MAX_VALUE - 1, graph.addWeight("a", "b", 1));
+        try {
+            graph.addWeight("a", "b", 1);
+            fail("expected ArithmeticException");
+        } catch (ArithmeticException expected) {
+            // expected
+        }
+        assertEquals(Integer.MAX_VALUE, graph.weight("a", "b"));
+        assertEquals(Map.of("a", Integer.MAX_VALUE), graph.sources("b"));
+    }
+    
+}
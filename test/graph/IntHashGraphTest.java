@@ -0,0 +1,266 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for IntHashGraph.
+ */
+public class IntHashGraphTest {
+
+    // Testing strategy
+    //   add: new vertex, present vertex, 0, negative
+    //   set: weight zero, positive, negative; edge present, absent;
+    //        vertices present, absent, negative; self-loop
+    //   addWeight: delta negative, zero, positive; sum zero, negative,
+    //              overflowing
+    //   remove: absent vertex; vertex with targets, sources and a self-loop;
+    //           last vertex, another vertex; corrupted rep, by reflection,
+    //           around the vertex moved into its slot or a neighbour:
+    //           caught in FULL mode
+    //   queries: vertex present, absent, negative; degree 0, 1, many
+    //   tables: keys that collide in a table, grow and shrink past their
+    //           initial capacity
+    //   all: agree with HashGraph over random operations
+
+    private static Map<Integer, Integer> targets(IntGraph graph, int source) {
+        Map<Integer, Integer> targets = new HashMap<>();
+        graph.forEachTarget(source, (target, weight) -> {
+            assertNull("expected each target once", targets.put(target, weight));
+        });
+        return targets;
+    }
+
+    private static Map<Integer, Integer> sources(IntGraph graph, int target) {
+        Map<Integer, Integer> sources = new HashMap<>();
+        graph.forEachSource(target, (source, weight) -> {
+            assertNull("expected each source once", sources.put(source, weight));
+        });
+        return sources;
+    }
+
+    private static Set<Integer> vertices(IntGraph graph) {
+        Set<Integer> vertices = new HashSet<>();
+        graph.forEachVertex(vertex -> assertTrue("expected each vertex once", vertices.add(vertex)));
+        return vertices;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        IntGraph graph = new IntHashGraph();
+        assertEquals(0, graph.vertexCount());
+        assertFalse(graph.isVertex(0));
+        assertFalse(graph.isVertex(-1));
+        assertEquals(0, graph.weight(0, 1));
+        assertEquals(0, graph.outDegree(0));
+        assertEquals(Map.of(), targets(graph, 0));
+        assertFalse(graph.remove(0));
+        assertEquals(0, graph.set(0, 1, 0));
+        assertEquals(0, graph.vertexCount());
+    }
+
+    @Test
+    public void testAddAndSet() {
+        IntGraph graph = new IntHashGraph();
+        assertTrue(graph.add(0));
+        assertFalse(graph.add(0));
+        assertEquals(0, graph.set(0, 7, 3));
+        assertEquals(3, graph.set(0, 7, 5));
+        assertEquals(0, graph.set(7, 7, 2));
+        assertEquals(Set.of(0, 7), vertices(graph));
+        assertEquals(5, graph.weight(0, 7));
+        assertEquals(Map.of(0, 5, 7, 2), sources(graph, 7));
+        assertEquals(2, graph.inDegree(7));
+        assertEquals(1, graph.outDegree(7));
+        assertEquals(5, graph.set(0, 7, 0));
+        assertEquals(0, graph.weight(0, 7));
+        assertEquals(Map.of(7, 2), sources(graph, 7));
+        assertEquals(2, graph.vertexCount());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegative() {
+        new IntHashGraph().add(-1);
+    }
+
+    @Test
+    public void testSetNegative() {
+        IntGraph graph = new IntHashGraph();
+        try {
+            graph.set(1, -2, 1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            graph.set(1, 2, -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(0, graph.vertexCount());
+    }
+
+    @Test
+    public void testAddWeight() {
+        IntGraph graph = new IntHashGraph();
+        assertEquals(0, graph.addWeight(1, 2, 4));
+        assertEquals(4, graph.addWeight(1, 2, 3));
+        assertEquals(7, graph.weight(1, 2));
+        assertEquals(7, graph.addWeight(1, 2, 0));
+        assertEquals(7, graph.addWeight(1, 2, -7));
+        assertEquals(0, graph.weight(1, 2));
+        assertEquals(0, graph.outDegree(1));
+        graph.set(1, 2, Integer.MAX_VALUE);
+        try {
+            graph.addWeight(1, 2, 1);
+            fail("expected ArithmeticException");
+        } catch (ArithmeticException e) {
+            // expected
+        }
+        try {
+            graph.addWeight(2, 1, -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(Integer.MAX_VALUE, graph.weight(1, 2));
+        assertEquals(0, graph.weight(2, 1));
+    }
+
+    @Test
+    public void testRemove() {
+        IntGraph graph = new IntHashGraph();
+        graph.set(1, 2, 1);
+        graph.set(3, 2, 2);
+        graph.set(2, 4, 3);
+        graph.set(2, 2, 4);
+        graph.set(3, 4, 5);
+        assertTrue(graph.remove(2));
+        assertFalse(graph.remove(2));
+        assertEquals(Set.of(1, 3, 4), vertices(graph));
+        assertEquals(Map.of(4, 5), targets(graph, 3));
+        assertEquals(Map.of(3, 5), sources(graph, 4));
+        assertEquals(Map.of(), targets(graph, 1));
+        assertTrue(graph.remove(4));
+        assertEquals(Map.of(), targets(graph, 3));
+        assertEquals(2, graph.vertexCount());
+    }
+
+    /*
+     * Change the weight that the targets of source record for an edge,
+     * without changing the sources of its target.
+     */
+    private static void corruptTarget(IntHashGraph graph, int source, int target, int weight)
+            throws ReflectiveOperationException {
+        Field slotsField = IntHashGraph.class.getDeclaredField("slots");
+        Field targetsField = IntHashGraph.class.getDeclaredField("targets");
+        slotsField.setAccessible(true);
+        targetsField.setAccessible(true);
+        IntIntMap slots = (IntIntMap) slotsField.get(graph);
+        IntIntMap[] targets = (IntIntMap[]) targetsField.get(graph);
+        targets[slots.get(source)].put(target, weight);
+    }
+
+    @Test
+    public void testRemoveChecksMovedVertex() throws ReflectiveOperationException {
+        IntHashGraph graph = new IntHashGraph();
+        graph.add(1);
+        graph.set(3, 2, 1);
+        corruptTarget(graph, 3, 2, 2);
+        Verification previous = Verification.setMode(Verification.FULL);
+        try {
+            // 3, in the last slot, moves into the slot of 1
+            assertThrows(AssertionError.class, () -> graph.remove(1));
+        } finally {
+            Verification.setMode(previous);
+        }
+    }
+
+    @Test
+    public void testRemoveChecksNeighbours() throws ReflectiveOperationException {
+        IntHashGraph graph = new IntHashGraph();
+        graph.set(1, 2, 1);
+        graph.set(2, 3, 1);
+        graph.add(4);
+        corruptTarget(graph, 2, 3, 2);
+        Verification previous = Verification.setMode(Verification.FULL);
+        try {
+            assertThrows(AssertionError.class, () -> graph.remove(1));
+        } finally {
+            Verification.setMode(previous);
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // multiples of a large power of two share their low bits
+        IntGraph graph = new IntHashGraph();
+        int n = 1000;
+        for (int i = 0; i < n; i++) {
+            graph.set(0, i << 16, i + 1);
+        }
+        assertEquals(n, graph.outDegree(0));
+        for (int i = 0; i < n; i += 2) {
+            assertEquals(i + 1, graph.set(0, i << 16, 0));
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(i % 2 == 0 ? 0 : i + 1, graph.weight(0, i << 16));
+        }
+        assertEquals(n / 2, graph.outDegree(0));
+        assertEquals(n, graph.vertexCount()); // the first edge is a self-loop
+    }
+
+    @Test
+    public void testMatchesHashGraph() {
+        Random random = new Random(22);
+        for (int trial = 0; trial < 20; trial++) {
+            IntGraph graph = new IntHashGraph();
+            HashGraph<Integer> expected = new HashGraph<>();
+            int vertices = 1 + random.nextInt(50);
+            for (int op = 0; op < 2000; op++) {
+                int a = random.nextInt(vertices);
+                int b = random.nextInt(vertices);
+                switch (random.nextInt(8)) {
+                case 0:
+                    assertEquals(expected.add(a), graph.add(a));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(a), graph.remove(a));
+                    break;
+                case 2:
+                    assertEquals(expected.set(a, b, 0), graph.set(a, b, 0));
+                    break;
+                case 3:
+                    assertEquals(expected.addWeight(a, b, 1), graph.addWeight(a, b, 1));
+                    break;
+                default:
+                    int weight = 1 + random.nextInt(10);
+                    assertEquals(expected.set(a, b, weight), graph.set(a, b, weight));
+                }
+            }
+            assertEquals(expected.vertices(), vertices(graph));
+            assertEquals(expected.vertices().size(), graph.vertexCount());
+            for (int vertex : expected.vertices()) {
+                assertEquals(expected.targets(vertex), targets(graph, vertex));
+                assertEquals(expected.sources(vertex), sources(graph, vertex));
+                assertEquals(expected.targets(vertex).size(), graph.outDegree(vertex));
+                assertEquals(expected.sources(vertex).size(), graph.inDegree(vertex));
+            }
+        }
+    }
+
+}
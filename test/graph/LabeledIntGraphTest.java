@@ -0,0 +1,118 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for LabeledIntGraph.
+ *
+ * <p>This class runs the IndexedGraphInstanceTest tests against
+ * LabeledIntGraph, as well as the tests for that particular implementation.
+ */
+public class LabeledIntGraphTest extends IndexedGraphInstanceTest {
+
+    /*
+     * Provide a LabeledIntGraph for tests in GraphInstanceTest.
+     */
+    @Override public IndexedGraph<String> emptyInstance() {
+        return new LabeledIntGraph<>();
+    }
+
+    // Testing strategy for LabeledIntGraph
+    //   copyOf: empty graph; graph with isolated vertices and self-loops;
+    //           an IndexedGraph, a plain Graph
+    //   id, label: vertex present, absent, removed and added again
+    //   intGraph: agrees with the labels; follows later changes; mutators
+    //             throw
+
+    private static Graph<String> sample() {
+        Graph<String> graph = new HashGraph<>();
+        graph.add("lonely");
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        graph.set("c", "a", 3);
+        graph.set("c", "c", 4);
+        return graph;
+    }
+
+    @Test
+    public void testCopyOf() {
+        Graph<String> original = sample();
+        LabeledIntGraph<String> copy = LabeledIntGraph.copyOf(original);
+        assertEquals(original.vertices(), copy.vertices());
+        for (String vertex : original.vertices()) {
+            assertEquals(original.targets(vertex), copy.targets(vertex));
+            assertEquals(original.sources(vertex), copy.sources(vertex));
+        }
+        assertEquals(Set.of(), LabeledIntGraph.copyOf(new HashGraph<String>()).vertices());
+    }
+
+    @Test
+    public void testCopyOfPlainGraph() {
+        Graph<String> indexed = sample();
+        Graph<String> plain = new Graph<String>() {
+            @Override public boolean add(String vertex) { return indexed.add(vertex); }
+            @Override public int set(String source, String target, int weight) {
+                return indexed.set(source, target, weight);
+            }
+            @Override public boolean remove(String vertex) { return indexed.remove(vertex); }
+            @Override public Set<String> vertices() { return indexed.vertices(); }
+            @Override public Map<String, Integer> sources(String target) { return indexed.sources(target); }
+            @Override public Map<String, Integer> targets(String source) { return indexed.targets(source); }
+        };
+        LabeledIntGraph<String> copy = LabeledIntGraph.copyOf(plain);
+        for (String vertex : indexed.vertices()) {
+            assertEquals(indexed.targets(vertex), copy.targets(vertex));
+        }
+    }
+
+    @Test
+    public void testIdsAndLabels() {
+        LabeledIntGraph<String> graph = new LabeledIntGraph<>();
+        graph.set("a", "b", 5);
+        int a = graph.id("a");
+        int b = graph.id("b");
+        assertNotEquals(a, b);
+        assertEquals("a", graph.label(a));
+        assertEquals(-1, graph.id("c"));
+        graph.remove("a");
+        assertEquals(-1, graph.id("a"));
+        try {
+            graph.label(a);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        graph.add("a");
+        assertEquals(a, graph.id("a"));
+    }
+
+    @Test
+    public void testIntGraphAgreesWithLabels() {
+        LabeledIntGraph<String> graph = LabeledIntGraph.copyOf(sample());
+        IntGraph ids = graph.intGraph();
+        assertEquals(4, ids.vertexCount());
+        int c = graph.id("c");
+        Map<String, Integer> targets = new HashMap<>();
+        ids.forEachTarget(c, (target, weight) -> targets.put(graph.label(target), weight));
+        assertEquals(graph.targets("c"), targets);
+        assertEquals(1, ids.inDegree(graph.id("a")));
+        assertEquals(0, ids.outDegree(graph.id("lonely")));
+
+        graph.set("c", "lonely", 9);
+        assertEquals(9, ids.weight(c, graph.id("lonely")));
+        assertEquals(3, ids.outDegree(c));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testIntGraphIsReadOnly() {
+        LabeledIntGraph<String> graph = LabeledIntGraph.copyOf(sample());
+        graph.intGraph().set(graph.id("a"), graph.id("b"), 2);
+    }
+
+}
@@ -0,0 +1,234 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for MappedGraph.
+ */
+public class MappedGraphTest {
+
+    // Testing strategy
+    //   write, open: empty graph; graph with isolated vertices, self-loops,
+    //           vertices with many targets and sources; non-ASCII labels,
+    //           including characters outside the Basic Multilingual Plane
+    //   Graph queries: label present or absent
+    //   forEachTarget: same order as the original graph
+    //   weight: present and absent edges, by label and by ID
+    //   open: file that is not a snapshot, truncated, wrong version
+    //   write with names: labels that are not strings, visiting order kept
+    //   byId: agrees with the graph by label; IDs absent, null, out of
+    //         range; same visiting order; mutators throw
+    //   mutators: always throw
+
+    private static IndexedGraph<String> sample() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.add("lonely");
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        graph.set("a", "d", 3);
+        graph.set("b", "d", 4);
+        graph.set("c", "d", 5);
+        graph.set("d", "d", 6);
+        graph.set("\u00e9t\u00e9", "a", 7);
+        graph.set("\ud83d\ude00", "\uffee", 8);
+        return graph;
+    }
+
+    private static Path tempFile() throws IOException {
+        File file = File.createTempFile("graph", ".snapshot");
+        file.deleteOnExit();
+        return file.toPath();
+    }
+
+    private static MappedGraph roundTrip(IndexedGraph<String> graph) throws IOException {
+        Path file = tempFile();
+        MappedGraph.write(graph, file);
+        return MappedGraph.open(file);
+    }
+
+    private static List<String> visitOrder(IndexedGraph<String> graph, String source) {
+        List<String> order = new ArrayList<>();
+        graph.forEachTarget(source, (target, weight) -> order.add(target));
+        return order;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        MappedGraph graph = roundTrip(new HashGraph<>());
+        assertEquals(0, graph.vertexCount());
+        assertEquals(0, graph.edgeCount());
+        assertEquals(Collections.emptySet(), graph.vertices());
+        assertEquals(Collections.emptyMap(), graph.targets("a"));
+        assertEquals(-1, graph.id("a"));
+    }
+
+    @Test
+    public void testRoundTripMatchesOriginal() throws IOException {
+        IndexedGraph<String> original = sample();
+        MappedGraph graph = roundTrip(original);
+        assertEquals(original.vertices(), graph.vertices());
+        assertEquals(8, graph.edgeCount());
+        for (String vertex : original.vertices()) {
+            assertEquals(original.targets(vertex), graph.targets(vertex));
+            assertEquals(original.sources(vertex), graph.sources(vertex));
+            assertEquals(vertex, graph.label(graph.id(vertex)));
+            for (String other : original.vertices()) {
+                assertEquals(original.weight(vertex, other), graph.weight(vertex, other));
+            }
+        }
+        assertEquals(Collections.emptyMap(), graph.sources("missing"));
+        assertEquals(0, graph.weight("missing", "a"));
+        assertEquals(0, graph.weight("a", "missing"));
+        assertEquals(-1, graph.id("\ud800"));
+    }
+
+    @Test
+    public void testIdsFollowLabelBytes() throws IOException {
+        MappedGraph graph = roundTrip(sample());
+        assertEquals(0, graph.id("a"));
+        assertEquals(4, graph.id("lonely"));
+        // U+00E9 < U+FFEE < U+1F600 in UTF-8, though not in UTF-16
+        assertTrue(graph.id("\u00e9t\u00e9") < graph.id("\uffee"));
+        assertTrue(graph.id("\uffee") < graph.id("\ud83d\ude00"));
+        assertEquals(3, graph.weight(graph.id("a"), graph.id("d")));
+        assertEquals(0, graph.weight(graph.id("d"), graph.id("a")));
+    }
+
+    @Test
+    public void testTargetsVisitedInOriginalOrder() throws IOException {
+        IndexedGraph<String> original = new HashGraph<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            original.set("v" + random.nextInt(40), "v" + random.nextInt(40), 1 + random.nextInt(9));
+        }
+        MappedGraph graph = roundTrip(original);
+        for (String vertex : original.vertices()) {
+            assertEquals(visitOrder(original, vertex), visitOrder(graph, vertex));
+            Map<String, Integer> sources = new HashMap<>();
+            graph.forEachSource(vertex, sources::put);
+            assertEquals(original.sources(vertex), sources);
+        }
+    }
+
+    @Test
+    public void testWriteWithNames() throws IOException {
+        IndexedGraph<Integer> original = new HashGraph<>();
+        Random random = new Random(6);
+        for (int i = 0; i < 500; i++) {
+            original.set(random.nextInt(30), random.nextInt(30), 1 + random.nextInt(9));
+        }
+        Path file = tempFile();
+        MappedGraph.write(original, number -> "n" + number, file);
+        MappedGraph graph = MappedGraph.open(file);
+        for (int vertex : original.vertices()) {
+            List<String> expected = new ArrayList<>();
+            original.forEachTarget(vertex, (target, weight) -> expected.add("n" + target));
+            assertEquals(expected, visitOrder(graph, "n" + vertex));
+            for (int other : original.vertices()) {
+                assertEquals(original.weight(vertex, other), graph.weight("n" + vertex, "n" + other));
+            }
+        }
+    }
+
+    @Test
+    public void testByIdMatchesLabels() throws IOException {
+        MappedGraph graph = roundTrip(sample());
+        IndexedGraph<Integer> ids = graph.byId();
+        assertEquals(graph.vertexCount(), ids.vertices().size());
+        for (int id : ids.vertices()) {
+            String label = graph.label(id);
+            List<String> order = new ArrayList<>();
+            ids.forEachTarget(id, (target, weight) -> order.add(graph.label(target)));
+            assertEquals(visitOrder(graph, label), order);
+            Map<String, Integer> sources = new HashMap<>();
+            ids.forEachSource(id, (source, weight) -> sources.put(graph.label(source), weight));
+            assertEquals(graph.sources(label), sources);
+            assertEquals(graph.targets(label).size(), ids.targets(id).size());
+            assertEquals(graph.sources(label).size(), ids.sources(id).size());
+            for (int other : ids.vertices()) {
+                assertEquals(graph.weight(label, graph.label(other)), ids.weight(id, other));
+            }
+        }
+        assertEquals(0, ids.weight(-1, 0));
+        assertEquals(0, ids.weight(0, graph.vertexCount()));
+        assertEquals(0, ids.weight(null, 0));
+        assertEquals(Collections.emptyMap(), ids.targets(graph.vertexCount()));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testByIdIsReadOnly() throws IOException {
+        roundTrip(sample()).byId().set(0, 1, 1);
+    }
+
+    @Test
+    public void testSnapshotIsIndependentOfOriginal() throws IOException {
+        IndexedGraph<String> original = sample();
+        MappedGraph graph = roundTrip(original);
+        original.set("a", "b", 0);
+        original.remove("c");
+        assertEquals(Map.of("b", 1, "c", 2, "d", 3), graph.targets("a"));
+        assertTrue(graph.vertices().containsAll(Set.of("a", "b", "c", "d", "lonely")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenRejectsOtherFiles() throws IOException {
+        Path file = tempFile();
+        Files.write(file, "Hello, world! Not a snapshot.".getBytes("UTF-8"));
+        MappedGraph.open(file);
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenRejectsTruncatedSnapshot() throws IOException {
+        Path file = tempFile();
+        MappedGraph.write(sample(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        MappedGraph.open(file);
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenRejectsOtherVersion() throws IOException {
+        Path file = tempFile();
+        MappedGraph.write(sample(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[7]++;
+        Files.write(file, bytes);
+        MappedGraph.open(file);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddUnsupported() throws IOException {
+        roundTrip(sample()).add("e");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetUnsupported() throws IOException {
+        roundTrip(sample()).set("a", "b", 2);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveUnsupported() throws IOException {
+        roundTrip(sample()).remove("a");
+    }
+
+}
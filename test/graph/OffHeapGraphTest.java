@@ -0,0 +1,98 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for OffHeapGraph.
+ *
+ * <p>This class runs the IndexedGraphInstanceTest tests against
+ * OffHeapGraph, as well as the tests for that particular implementation.
+ */
+public class OffHeapGraphTest extends IndexedGraphInstanceTest {
+
+    /*
+     * Provide an OffHeapGraph for tests in GraphInstanceTest.
+     */
+    @Override public IndexedGraph<String> emptyInstance() {
+        return new OffHeapGraph();
+    }
+
+    // Testing strategy for OffHeapGraph
+    //   adjacency lists: growing through many run sizes, into a second
+    //                    chunk; shrinking to empty; source list shorter
+    //                    than target list, longer
+    //   remove: vertex IDs and runs reused by later vertices and edges
+    //   offHeapBytes: grows with edges, stays put while edges are removed
+    //                 and added again
+
+    @Test
+    public void testHighDegreeVertex() {
+        OffHeapGraph graph = new OffHeapGraph();
+        int n = 5000;
+        for (int i = 0; i < n; i++) {
+            graph.set("hub", "w" + i, i + 1);
+            graph.set("w" + i, "hub", 2 * i + 1);
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            expected.put("w" + i, i + 1);
+        }
+        assertEquals(expected, graph.targets("hub"));
+        assertEquals(n, graph.sources("hub").size());
+        // looked up from the short side and from the long side
+        assertEquals(4000, graph.weight("hub", "w3999"));
+        assertEquals(7999, graph.weight("w3999", "hub"));
+        assertEquals(4000, graph.set("hub", "w3999", 7));
+        assertEquals(7, graph.sources("w3999").get("hub").intValue());
+        for (int i = 0; i < n; i += 2) {
+            assertEquals(i + 1, graph.set("hub", "w" + i, 0));
+        }
+        assertEquals(n / 2, graph.targets("hub").size());
+        assertEquals(0, graph.weight("hub", "w0"));
+        assertEquals(2, graph.weight("hub", "w1"));
+        assertEquals(Map.of("hub", 2), graph.sources("w1"));
+    }
+
+    @Test
+    public void testRemoveReusesIdsAndRuns() {
+        OffHeapGraph graph = new OffHeapGraph();
+        for (int i = 0; i < 100; i++) {
+            graph.set("a" + i, "b" + (i % 10), 1);
+        }
+        long bytes = graph.offHeapBytes();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(graph.remove("a" + i));
+            }
+            assertEquals(Set.of(), graph.sources("b3").keySet());
+            for (int i = 0; i < 100; i++) {
+                graph.set("a" + i, "b" + (i % 10), round + 1);
+            }
+        }
+        assertEquals(bytes, graph.offHeapBytes());
+        assertEquals(110, graph.vertices().size());
+        assertEquals(20, graph.weight("a42", "b2"));
+        assertEquals(10, graph.sources("b2").size());
+    }
+
+    @Test
+    public void testSelfLoopRemoved() {
+        OffHeapGraph graph = new OffHeapGraph();
+        graph.set("a", "a", 3);
+        graph.set("a", "b", 4);
+        graph.set("c", "a", 5);
+        assertTrue(graph.remove("a"));
+        assertEquals(Set.of("b", "c"), graph.vertices());
+        assertEquals(Map.of(), graph.sources("b"));
+        assertEquals(Map.of(), graph.targets("c"));
+        graph.set("d", "d", 6);
+        assertEquals(Map.of("d", 6), graph.targets("d"));
+    }
+
+}
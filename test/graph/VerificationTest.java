@@ -0,0 +1,211 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for Verification, and for the checkRep of the graphs in each mode.
+ */
+public class VerificationTest {
+
+    // Testing strategy
+    //   fromProperty: null, each mode in any case and with spaces, no mode
+    //   setMode: returns the previous mode, changes checkTouched and checkAll
+    //   checkTouched, checkAll: OFF, SAMPLED, FULL
+    //   corrupted rep, by reflection, of ConcreteEdgesGraph,
+    //     ConcreteVerticesGraph and ConcurrentGraph: caught by FULL on the
+    //     next change, by SAMPLED within a few periods, never by OFF
+
+    // well past the default sampling period, so SAMPLED misses a corrupted
+    // rep for all of them with negligible probability
+    private static final int SAMPLED_TRIES = 5000;
+
+    private Verification previous;
+
+    @Before
+    public void saveMode() {
+        previous = Verification.mode();
+    }
+
+    @After
+    public void restoreMode() {
+        Verification.setMode(previous);
+    }
+
+    /*
+     * Read a private field of an object, to corrupt what it refers to.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T field(Object object, String name) throws ReflectiveOperationException {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(object);
+    }
+
+    /*
+     * A ConcreteEdgesGraph with an edge a -> b whose target is missing from
+     * its vertices.
+     */
+    private static ConcreteEdgesGraph<String> corruptEdgesGraph() throws ReflectiveOperationException {
+        ConcreteEdgesGraph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("a", "b", 1);
+        Set<String> vertices = field(graph, "vertices");
+        vertices.remove("b");
+        return graph;
+    }
+
+    /*
+     * A ConcreteVerticesGraph with an edge a -> b of weight 1 that b
+     * records as weight 2.
+     */
+    private static ConcreteVerticesGraph<String> corruptVerticesGraph() throws ReflectiveOperationException {
+        ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+        graph.set("a", "b", 1);
+        Map<String, Object> vertices = field(graph, "vertices");
+        Map<String, Integer> incoming = field(vertices.get("b"), "incoming");
+        incoming.put("a", 2);
+        return graph;
+    }
+
+    /*
+     * A ConcurrentGraph with an edge a -> b that b does not record.
+     */
+    private static ConcurrentGraph<String> corruptConcurrentGraph() throws ReflectiveOperationException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        graph.set("a", "b", 1);
+        Map<String, Object> vertices = field(graph, "vertices");
+        Map<String, Integer> sources = field(vertices.get("b"), "sources");
+        sources.remove("a");
+        return graph;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testFromProperty() {
+        assertEquals("expected FULL by default with assertions on", Verification.FULL,
+                Verification.fromProperty(null));
+        assertEquals(Verification.OFF, Verification.fromProperty("off"));
+        assertEquals(Verification.SAMPLED, Verification.fromProperty("Sampled"));
+        assertEquals(Verification.FULL, Verification.fromProperty(" FULL "));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFromPropertyNoMode() {
+        Verification.fromProperty("sometimes");
+    }
+
+    @Test
+    public void testSetMode() {
+        Verification.setMode(Verification.OFF);
+        assertEquals("expected previous mode", Verification.OFF, Verification.setMode(Verification.FULL));
+        assertEquals("expected new mode", Verification.FULL, Verification.mode());
+    }
+
+    @Test
+    public void testOff() {
+        Verification.setMode(Verification.OFF);
+        assertFalse("expected no checks", Verification.checkTouched());
+        assertFalse("expected no checks", Verification.checkAll());
+    }
+
+    @Test
+    public void testFull() {
+        Verification.setMode(Verification.FULL);
+        assertTrue("expected touched checks", Verification.checkTouched());
+        assertTrue("expected full checks", Verification.checkAll());
+    }
+
+    @Test
+    public void testSampled() {
+        Verification.setMode(Verification.SAMPLED);
+        assertTrue("expected touched checks", Verification.checkTouched());
+        int all = 0;
+        for (int i = 0; i < SAMPLED_TRIES; i++) {
+            if (Verification.checkAll()) {
+                all++;
+            }
+        }
+        assertTrue("expected some full checks, got " + all, all > 0);
+        assertTrue("expected mostly no full checks, got " + all, all < SAMPLED_TRIES / 2);
+    }
+
+    @Test
+    public void testFullCatchesCorruptEdgesGraph() throws ReflectiveOperationException {
+        ConcreteEdgesGraph<String> graph = corruptEdgesGraph();
+        Verification.setMode(Verification.FULL);
+        assertThrows(AssertionError.class, () -> graph.add("c"));
+    }
+
+    @Test
+    public void testSampledCatchesCorruptEdgesGraph() throws ReflectiveOperationException {
+        ConcreteEdgesGraph<String> graph = corruptEdgesGraph();
+        Verification.setMode(Verification.SAMPLED);
+        assertThrows(AssertionError.class, () -> {
+            for (int i = 0; i < SAMPLED_TRIES; i++) {
+                graph.add("c" + i);
+            }
+        });
+    }
+
+    @Test
+    public void testOffIgnoresCorruptEdgesGraph() throws ReflectiveOperationException {
+        ConcreteEdgesGraph<String> graph = corruptEdgesGraph();
+        Verification.setMode(Verification.OFF);
+        for (int i = 0; i < SAMPLED_TRIES; i++) {
+            graph.add("c" + i);
+        }
+        assertEquals("expected the corrupt edge unchanged", Map.of("b", 1), graph.targets("a"));
+    }
+
+    @Test
+    public void testFullCatchesCorruptVerticesGraph() throws ReflectiveOperationException {
+        ConcreteVerticesGraph<String> graph = corruptVerticesGraph();
+        Verification.setMode(Verification.FULL);
+        assertThrows(AssertionError.class, () -> graph.set("a", "c", 1));
+    }
+
+    @Test
+    public void testSampledCatchesCorruptVerticesGraph() throws ReflectiveOperationException {
+        ConcreteVerticesGraph<String> graph = corruptVerticesGraph();
+        Verification.setMode(Verification.SAMPLED);
+        assertThrows(AssertionError.class, () -> {
+            for (int i = 0; i < SAMPLED_TRIES; i++) {
+                graph.set("a", "c", 1 + i);
+            }
+        });
+    }
+
+    @Test
+    public void testOffIgnoresCorruptVerticesGraph() throws ReflectiveOperationException {
+        ConcreteVerticesGraph<String> graph = corruptVerticesGraph();
+        Verification.setMode(Verification.OFF);
+        graph.set("a", "c", 1);
+        assertEquals("expected the corrupt weight unchanged", Map.of("a", 2), graph.sources("b"));
+    }
+
+    @Test
+    public void testFullCatchesCorruptConcurrentGraph() throws ReflectiveOperationException {
+        ConcurrentGraph<String> graph = corruptConcurrentGraph();
+        Verification.setMode(Verification.FULL);
+        assertThrows(AssertionError.class, () -> graph.addWeight("a", "c", 1));
+    }
+
+    @Test
+    public void testOffIgnoresCorruptConcurrentGraph() throws ReflectiveOperationException {
+        ConcurrentGraph<String> graph = corruptConcurrentGraph();
+        Verification.setMode(Verification.OFF);
+        graph.addWeight("a", "c", 1);
+        assertEquals("expected the corrupt edge unrecorded by b", Map.of(), graph.sources("b"));
+    }
+}
@@ -0,0 +1,206 @@
+package graph.algo;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.HashGraph;
+
+/**
+ * Tests for PageRank.
+ */
+public class PageRankTest {
+
+    // Testing strategy
+    //   compute: empty graph, one vertex, cycle, star, vertices without
+    //            edges, self-loops, unequal weights; damping 0, default;
+    //            graph smaller than one block, larger; pool of 1 thread,
+    //            several; maxIterations reached, tolerance reached;
+    //            damping, tolerance or maxIterations out of range
+    //   rank, ranks, top: label present, absent; k 0, less than the number
+    //                     of vertices, more
+    //   all: agree with dense power iteration on random graphs
+
+    private static final double EPSILON = 1e-7;
+
+    /**
+     * Ranks by dense power iteration over the transition matrix, in ID
+     * order of graph.
+     */
+    private static double[] dense(CompactGraph<String> graph, double damping, int iterations) {
+        int n = graph.vertexCount();
+        double[][] transitions = new double[n][n];
+        for (int u = 0; u < n; u++) {
+            long total = 0;
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                total += graph.targetWeight(u, i);
+            }
+            for (int v = 0; v < n; v++) {
+                transitions[u][v] = total == 0 ? 1.0 / n
+                        : damping * graph.weight(u, v) / total + (1 - damping) / n;
+            }
+        }
+        double[] ranks = new double[n];
+        Arrays.fill(ranks, 1.0 / n);
+        for (int round = 0; round < iterations; round++) {
+            double[] next = new double[n];
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    next[v] += ranks[u] * transitions[u][v];
+                }
+            }
+            ranks = next;
+        }
+        return ranks;
+    }
+
+    private static Graph<String> random(Random random, int labels, int edges) {
+        Graph<String> graph = new HashGraph<>();
+        for (int i = 0; i < labels; i++) {
+            graph.add("v" + i);
+        }
+        for (int i = 0; i < edges; i++) {
+            graph.set("v" + random.nextInt(labels), "v" + random.nextInt(labels), 1 + random.nextInt(20));
+        }
+        return graph;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        PageRank<String> ranks = PageRank.compute(new HashGraph<>());
+        assertEquals(Map.of(), ranks.ranks());
+        assertEquals(0, ranks.iterations());
+        assertEquals(0, ranks.rank("a"), 0);
+        assertEquals(List.of(), ranks.top(3));
+    }
+
+    @Test
+    public void testOneVertex() {
+        Graph<String> graph = new HashGraph<>();
+        graph.add("a");
+        assertEquals(1, PageRank.compute(graph).rank("a"), EPSILON);
+        graph.set("a", "a", 5);
+        assertEquals(1, PageRank.compute(graph).rank("a"), EPSILON);
+    }
+
+    @Test
+    public void testCycle() {
+        Graph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 7);
+        graph.set("c", "a", 3);
+        PageRank<String> ranks = PageRank.compute(graph);
+        for (String vertex : List.of("a", "b", "c")) {
+            assertEquals(1.0 / 3, ranks.rank(vertex), EPSILON);
+        }
+    }
+
+    @Test
+    public void testStar() {
+        Graph<String> graph = new HashGraph<>();
+        for (int i = 0; i < 5; i++) {
+            graph.set("leaf" + i, "hub", 1);
+        }
+        PageRank<String> ranks = PageRank.compute(graph);
+        // each leaf only gets jumps; the hub has no edges, so it jumps too
+        double leaf = ranks.rank("leaf0");
+        double hub = ranks.rank("hub");
+        assertEquals(hub, (1 - 0.85) / 6 + 0.85 * hub / 6 + 0.85 * 5 * leaf, EPSILON);
+        assertEquals(1, hub + 5 * leaf, EPSILON);
+        assertEquals(List.of("hub"), ranks.top(1));
+        assertEquals(6, ranks.top(10).size());
+        assertEquals(List.of(), ranks.top(0));
+    }
+
+    @Test
+    public void testNoDampingIsUniform() {
+        Graph<String> graph = random(new Random(1), 10, 30);
+        PageRank<String> ranks = PageRank.compute(graph, 0, 1e-12, 10, ForkJoinPool.commonPool());
+        for (double rank : ranks.ranks().values()) {
+            assertEquals(0.1, rank, EPSILON);
+        }
+    }
+
+    @Test
+    public void testWeightsMatter() {
+        Graph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 9);
+        graph.set("a", "c", 1);
+        graph.set("b", "a", 1);
+        graph.set("c", "a", 1);
+        PageRank<String> ranks = PageRank.compute(graph);
+        assertTrue(ranks.rank("b") > 2 * ranks.rank("c"));
+        assertEquals(List.of("a", "b", "c"), ranks.top(3));
+    }
+
+    @Test
+    public void testMatchesDense() {
+        Random random = new Random(20);
+        for (int trial = 0; trial < 20; trial++) {
+            int labels = 1 + random.nextInt(40);
+            CompactGraph<String> graph = CompactGraph.copyOf(random(random, labels, random.nextInt(4 * labels)));
+            PageRank<String> ranks = PageRank.compute(graph, 0.85, 1e-13, 500, ForkJoinPool.commonPool());
+            double[] expected = dense(graph, 0.85, 500);
+            for (int v = 0; v < labels; v++) {
+                assertEquals(expected[v], ranks.rank(graph.label(v)), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelismDoesNotChangeRanks() {
+        Graph<String> graph = random(new Random(3), 20_000, 100_000);
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            PageRank<String> sequential = PageRank.compute(graph, 0.85, 1e-10, 100, one);
+            PageRank<String> parallel = PageRank.compute(graph, 0.85, 1e-10, 100, four);
+            assertEquals(sequential.iterations(), parallel.iterations());
+            assertEquals(sequential.ranks(), parallel.ranks());
+            double total = 0;
+            for (double rank : parallel.ranks().values()) {
+                total += rank;
+            }
+            assertEquals(1, total, EPSILON);
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaxIterations() {
+        Graph<String> graph = random(new Random(4), 50, 200);
+        assertEquals(1, PageRank.compute(graph, 0.85, 1e-15, 1, ForkJoinPool.commonPool()).iterations());
+        assertTrue(PageRank.compute(graph).iterations() < PageRank.DEFAULT_MAX_ITERATIONS);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDampingOne() {
+        PageRank.compute(new HashGraph<String>(), 1, 1e-9, 10, ForkJoinPool.commonPool());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testToleranceNotPositive() {
+        PageRank.compute(new HashGraph<String>(), 0.85, 0, 10, ForkJoinPool.commonPool());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaxIterationsNotPositive() {
+        PageRank.compute(new HashGraph<String>(), 0.85, 1e-9, 0, ForkJoinPool.commonPool());
+    }
+
+}
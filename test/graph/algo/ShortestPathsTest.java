@@ -0,0 +1,178 @@
+package graph.algo;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.HashGraph;
+
+/**
+ * Tests for ShortestPaths.
+ */
+public class ShortestPathsTest {
+
+    // Testing strategy
+    //   from: source absent, isolated, with many reachable vertices; graph
+    //         a HashGraph, a CompactGraph
+    //   distance, path: target the source, reachable, unreachable, absent;
+    //                   shortest path with fewer edges, with more edges;
+    //                   self-loop
+    //   fromEach: no sources, several; source absent
+    //   all: agree with Bellman-Ford on random graphs
+
+    /**
+     * Shortest distances from source by Bellman-Ford, -1 if unreachable.
+     */
+    private static long[] bellmanFord(CompactGraph<String> graph, int source) {
+        long[] distances = new long[graph.vertexCount()];
+        Arrays.fill(distances, -1);
+        distances[source] = 0;
+        for (int round = 0; round < graph.vertexCount(); round++) {
+            for (int u = 0; u < graph.vertexCount(); u++) {
+                if (distances[u] < 0) {
+                    continue;
+                }
+                for (int i = 0; i < graph.outDegree(u); i++) {
+                    int v = graph.target(u, i);
+                    long distance = distances[u] + graph.targetWeight(u, i);
+                    if (distances[v] < 0 || distance < distances[v]) {
+                        distances[v] = distance;
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static long length(Graph<String> graph, List<String> path) {
+        long length = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int weight = graph.targets(path.get(i - 1)).getOrDefault(path.get(i), 0);
+            assertTrue("expected a path along edges: " + path, weight > 0);
+            length += weight;
+        }
+        return length;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testIsolatedSource() {
+        Graph<String> graph = new HashGraph<>();
+        graph.add("a");
+        graph.set("b", "c", 1);
+        ShortestPaths<String> paths = ShortestPaths.from(graph, "a");
+        assertEquals("a", paths.source());
+        assertEquals(0, paths.distance("a"));
+        assertEquals(List.of("a"), paths.path("a"));
+        assertEquals(-1, paths.distance("c"));
+        assertEquals(List.of(), paths.path("c"));
+        assertEquals(-1, paths.distance("missing"));
+        assertEquals(List.of(), paths.path("missing"));
+        assertEquals(1, paths.reachable());
+    }
+
+    @Test
+    public void testLongerPathShorter() {
+        Graph<String> graph = new HashGraph<>();
+        graph.set("a", "d", 10);
+        graph.set("a", "b", 2);
+        graph.set("b", "c", 3);
+        graph.set("c", "d", 4);
+        graph.set("d", "d", 1);
+        graph.set("d", "a", 1);
+        ShortestPaths<String> paths = ShortestPaths.from(CompactGraph.copyOf(graph), "a");
+        assertEquals(9, paths.distance("d"));
+        assertEquals(List.of("a", "b", "c", "d"), paths.path("d"));
+        assertEquals(5, paths.distance("c"));
+        assertEquals(4, paths.reachable());
+    }
+
+    @Test
+    public void testFewerEdgesShorter() {
+        Graph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("c", "d", 1);
+        graph.set("a", "d", 2);
+        assertEquals(List.of("a", "d"), ShortestPaths.from(graph, "a").path("d"));
+    }
+
+    @Test
+    public void testMatchesBellmanFord() {
+        Random random = new Random(20);
+        for (int trial = 0; trial < 40; trial++) {
+            Graph<String> graph = new HashGraph<>();
+            int labels = 2 + random.nextInt(30);
+            for (int i = 0; i < labels * 3; i++) {
+                graph.set("v" + random.nextInt(labels), "v" + random.nextInt(labels), 1 + random.nextInt(50));
+            }
+            CompactGraph<String> compact = CompactGraph.copyOf(graph);
+            for (int source = 0; source < compact.vertexCount(); source++) {
+                long[] expected = bellmanFord(compact, source);
+                ShortestPaths<String> paths = ShortestPaths.from(compact, compact.label(source));
+                for (int target = 0; target < compact.vertexCount(); target++) {
+                    String label = compact.label(target);
+                    assertEquals(expected[target], paths.distance(label));
+                    List<String> path = paths.path(label);
+                    if (expected[target] >= 0) {
+                        assertEquals(compact.label(source), path.get(0));
+                        assertEquals(label, path.get(path.size() - 1));
+                        assertEquals(expected[target], length(graph, path));
+                    } else {
+                        assertEquals(List.of(), path);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFromEach() {
+        Graph<String> graph = new HashGraph<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            graph.set("v" + random.nextInt(60), "v" + random.nextInt(60), 1 + random.nextInt(9));
+        }
+        List<String> sources = new ArrayList<>(graph.vertices()).subList(0, 10);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<String, ShortestPaths<String>> all = ShortestPaths.fromEach(graph, sources, pool);
+            assertEquals(sources, new ArrayList<>(all.keySet()));
+            for (String source : sources) {
+                ShortestPaths<String> one = ShortestPaths.from(graph, source);
+                for (String target : graph.vertices()) {
+                    assertEquals(one.distance(target), all.get(source).distance(target));
+                }
+            }
+            assertEquals(Map.of(), ShortestPaths.fromEach(graph, List.of(), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSourceAbsent() {
+        ShortestPaths.from(new HashGraph<String>(), "a");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFromEachSourceAbsent() {
+        Graph<String> graph = new HashGraph<>();
+        graph.add("a");
+        ShortestPaths.fromEach(graph, List.of("a", "b"), ForkJoinPool.commonPool());
+    }
+
+}
@@ -0,0 +1,129 @@
+package graph.algo;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.Graph;
+import graph.HashGraph;
+
+/**
+ * Tests for StronglyConnectedComponents.
+ */
+public class StronglyConnectedComponentsTest {
+
+    // Testing strategy
+    //   of: empty graph; isolated vertices, self-loops, cycles, chains of
+    //       components; path deeper than the thread's stack could recurse
+    //   component, connected: label present, absent; same, different
+    //                         component
+    //   components: numbered in reverse topological order
+    //   all: agree with reachability by search on random graphs
+
+    private static Set<String> reachable(Graph<String> graph, String from) {
+        Set<String> seen = new HashSet<>();
+        List<String> pending = new ArrayList<>(List.of(from));
+        seen.add(from);
+        while (!pending.isEmpty()) {
+            for (String next : graph.targets(pending.remove(pending.size() - 1)).keySet()) {
+                if (seen.add(next)) {
+                    pending.add(next);
+                }
+            }
+        }
+        return seen;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        StronglyConnectedComponents<String> components = StronglyConnectedComponents.of(new HashGraph<>());
+        assertEquals(0, components.count());
+        assertEquals(List.of(), components.components());
+        assertEquals(-1, components.component("a"));
+        assertEquals(0, components.largest());
+    }
+
+    @Test
+    public void testIsolatedAndSelfLoops() {
+        Graph<String> graph = new HashGraph<>();
+        graph.add("a");
+        graph.set("b", "b", 1);
+        StronglyConnectedComponents<String> components = StronglyConnectedComponents.of(graph);
+        assertEquals(2, components.count());
+        assertFalse(components.connected("a", "b"));
+        assertTrue(components.connected("b", "b"));
+        assertFalse(components.connected("a", "missing"));
+        assertEquals(1, components.largest());
+    }
+
+    @Test
+    public void testChainOfCycles() {
+        Graph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "a", 1);
+        graph.set("b", "c", 1);
+        graph.set("c", "d", 1);
+        graph.set("d", "e", 1);
+        graph.set("e", "c", 1);
+        graph.set("e", "f", 1);
+        StronglyConnectedComponents<String> components = StronglyConnectedComponents.of(graph);
+        assertEquals(List.of(Set.of("f"), Set.of("c", "d", "e"), Set.of("a", "b")), components.components());
+        assertEquals(2, components.component("a"));
+        assertTrue(components.connected("c", "e"));
+        assertFalse(components.connected("b", "c"));
+        assertEquals(3, components.largest());
+    }
+
+    @Test
+    public void testLongCycle() {
+        Graph<String> graph = new HashGraph<>();
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            graph.set("v" + i, "v" + ((i + 1) % n), 1);
+        }
+        graph.set("v0", "tail", 1);
+        StronglyConnectedComponents<String> components = StronglyConnectedComponents.of(graph);
+        assertEquals(2, components.count());
+        assertEquals(n, components.largest());
+        assertTrue(components.connected("v0", "v" + (n - 1)));
+        assertEquals(0, components.component("tail"));
+    }
+
+    @Test
+    public void testMatchesReachability() {
+        Random random = new Random(20);
+        for (int trial = 0; trial < 40; trial++) {
+            Graph<String> graph = new HashGraph<>();
+            int labels = 1 + random.nextInt(25);
+            for (int i = 0; i < labels; i++) {
+                graph.add("v" + i);
+            }
+            for (int i = random.nextInt(3 * labels); i > 0; i--) {
+                graph.set("v" + random.nextInt(labels), "v" + random.nextInt(labels), 1);
+            }
+            StronglyConnectedComponents<String> components = StronglyConnectedComponents.of(graph);
+            for (String a : graph.vertices()) {
+                Set<String> fromA = reachable(graph, a);
+                for (String b : graph.vertices()) {
+                    boolean expected = fromA.contains(b) && reachable(graph, b).contains(a);
+                    assertEquals(a + ", " + b + " in " + graph, expected, components.connected(a, b));
+                    if (fromA.contains(b)) {
+                        assertTrue(components.component(a) >= components.component(b));
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for BigramCounter.
+ */
+public class BigramCounterTest {
+    
+    // Testing strategy
+    //   corpus: empty, one word, separators only, many words; ASCII and
+    //           multi-byte characters; runs of separators at chunk cuts
+    //   chunk size: 1 byte, a few bytes, larger than the corpus
+    //   pool parallelism: 1, more than 1
+    //   first, last: corpus with no words, one word, many words
+    //   words: in order of first occurrence; last word new, seen before
+    //   pairs: in order of first occurrence, across chunks
+    
+    private static Path write(String text) throws IOException {
+        Path path = Files.createTempFile("corpus", ".txt");
+        path.toFile().deleteOnExit();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+    
+    private static Map<Map.Entry<String, String>, Integer> sequential(String text) throws IOException {
+        Map<Map.Entry<String, String>, Integer> pairs = new LinkedHashMap<>();
+        WordScanner words = new WordScanner(new StringReader(text));
+        String word1 = words.next();
+        for (String word2 = words.next(); word2 != null; word2 = words.next()) {
+            pairs.merge(Map.entry(word1, word2), 1, Integer::sum);
+            word1 = word2;
+        }
+        return pairs;
+    }
+
+    /*
+     * Assert that two maps have the same entries in the same order.
+     */
+    private static void assertSameOrder(String message, Map<Map.Entry<String, String>, Integer> expected,
+            Map<Map.Entry<String, String>, Integer> actual) {
+        assertEquals(message, new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+    
+    private static List<String> firstOccurrences(String text) throws IOException {
+        Set<String> distinct = new LinkedHashSet<>();
+        WordScanner words = new WordScanner(new StringReader(text));
+        for (String word = words.next(); word != null; word = words.next()) {
+            distinct.add(word);
+        }
+        return new ArrayList<>(distinct);
+    }
+    
+    private static String randomText(long seed, int words) {
+        String[] vocabulary = { "the", "The", "cat", "sat", "on", "mat", "caf\u00E9", "na\u00EFve", "\u6F22\u5B57" };
+        String[] separators = { " ", "  ", "\n", "\r\n", "\t", " \u000B " };
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+            text.append(separators[random.nextInt(separators.length)]);
+        }
+        return text.toString();
+    }
+    
+    @Test
+    public void testSmallCorpora() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        for (String text : new String[] { "", "one", "  \n\t ", "a b", "a b a b" }) {
+            for (long chunkSize : new long[] { 1, 3, 1 << 20 }) {
+                assertSameOrder("corpus '" + text + "', chunk size " + chunkSize,
+                        sequential(text), BigramCounter.count(write(text), pool, chunkSize).pairs());
+            }
+        }
+        pool.shutdown();
+    }
+    
+    @Test
+    public void testRandomCorpusMatchesSequential() throws IOException {
+        String text = randomText(42, 20_000);
+        Path corpus = write(text);
+        Map<Map.Entry<String, String>, Integer> expected = sequential(text);
+        for (int parallelism : new int[] { 1, 4 }) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            for (long chunkSize : new long[] { 7, 1000, 0 }) {
+                assertSameOrder("parallelism " + parallelism + ", chunk size " + chunkSize,
+                        expected, BigramCounter.count(corpus, pool, chunkSize).pairs());
+            }
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testFirstAndLastWords() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        for (long chunkSize : new long[] { 1, 5, 1 << 20 }) {
+            BigramCounter.Counts none = BigramCounter.count(write(" \n "), pool, chunkSize);
+            assertNull(none.first());
+            assertNull(none.last());
+            BigramCounter.Counts one = BigramCounter.count(write(" One "), pool, chunkSize);
+            assertEquals("one", one.first());
+            assertEquals("one", one.last());
+            BigramCounter.Counts many = BigramCounter.count(write("The cat sat on the Mat\n"), pool, chunkSize);
+            assertEquals("the", many.first());
+            assertEquals("mat", many.last());
+        }
+        pool.shutdown();
+    }
+    
+    @Test
+    public void testWordsInOrderOfFirstOccurrence() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        String text = randomText(7, 5_000) + " brand-new-last-word";
+        for (String corpus : new String[] { "", "one", "b a b c", "b a b a", text }) {
+            for (long chunkSize : new long[] { 1, 7, 1000, 1 << 20 }) {
+                assertEquals("corpus '" + corpus.substring(0, Math.min(20, corpus.length()))
+                        + "', chunk size " + chunkSize,
+                        firstOccurrences(corpus), BigramCounter.count(write(corpus), pool, chunkSize).words());
+            }
+        }
+        pool.shutdown();
+    }
+    
+}
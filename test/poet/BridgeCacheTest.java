@@ -0,0 +1,163 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for BridgeCache.
+ */
+public class BridgeCacheTest {
+    
+    // Testing strategy
+    //   get: hit, miss; pair with a bridge, pair without a bridge
+    //   eviction: cache below capacity, at capacity; recently used entries
+    //             survive
+    //   maxEntries: 1, fewer than the number of segments, many; not positive
+    //   invalidate, clear: entry present, absent; while the pair's bridge
+    //                      is being computed
+    //   concurrency: many threads looking up overlapping pairs
+    
+    private static Bridge<String> bridgeOf(String first, String second) {
+        return second.equals("none") ? null : new Bridge<>(first + "-" + second, 2);
+    }
+    
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+    
+    @Test
+    public void testHitsAndMisses() {
+        BridgeCache<String> cache = new BridgeCache<>(100);
+        AtomicInteger computed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new Bridge<>("a-b", 2), cache.get("a", "b", (x, y) -> {
+                computed.incrementAndGet();
+                return bridgeOf(x, y);
+            }));
+        }
+        assertEquals("expected one computation", 1, computed.get());
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.size());
+        assertEquals(2.0 / 3, stats.hitRate(), 1e-9);
+    }
+    
+    @Test
+    public void testNegativeResultsCached() {
+        BridgeCache<String> cache = new BridgeCache<>(100);
+        AtomicInteger computed = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            assertNull(cache.get("a", "none", (x, y) -> {
+                computed.incrementAndGet();
+                return bridgeOf(x, y);
+            }));
+        }
+        assertEquals("expected one computation", 1, computed.get());
+        assertEquals(1, cache.stats().hitCount());
+    }
+    
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        BridgeCache<String> cache = new BridgeCache<>(1);
+        cache.get("a", "b", BridgeCacheTest::bridgeOf);
+        cache.get("c", "d", BridgeCacheTest::bridgeOf);
+        cache.get("c", "d", BridgeCacheTest::bridgeOf);
+        cache.get("a", "b", BridgeCacheTest::bridgeOf);
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.size());
+        assertEquals(2, stats.evictionCount());
+        assertEquals(1, stats.hitCount());
+        assertEquals(3, stats.missCount());
+    }
+    
+    @Test
+    public void testSizeBounded() {
+        for (int maxEntries : new int[] { 1, 5, 16, 1000 }) {
+            BridgeCache<String> cache = new BridgeCache<>(maxEntries);
+            for (int i = 0; i < 5000; i++) {
+                cache.get("w" + i, "x", BridgeCacheTest::bridgeOf);
+            }
+            CacheStats stats = cache.stats();
+            assertTrue("size " + stats.size() + " over " + maxEntries, stats.size() <= maxEntries);
+            assertEquals(5000 - stats.size(), stats.evictionCount());
+        }
+    }
+    
+    @Test
+    public void testInvalidateAndClear() {
+        BridgeCache<String> cache = new BridgeCache<>(10);
+        cache.get("a", "b", BridgeCacheTest::bridgeOf);
+        cache.get("c", "d", BridgeCacheTest::bridgeOf);
+        cache.invalidate("a", "b");
+        cache.invalidate("x", "y");
+        assertEquals(1, cache.stats().size());
+        cache.clear();
+        assertEquals(0, cache.stats().size());
+        assertEquals(2, cache.stats().missCount());
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testNonPositiveMaxEntries() {
+        new BridgeCache<String>(0);
+    }
+    
+    @Test
+    public void testConcurrentLookups() throws InterruptedException {
+        BridgeCache<String> cache = new BridgeCache<>(50);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    String first = "w" + (i % 97);
+                    Bridge<String> bridge = cache.get(first, "x", BridgeCacheTest::bridgeOf);
+                    if (!bridge.equals(bridgeOf(first, "x"))) {
+                        throw new AssertionError("wrong bridge " + bridge + " for " + first);
+                    }
+                }
+            });
+            thread.setUncaughtExceptionHandler((th, e) -> {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(), failures);
+        CacheStats stats = cache.stats();
+        assertEquals(8 * 20_000, stats.hitCount() + stats.missCount());
+        assertTrue(stats.size() <= 50);
+    }
+    
+    @Test
+    public void testInvalidateDuringComputeIsNotCached() {
+        BridgeCache<String> cache = new BridgeCache<>(100);
+        AtomicInteger computed = new AtomicInteger();
+        cache.get("a", "b", (x, y) -> {
+            computed.incrementAndGet();
+            cache.invalidate("a", "b");
+            return bridgeOf(x, y);
+        });
+        cache.get("a", "b", (x, y) -> {
+            computed.incrementAndGet();
+            return bridgeOf(x, y);
+        });
+        cache.get("a", "b", (x, y) -> {
+            computed.incrementAndGet();
+            return bridgeOf(x, y);
+        });
+        assertEquals("only the lookup after the invalidation should be cached", 2, computed.get());
+    }
+    
+}
@@ -0,0 +1,276 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import org.junit.Test;
+
+import graph.HashGraph;
+import graph.IndexedGraph;
+
+/**
+ * Tests for BridgePathSearch.
+ */
+public class BridgePathSearchTest {
+
+    // Testing strategy
+    //   maxWords: 1, 2, 3, 4; not positive
+    //   maxFrontier: smaller than the number of walks, enough for every
+    //                walk; not positive
+    //   best bridge: none, one word, several words; heavier longer bridge,
+    //                longer bridge of equal weight; walk through a
+    //                self-loop, through word1 or word2
+    //   find: pair asked for once, twice
+    //   Memo: shared by searches with the same limits, different limits;
+    //         cleared; full; maxEntries not positive
+
+    /**
+     * The best one-word bridge, as GraphPoet chooses it: the heaviest, the
+     * first visited among equals.
+     */
+    private static Bridge<String> oneWord(IndexedGraph<String> graph, String word1, String word2) {
+        Bridge<?>[] best = { null };
+        graph.forEachTarget(word1, (candidate, first) -> {
+            int second = graph.weight(candidate, word2);
+            if (second > 0 && (best[0] == null || first + second > best[0].weight())) {
+                best[0] = new Bridge<>(candidate, first + second);
+            }
+        });
+        @SuppressWarnings("unchecked")
+        Bridge<String> bridge = (Bridge<String>) best[0];
+        return bridge;
+    }
+
+    private static BridgePathSearch<String> search(IndexedGraph<String> graph, int maxWords, int maxFrontier) {
+        return new BridgePathSearch<>(graph, maxWords, maxFrontier, (a, b) -> oneWord(graph, a, b));
+    }
+
+    /**
+     * @return total weight of the walk word1, words..., word2, or -1 if it
+     *         is not a walk in graph
+     */
+    private static long weight(IndexedGraph<String> graph, String word1, List<String> words, String word2) {
+        List<String> walk = new ArrayList<>();
+        walk.add(word1);
+        walk.addAll(words);
+        walk.add(word2);
+        long total = 0;
+        for (int i = 1; i < walk.size(); i++) {
+            int weight = graph.weight(walk.get(i - 1), walk.get(i));
+            if (weight == 0) {
+                return -1;
+            }
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Find the weight and length of the best bridge by trying every walk.
+     *
+     * @return { weight, words }, or { 0, 0 } if there is no bridge
+     */
+    private static long[] bruteForce(IndexedGraph<String> graph, String word1, String word2, int maxWords) {
+        long[] best = { 0, 0 };
+        extend(graph, word1, word2, 0, 0, maxWords, best);
+        return best;
+    }
+
+    private static void extend(IndexedGraph<String> graph, String from, String word2,
+            long weight, int words, int maxWords, long[] best) {
+        if (words == maxWords) {
+            return;
+        }
+        graph.forEachTarget(from, (next, first) -> {
+            int last = graph.weight(next, word2);
+            long total = weight + first + last;
+            if (last > 0 && (total > best[0] || total == best[0] && words + 1 < best[1])) {
+                best[0] = total;
+                best[1] = words + 1;
+            }
+            extend(graph, next, word2, weight + first, words + 1, maxWords, best);
+        });
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testOneWordUsesGivenBridge() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("a", "x", 1);
+        graph.set("x", "y", 5);
+        graph.set("y", "c", 5);
+        assertEquals(List.of("b"), search(graph, 1, 10).find("a", "c"));
+        assertEquals(List.of(), search(graph, 1, 10).find("c", "a"));
+    }
+
+    @Test
+    public void testHeavierLongerBridge() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("a", "x", 1);
+        graph.set("x", "y", 5);
+        graph.set("y", "c", 5);
+        assertEquals(List.of("x", "y"), search(graph, 2, 10).find("a", "c"));
+        assertEquals(List.of("x", "y"), search(graph, 4, 10).find("a", "c"));
+    }
+
+    @Test
+    public void testEqualWeightPrefersFewerWords() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 3);
+        graph.set("b", "c", 3);
+        graph.set("a", "x", 2);
+        graph.set("x", "y", 2);
+        graph.set("y", "c", 2);
+        assertEquals(List.of("b"), search(graph, 3, 10).find("a", "c"));
+    }
+
+    @Test
+    public void testOnlyLongBridges() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("c", "d", 1);
+        graph.set("d", "e", 1);
+        assertEquals(List.of(), search(graph, 2, 10).find("a", "e"));
+        assertEquals(List.of("b", "c", "d"), search(graph, 3, 10).find("a", "e"));
+    }
+
+    @Test
+    public void testWalkThroughSelfLoop() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "b", 10);
+        graph.set("b", "c", 1);
+        assertEquals(List.of("b", "b"), search(graph, 2, 10).find("a", "c"));
+        assertEquals(List.of("b", "b", "b", "b"), search(graph, 4, 10).find("a", "c"));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(8);
+        for (int trial = 0; trial < 30; trial++) {
+            IndexedGraph<String> graph = new HashGraph<>();
+            for (int i = 0; i < 40; i++) {
+                graph.set("v" + random.nextInt(8), "v" + random.nextInt(8), 1 + random.nextInt(20));
+            }
+            for (int maxWords = 1; maxWords <= 4; maxWords++) {
+                BridgePathSearch<String> search = search(graph, maxWords, 1000);
+                for (String word1 : graph.vertices()) {
+                    for (String word2 : graph.vertices()) {
+                        List<String> bridge = search.find(word1, word2);
+                        long[] best = bruteForce(graph, word1, word2, maxWords);
+                        String pair = word1 + " -> " + word2 + " in " + graph + ", " + maxWords + " words";
+                        assertEquals(pair, best[1], bridge.size());
+                        if (!bridge.isEmpty()) {
+                            assertEquals(pair, best[0], weight(graph, word1, bridge, word2));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSmallFrontierFindsValidBridge() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        for (int i = 0; i < 200; i++) {
+            graph.set("the", "w" + i, 1 + i % 7);
+            graph.set("w" + i, "x" + i, 1 + i % 5);
+            graph.set("x" + i, "end", 1 + i % 3);
+        }
+        List<String> bridge = search(graph, 3, 4).find("the", "end");
+        assertEquals(2, bridge.size());
+        assertTrue(weight(graph, "the", bridge, "end") > 0);
+        List<String> best = search(graph, 3, 1000).find("the", "end");
+        assertEquals(bruteForce(graph, "the", "end", 3)[0], weight(graph, "the", best, "end"));
+    }
+
+    @Test
+    public void testFindRemembersPairs() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        int[] calls = { 0 };
+        BridgePathSearch<String> search = new BridgePathSearch<>(graph, 2, 10, (a, b) -> {
+            calls[0]++;
+            return oneWord(graph, a, b);
+        });
+        assertEquals(List.of("b"), search.find("a", "c"));
+        assertEquals(List.of("b"), search.find("a", "c"));
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void testSharedMemo() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        int[] calls = { 0 };
+        BiFunction<String, String, Bridge<String>> counting = (a, b) -> {
+            calls[0]++;
+            return oneWord(graph, a, b);
+        };
+        BridgePathSearch.Memo<String> memo = new BridgePathSearch.Memo<>(10);
+        assertEquals(List.of("b"), new BridgePathSearch<>(graph, 2, 10, counting, memo).find("a", "c"));
+        assertEquals(List.of("b"), new BridgePathSearch<>(graph, 2, 10, counting, memo).find("a", "c"));
+        assertEquals("expected the second search to use the memo", 1, calls[0]);
+        assertEquals(List.of("b"), new BridgePathSearch<>(graph, 3, 10, counting, memo).find("a", "c"));
+        assertEquals("expected other limits to search again", 2, calls[0]);
+        assertEquals(2, memo.size());
+        memo.clear();
+        assertEquals(0, memo.size());
+        assertEquals(List.of("b"), new BridgePathSearch<>(graph, 2, 10, counting, memo).find("a", "c"));
+        assertEquals("expected a cleared memo to search again", 3, calls[0]);
+    }
+
+    @Test
+    public void testMemoForgetsLeastRecentlyUsed() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        BridgePathSearch.Memo<String> memo = new BridgePathSearch.Memo<>(2);
+        BridgePathSearch<String> search = new BridgePathSearch<>(graph, 2, 10, (a, b) -> oneWord(graph, a, b), memo);
+        search.find("a", "c");
+        search.find("c", "a");
+        search.find("a", "c");
+        search.find("b", "a");
+        assertEquals("expected at most maxEntries bridges", 2, memo.size());
+        int[] calls = { 0 };
+        BridgePathSearch<String> counting = new BridgePathSearch<>(graph, 2, 10, (a, b) -> {
+            calls[0]++;
+            return oneWord(graph, a, b);
+        }, memo);
+        counting.find("a", "c");
+        assertEquals("expected the recently used pair kept", 0, calls[0]);
+        counting.find("c", "a");
+        assertEquals("expected the least recently used pair forgotten", 1, calls[0]);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMemoMaxEntriesNotPositive() {
+        new BridgePathSearch.Memo<String>(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaxWordsNotPositive() {
+        search(new HashGraph<>(), 0, 10);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaxFrontierNotPositive() {
+        search(new HashGraph<>(), 2, 0);
+    }
+
+}
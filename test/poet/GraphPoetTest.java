@@ -2,8 +2,19 @@ package poet;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
@@ -13,9 +24,9 @@ public class GraphPoetTest {
 	
 
 	private File createTempFile(String content) throws IOException {
-//		File tempFile = File.createTempFile("corpus", ".txt");
-//		java.nio.file.Files.write(tempFile.toPath(), content.getBytes("UTF-8"));
-//		tempFile.deleteOnExit();
+		File tempFile = File.createTempFile("corpus", ".txt");
+		java.nio.file.Files.write(tempFile.toPath(), content.getBytes("UTF-8"));
+		tempFile.deleteOnExit();
 		return tempFile;
 	}
 
@@ -27,65 +38,536 @@ public class GraphPoetTest {
 
     @Test
     public void testConstructorWithEmptyCorpus() throws IOException {
-        //File emptyCorpus = createTempFile("");
-        //GraphPoet poet = new GraphPoet(emptyCorpus);
-       // assertNotNull("GraphPoet should initialize properly with an empty corpus.", poet);\
-        assert true;
+        File emptyCorpus = createTempFile("");
+        GraphPoet poet = new GraphPoet(emptyCorpus);
+        assertNotNull("GraphPoet should initialize properly with an empty corpus.", poet);
     }
 
     @Test
     public void testConstructorWithUniqueWordsCorpus() throws IOException {
-//        File corpus = createTempFile("Hello world");
-//        GraphPoet poet = new GraphPoet(corpus);
-//        assertNotNull("GraphPoet should initialize properly with a valid corpus.", poet);
-        assert true;
+        File corpus = createTempFile("Hello world");
+        GraphPoet poet = new GraphPoet(corpus);
+        assertNotNull("GraphPoet should initialize properly with a valid corpus.", poet);
     }
 
     @Test
     public void testConstructorWithRepetitiveWordsCorpus() throws IOException {
-//        File corpus = createTempFile("Hello hello world hello");
-//        GraphPoet poet = new GraphPoet(corpus);
-//        assertNotNull("GraphPoet should initialize properly with repetitive words.", poet);
-        assert true;
+        File corpus = createTempFile("Hello hello world hello");
+        GraphPoet poet = new GraphPoet(corpus);
+        assertNotNull("GraphPoet should initialize properly with repetitive words.", poet);
     }
 
     @Test
     public void testPoemWithNoBridgeWords() throws IOException {
-//        File corpus = createTempFile("Hello world");
-//        GraphPoet poet = new GraphPoet(corpus);
-//        String input = "Goodbye universe";
-//        String poem = poet.poem(input);
-//        assertEquals("Poem should match the input when no bridge words exist.", input, poem);\
-        assert true;
+        File corpus = createTempFile("Hello world");
+        GraphPoet poet = new GraphPoet(corpus);
+        String input = "Goodbye universe";
+        String poem = poet.poem(input);
+        assertEquals("Poem should match the input when no bridge words exist.", input, poem);
     }
 
     @Test
     public void testPoemWithBridgeWords() throws IOException {
-//        File corpus = createTempFile("To explore strange new worlds");
-//        GraphPoet poet = new GraphPoet(corpus);
-//        String input = "Explore new frontiers";
-//        String expectedPoem = "Explore strange new frontiers";
-//        assertEquals("Poem should correctly insert bridge words.", expectedPoem, poet.poem(input));
-        assert true;
+        File corpus = createTempFile("To explore strange new worlds");
+        GraphPoet poet = new GraphPoet(corpus);
+        String input = "Explore new frontiers";
+        String expectedPoem = "Explore strange new frontiers";
+        assertEquals("Poem should correctly insert bridge words.", expectedPoem, poet.poem(input));
     }
 
     @Test
     public void testPoemWithCaseInsensitiveCorpus() throws IOException {
-//        File corpus = createTempFile("Hello HELLO world");
-//        GraphPoet poet = new GraphPoet(corpus);
-//        String input = "hello world";
-//        String expectedPoem = "hello hello world";
-//        assertEquals("Poem should respect case-insensitivity of words.", expectedPoem, poet.poem(input));
-        assert true;
+        File corpus = createTempFile("Hello HELLO world");
+        GraphPoet poet = new GraphPoet(corpus);
+        String input = "hello world";
+        String expectedPoem = "hello hello world";
+        assertEquals("Poem should respect case-insensitivity of words.", expectedPoem, poet.poem(input));
     }
 
     @Test
     public void testPoemWithNonexistentEdges() throws IOException {
-//        File corpus = createTempFile("This is a test");
-//        GraphPoet poet = new GraphPoet(corpus);
-//        String input = "No matching words here";
-//        String poem = poet.poem(input);
-//        assertEquals("Poem should match input when no edges exist in the graph.", input, poem);
-        assert true;
+        File corpus = createTempFile("This is a test");
+        GraphPoet poet = new GraphPoet(corpus);
+        String input = "No matching words here";
+        String poem = poet.poem(input);
+        assertEquals("Poem should match input when no edges exist in the graph.", input, poem);
+    }
+
+    @Test
+    public void testPoemFromStreamedCorpus() throws IOException {
+        String corpus = "To explore\tstrange\r\nnew   worlds";
+        GraphPoet poet = new GraphPoet(new ByteArrayInputStream(corpus.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("Poem should match one built from a file.",
+                new GraphPoet(createTempFile(corpus)).poem("Explore new frontiers"),
+                poet.poem("Explore new frontiers"));
+    }
+
+    @Test
+    public void testPoemFromCorpusLargerThanBuffer() throws IOException {
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            corpus.append("filler").append(i).append(' ');
+        }
+        corpus.append("To explore strange new worlds");
+        GraphPoet poet = new GraphPoet(createTempFile(corpus.toString()).toPath());
+        assertEquals("Poem should use pairs from the end of a long corpus.",
+                "Explore strange new frontiers", poet.poem("Explore new frontiers"));
+    }
+
+    @Test
+    public void testParallelBuildBreaksTiesAsSequential() throws IOException {
+        // b and q tie as bridges from a to z; q is interned 16 words after
+        // b, so their IDs share a bin of the targets of a, which then keeps
+        // them in the order they were added
+        StringBuilder corpus = new StringBuilder("a b z");
+        for (int i = 1; i <= 14; i++) {
+            corpus.append(" f").append(i);
+        }
+        corpus.append(" a q z");
+        File file = createTempFile(corpus.toString());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        assertEquals("a b z", new GraphPoet(file).poem("a z"));
+        for (long chunkSize : new long[] { 1, 8, 0 }) {
+            assertEquals("Parallel build with chunk size " + chunkSize + " should pick the same bridge.",
+                    "a b z", new GraphPoet(file.toPath(), pool, chunkSize).poem("a z"));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testParallelBuildMatchesSequential() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (long seed = 0; seed < 3; seed++) {
+            File corpus = createTempFile(randomCorpus(seed, 500, WORDS.length));
+            GraphPoet sequential = new GraphPoet(corpus);
+            for (long chunkSize : new long[] { 16, 200 }) {
+                GraphPoet parallel = new GraphPoet(corpus.toPath(), pool, chunkSize);
+                assertSamePoems("Parallel build with chunk size " + chunkSize + " should give the same poem",
+                        sequential, parallel);
+                String input = randomCorpus(seed + 100, 50, WORDS.length);
+                assertEquals("Parallel build with chunk size " + chunkSize + " should give the same bridges",
+                        sequential.poem(input, 3, 4), parallel.poem(input, 3, 4));
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testPrecomputedBridgesInsertBridgeWords() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("To explore strange new worlds"));
+        poet.precomputeBridges();
+        assertEquals("Precomputed bridges should be inserted.",
+                "Explore strange new frontiers", poet.poem("Explore new frontiers"));
+        assertEquals("Pairs without bridges should be unchanged.",
+                "Goodbye universe", poet.poem("Goodbye universe"));
+    }
+
+    @Test
+    public void testPrecomputedBridgesKeepTieBreaking() throws IOException {
+        // many equal-weight bridges between the same pair of words
+        String[] words = { "a", "b", "c", "d", "e", "f", "g", "h" };
+        Random random = new Random(7);
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            corpus.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        File file = createTempFile(corpus.toString());
+        GraphPoet searching = new GraphPoet(file);
+        GraphPoet indexed = new GraphPoet(file);
+        indexed.precomputeBridges();
+        for (String word1 : words) {
+            for (String word2 : words) {
+                String input = word1 + " " + word2.toUpperCase() + " " + word1;
+                assertEquals("Precomputed bridges should give the same poem for " + input,
+                        searching.poem(input), indexed.poem(input));
+            }
+        }
+    }
+
+    @Test
+    public void testCachedBridgesGiveSamePoems() throws IOException {
+        File corpus = new File("src/poet/mugar-omni-theater.txt");
+        GraphPoet searching = new GraphPoet(corpus);
+        GraphPoet cached = new GraphPoet(corpus);
+        assertNull("No cache should be enabled by default.", cached.bridgeCacheStats());
+        cached.cacheBridges(4);
+        String input = "Test the system. It was a theater with a new hemisphere!";
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Cached bridges should give the same poem.", searching.poem(input), cached.poem(input));
+        }
+        CacheStats stats = cached.bridgeCacheStats();
+        assertEquals("Every pair should be looked up.", 3 * 10, stats.hitCount() + stats.missCount());
+        assertTrue("The cache should stay within its size.", stats.size() <= 4);
+        assertTrue("A small cache should evict.", stats.evictionCount() > 0);
+    }
+
+    @Test
+    public void testSnapshotGivesSamePoems() throws IOException {
+        File corpus = new File("src/poet/mugar-omni-theater.txt");
+        GraphPoet original = new GraphPoet(corpus);
+        File snapshot = createTempFile("");
+        original.saveSnapshot(snapshot.toPath());
+        GraphPoet restored = GraphPoet.fromSnapshot(snapshot.toPath());
+        String[] inputs = {
+            "Test the system. It was a theater with a new hemisphere!",
+            "Hemisphere of the theater",
+            "Nothing here matches",
+        };
+        for (String input : inputs) {
+            assertEquals("A poet from a snapshot should give the same poem.", original.poem(input), restored.poem(input));
+        }
+        restored.precomputeBridges();
+        assertEquals("Bridges precomputed from a snapshot should give the same poem.",
+                original.poem(inputs[0]), restored.poem(inputs[0]));
+    }
+
+    @Test
+    public void testSnapshotSavedOverItself() throws IOException {
+        GraphPoet original = new GraphPoet(new File("src/poet/mugar-omni-theater.txt"));
+        File snapshot = createTempFile("");
+        original.saveSnapshot(snapshot.toPath());
+        GraphPoet restored = GraphPoet.fromSnapshot(snapshot.toPath());
+        String input = "Test the system. It was a theater with a new hemisphere!";
+        restored.saveSnapshot(snapshot.toPath());
+        assertEquals("A poet should still read its snapshot after saving over it.",
+                original.poem(input), restored.poem(input));
+        assertEquals("The saved snapshot should give the same poem.",
+                original.poem(input), GraphPoet.fromSnapshot(snapshot.toPath()).poem(input));
+        new GraphPoet(createTempFile("a much smaller corpus")).saveSnapshot(snapshot.toPath());
+        assertEquals("A poet should still read its snapshot after another is saved over it.",
+                original.poem(input), restored.poem(input));
+        String[] leftovers = snapshot.getParentFile().list(
+                (directory, name) -> name.startsWith(snapshot.getName()) && name.endsWith(".tmp"));
+        assertEquals("Saving should leave no temporary file.", 0, leftovers.length);
+    }
+
+    @Test
+    public void testSnapshotKeepsTieBreaking() throws IOException {
+        String[] words = { "a", "b", "c", "d", "e", "f", "g", "h" };
+        Random random = new Random(11);
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            corpus.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        GraphPoet original = new GraphPoet(createTempFile(corpus.toString()));
+        File snapshot = createTempFile("");
+        original.saveSnapshot(snapshot.toPath());
+        GraphPoet restored = GraphPoet.fromSnapshot(snapshot.toPath());
+        for (String word1 : words) {
+            for (String word2 : words) {
+                String input = word1 + " " + word2 + " " + word1;
+                assertEquals("A poet from a snapshot should break ties the same way for " + input,
+                        original.poem(input), restored.poem(input));
+            }
+        }
+    }
+
+    // more than 16 words, so that the IDs of some share a bin of a hash
+    // table, where ties between bridges depend on the order of insertion
+    private static final String[] WORDS = {
+        "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l",
+        "m", "n", "o", "p", "q", "r", "s", "t", "u", "v", "w", "x",
+    };
+
+    private static String randomCorpus(long seed, int length) {
+        return randomCorpus(seed, length, 8);
+    }
+
+    /**
+     * @return random text of length words from the first vocabulary of WORDS
+     */
+    private static String randomCorpus(long seed, int length, int vocabulary) {
+        Random random = new Random(seed);
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            corpus.append(WORDS[random.nextInt(vocabulary)]).append(random.nextInt(5) == 0 ? "\n" : " ");
+        }
+        return corpus.toString();
+    }
+
+    private static void assertSamePoems(String message, GraphPoet expected, GraphPoet actual) {
+        List<String> words = new ArrayList<>(List.of(WORDS));
+        words.add("z");
+        for (String word1 : words) {
+            for (String word2 : words) {
+                String input = word1 + " " + word2 + " " + word1;
+                assertEquals(message + " for " + input, expected.poem(input), actual.poem(input));
+            }
+        }
+    }
+
+    @Test
+    public void testFeedCarriesLastWordAcrossFeeds() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("To explore strange"));
+        assertEquals("Explore new frontiers", poet.poem("Explore new frontiers"));
+        poet.feed("new");
+        poet.feed("  worlds ");
+        assertEquals("Pairs spanning feeds should be counted.",
+                "Explore strange new frontiers", poet.poem("Explore new frontiers"));
+        assertEquals("Pairs spanning feeds should be counted.",
+                "Strange new worlds", poet.poem("Strange worlds"));
+    }
+
+    @Test
+    public void testFeedOnEmptyPoet() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile(""));
+        poet.feed("");
+        poet.feed("To explore");
+        poet.feed(createTempFile("strange new worlds").toPath());
+        assertEquals("Explore strange new frontiers", poet.poem("Explore new frontiers"));
+    }
+
+    @Test
+    public void testFeedMatchesWholeCorpus() throws IOException {
+        String[] parts = new String[6];
+        StringBuilder whole = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = randomCorpus(i, 300, WORDS.length);
+            whole.append(parts[i]);
+        }
+        GraphPoet expected = new GraphPoet(createTempFile(whole.toString()));
+        GraphPoet searching = new GraphPoet(createTempFile(parts[0]));
+        // built in parallel from several chunks
+        GraphPoet indexed = new GraphPoet(createTempFile(parts[0]).toPath(), new ForkJoinPool(2), 100);
+        indexed.precomputeBridges();
+        GraphPoet cached = new GraphPoet(createTempFile(parts[0]));
+        cached.cacheBridges(1000);
+        for (int i = 1; i < parts.length; i++) {
+            assertSamePoems("Cached bridges should be up to date before a feed", searching, cached);
+            searching.feed(parts[i]);
+            indexed.feed(parts[i]);
+            cached.feed(parts[i]);
+            assertSamePoems("Precomputed bridges should be updated by a feed", searching, indexed);
+        }
+        assertSamePoems("Feeding parts should be the same as reading the whole corpus", expected, searching);
+        assertSamePoems("Precomputed bridges should match the whole corpus", expected, indexed);
+        assertSamePoems("Cached bridges should match the whole corpus", expected, cached);
+    }
+
+    @Test
+    public void testPoemsDuringFeed() throws Exception {
+        GraphPoet poet = new GraphPoet(createTempFile(randomCorpus(1, 100)));
+        poet.cacheBridges(50);
+        Thread feeder = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                poet.feed(randomCorpus(100 + i, 200));
+            }
+        });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        feeder.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        feeder.start();
+        while (feeder.isAlive()) {
+            String poem = poet.poem("a b c d e f g h");
+            assertTrue(poem, poem.startsWith("a ") && poem.endsWith(" h"));
+        }
+        feeder.join();
+        assertNull(failure.get());
+        StringBuilder whole = new StringBuilder(randomCorpus(1, 100));
+        for (int i = 0; i < 50; i++) {
+            whole.append(randomCorpus(100 + i, 200));
+        }
+        assertSamePoems("Cached bridges should be up to date after the feed",
+                new GraphPoet(createTempFile(whole.toString())), poet);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFeedSnapshotUnsupported() throws IOException {
+        GraphPoet original = new GraphPoet(createTempFile("To explore strange new worlds"));
+        File snapshot = createTempFile("");
+        original.saveSnapshot(snapshot.toPath());
+        GraphPoet.fromSnapshot(snapshot.toPath()).feed("more words");
+    }
+
+    @Test
+    public void testPoemWhitespaceEdgeCases() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("To explore strange new worlds"));
+        assertEquals("", poet.poem(""));
+        assertEquals("Explore strange new", poet.poem("Explore   new\t\n"));
+        assertEquals("Leading whitespace should give an empty first word.",
+                " Explore strange new", poet.poem("  Explore new"));
+        assertEquals("Explore", poet.poem("Explore"));
+        assertEquals("Other whitespace should separate words.",
+                "Explore strange new", poet.poem("Explore\u000B\fnew\r"));
+        assertEquals("Other space characters should not separate words.",
+                "Explore\u00A0new", poet.poem("Explore\u00A0new"));
+    }
+
+    @Test
+    public void testPoemOfOnlyWhitespace() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("To explore strange new worlds"));
+        assertEquals("Only whitespace should give an empty poem.", "", poet.poem(" \t "));
+        assertEquals("Only whitespace should give an empty poem.", "", poet.poem(" \n", 2, 8));
+        assertEquals("Only whitespace should give an empty poem in a batch.",
+                List.of("", "explore strange new", ""), poet.poems(List.of(" ", "explore new", "\t\t")));
+    }
+
+    @Test
+    public void testPoemSplitsLikeRegex() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile(""));
+        char[] alphabet = { 'a', 'B', 'I', '\u00C9', ' ', ' ', '\t', '\n', '\u000B', '\u00A0' };
+        Random random = new Random(9);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder input = new StringBuilder();
+            for (int j = random.nextInt(8); j >= 0; j--) {
+                input.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String[] words = input.toString().split("\\s+");
+            if (words.length > 0) {
+                assertEquals("Poem of '" + input + "'", String.join(" ", words), poet.poem(input.toString()));
+            }
+        }
+    }
+
+    @Test
+    public void testPoemLowercasesEachWord() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("\u00C9t\u00E9 to explore strange new worlds"));
+        assertEquals("ExPLORE strange NEW", poet.poem("ExPLORE NEW"));
+        assertEquals("\u00C9T\u00C9 to explore", poet.poem("\u00C9T\u00C9 explore"));
+    }
+
+    @Test
+    public void testPoemsMatchPoem() throws Exception {
+        GraphPoet poet = new GraphPoet(new File("src/poet/mugar-omni-theater.txt"));
+        List<String> inputs = new ArrayList<>();
+        Random random = new Random(3);
+        String[] words = { "Test", "the", "system.", "It", "was", "a", "theater", "with", "new", "hemisphere!", "nothing" };
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder input = new StringBuilder(random.nextInt(4) == 0 ? " " : "");
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                input.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : "\t ");
+            }
+            inputs.add(input.toString());
+        }
+        inputs.add("");
+        List<String> expected = new ArrayList<>();
+        for (String input : inputs) {
+            expected.add(poet.poem(input));
+        }
+        assertEquals("Batch poems should match single poems.", expected, poet.poems(inputs));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals("Parallel batch poems should match single poems.", expected, poet.poems(inputs, executor));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(List.of(), poet.poems(List.of()));
+    }
+
+    @Test
+    public void testPoemsLookUpEachPairOnce() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("To explore strange new worlds"));
+        poet.cacheBridges(100);
+        List<String> poems = poet.poems(List.of("Explore new frontiers", "EXPLORE NEW worlds", "explore new"),
+                ForkJoinPool.commonPool());
+        assertEquals(List.of("Explore strange new frontiers", "EXPLORE strange NEW worlds", "explore strange new"), poems);
+        CacheStats stats = poet.bridgeCacheStats();
+        assertEquals("Each distinct pair should be looked up once.", 3, stats.hitCount() + stats.missCount());
+    }
+
+    @Test
+    public void testGenerateFollowsOnlyChoice() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("To explore strange new worlds"));
+        assertEquals("explore strange new", poet.generate("Explore", 3, 1));
+        assertEquals("Text should stop at a word that nothing follows.",
+                "to explore strange new worlds", poet.generate("to", 100, 1));
+        assertEquals("worlds", poet.generate("worlds", 5, 1));
+        assertEquals("Text should stop at once for a word not in the corpus.",
+                "frontiers", poet.generate("Frontiers", 5, 1));
+    }
+
+    @Test
+    public void testGenerateIsReproducible() throws IOException {
+        String corpus = randomCorpus(11, 5000);
+        GraphPoet poet = new GraphPoet(createTempFile(corpus));
+        String text = poet.generate("a", 200, 99);
+        assertEquals(text, poet.generate("A", 200, 99));
+        assertNotEquals(text, poet.generate("a", 200, 100));
+        String[] words = text.split(" ");
+        assertEquals(200, words.length);
+        assertEquals("a", words[0]);
+        String[] corpusWords = corpus.split("\\s+");
+        Set<String> pairs = new HashSet<>();
+        for (int i = 1; i < corpusWords.length; i++) {
+            pairs.add(corpusWords[i - 1] + " " + corpusWords[i]);
+        }
+        for (int i = 1; i < words.length; i++) {
+            assertTrue("Each word should follow the one before in the corpus.",
+                    pairs.contains(words[i - 1] + " " + words[i]));
+        }
+    }
+
+    @Test
+    public void testGenerateAfterFeed() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("a b"));
+        assertEquals("a b", poet.generate("a", 3, 1));
+        poet.feed("c");
+        assertEquals("Text should reflect the fed corpus.", "a b c", poet.generate("a", 3, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGenerateRejectsNonPositiveLength() throws IOException {
+        new GraphPoet(createTempFile("a b")).generate("a", 0, 1);
+    }
+
+    @Test
+    public void testMultiWordBridges() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("to seek out strange new worlds, to seek new life"));
+        assertEquals("To seek new life", poet.poem("To new life", 1, 100));
+        assertEquals("Seek out strange new life", poet.poem("Seek new life", 3, 100));
+        assertEquals("Bridges should have at most maxBridgeWords words.",
+                "seek new", poet.poem("seek new", 1, 100));
+        assertEquals("seek out strange new", poet.poem("seek new", 2, 100));
+    }
+
+    @Test
+    public void testOneWordBridgesMatchPoem() throws IOException {
+        for (long seed = 0; seed < 3; seed++) {
+            GraphPoet poet = new GraphPoet(createTempFile(randomCorpus(seed, 2000)));
+            String input = randomCorpus(seed + 100, 50);
+            assertEquals(poet.poem(input), poet.poem(input, 1, 1));
+            poet.precomputeBridges();
+            assertEquals(poet.poem(input), poet.poem(input, 1, 1));
+            String longer = poet.poem(input, 3, 1000);
+            assertTrue(longer.split(" ").length >= poet.poem(input).split(" ").length);
+        }
+    }
+
+    @Test
+    public void testMultiWordBridgesAfterFeed() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("seek out strange new"));
+        assertEquals("seek out strange new", poet.poem("seek new", 2, 100));
+        assertEquals("seek out strange new", poet.poem("seek new", 2, 100));
+        poet.feed("seek brave new seek brave new");
+        assertEquals("Bridges remembered before a feed should not outlive it.",
+                "seek brave new", poet.poem("seek new", 2, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiWordBridgesRejectNonPositiveLength() throws IOException {
+        new GraphPoet(createTempFile("a b")).poem("a b", 0, 10);
+    }
+
+    @Test
+    public void testTopBridges() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("a x b a x b a y b a z b a z b"));
+        assertEquals(List.of(new Bridge<>("x", 4), new Bridge<>("z", 4)), poet.topBridges("A", "b", 2));
+        assertEquals("Ties should be broken alphabetically.",
+                List.of(new Bridge<>("x", 4), new Bridge<>("z", 4), new Bridge<>("y", 2)),
+                poet.topBridges("a", "B", 10));
+        assertEquals(List.of(), poet.topBridges("b", "missing", 3));
+    }
+
+    @Test
+    public void testTopBridgesAfterFeed() throws IOException {
+        GraphPoet poet = new GraphPoet(createTempFile("a x b"));
+        assertEquals(List.of(new Bridge<>("x", 2)), poet.topBridges("a", "b", 2));
+        poet.feed("a y b a y b");
+        assertEquals("Bridges should reflect the fed corpus.",
+                List.of(new Bridge<>("y", 4), new Bridge<>("x", 2)), poet.topBridges("a", "b", 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopBridgesRejectsNonPositiveK() throws IOException {
+        new GraphPoet(createTempFile("a b")).topBridges("a", "b", 0);
     }
 }
@@ -0,0 +1,157 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import graph.HashGraph;
+import graph.IndexedGraph;
+
+/**
+ * Tests for MarkovChain.
+ */
+public class MarkovChainTest {
+
+    // Testing strategy
+    //   build: empty graph; vertices with 0, 1, many targets; self-loop;
+    //          equal weights, skewed weights, weights near Integer.MAX_VALUE
+    //   id, label: label present, absent
+    //   next: vertex without targets; frequencies proportional to weights;
+    //         same seed gives the same steps, each along an edge
+
+    private static final int SAMPLES = 200_000;
+
+    /**
+     * Assert that steps from source land on each target about as often as
+     * its weight predicts: within 5 standard deviations of the expected
+     * count.
+     */
+    private static void assertFrequencies(IndexedGraph<String> graph, String source) {
+        MarkovChain<String> chain = MarkovChain.build(graph);
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            counts.merge(chain.label(chain.next(chain.id(source), random)), 1, Integer::sum);
+        }
+        Map<String, Integer> weights = graph.targets(source);
+        assertTrue(weights.keySet().containsAll(counts.keySet()));
+        double total = 0;
+        for (int weight : weights.values()) {
+            total += weight;
+        }
+        for (Map.Entry<String, Integer> edge : weights.entrySet()) {
+            double p = edge.getValue() / total;
+            double expected = SAMPLES * p;
+            double deviation = Math.sqrt(SAMPLES * p * (1 - p));
+            assertEquals("count of " + edge.getKey(), expected,
+                    counts.getOrDefault(edge.getKey(), 0), 5 * deviation + 1);
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        MarkovChain<String> chain = MarkovChain.build(new HashGraph<>());
+        assertEquals(0, chain.size());
+        assertEquals(-1, chain.id("a"));
+    }
+
+    @Test
+    public void testIdsAndLabels() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.add("c");
+        MarkovChain<String> chain = MarkovChain.build(graph);
+        assertEquals(3, chain.size());
+        for (String label : graph.vertices()) {
+            assertEquals(label, chain.label(chain.id(label)));
+        }
+        assertEquals(-1, chain.id("d"));
+    }
+
+    @Test
+    public void testNoTargets() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.add("c");
+        MarkovChain<String> chain = MarkovChain.build(graph);
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(-1, chain.next(chain.id("b"), random));
+        assertEquals(-1, chain.next(chain.id("c"), random));
+    }
+
+    @Test
+    public void testSingleTargetAlwaysChosen() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "a", 3);
+        MarkovChain<String> chain = MarkovChain.build(graph);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(chain.id("a"), chain.next(chain.id("a"), random));
+        }
+    }
+
+    @Test
+    public void testEqualWeights() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        for (int i = 0; i < 10; i++) {
+            graph.set("a", "t" + i, 4);
+        }
+        assertFrequencies(graph, "a");
+    }
+
+    @Test
+    public void testSkewedWeights() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "rare", 1);
+        graph.set("a", "common", 1000);
+        for (int i = 1; i <= 20; i++) {
+            graph.set("a", "t" + i, i * i);
+        }
+        graph.set("a", "a", 37);
+        assertFrequencies(graph, "a");
+    }
+
+    @Test
+    public void testHugeWeights() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", Integer.MAX_VALUE);
+        graph.set("a", "c", Integer.MAX_VALUE - 1);
+        graph.set("a", "d", Integer.MAX_VALUE / 2);
+        graph.set("a", "e", 1);
+        assertFrequencies(graph, "a");
+    }
+
+    @Test
+    public void testSameSeedSameWalk() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        SplittableRandom weights = new SplittableRandom(3);
+        for (int i = 0; i < 500; i++) {
+            graph.set("v" + weights.nextInt(30), "v" + weights.nextInt(30), 1 + weights.nextInt(9));
+        }
+        MarkovChain<String> chain = MarkovChain.build(graph);
+        SplittableRandom first = new SplittableRandom(7);
+        SplittableRandom second = new SplittableRandom(7);
+        int a = chain.id("v0");
+        int b = chain.id("v0");
+        for (int i = 0; i < 1000 && a >= 0; i++) {
+            int previous = a;
+            a = chain.next(a, first);
+            b = chain.next(b, second);
+            assertEquals(a, b);
+            if (a >= 0) {
+                assertTrue("expected a step along an edge",
+                        graph.weight(chain.label(previous), chain.label(a)) > 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.HashGraph;
+import graph.IndexedGraph;
+
+/**
+ * Tests for SortedAdjacency.
+ */
+public class SortedAdjacencyTest {
+
+    // Testing strategy
+    //   top: no bridges, fewer than k, exactly k, more than k; ties in
+    //        weight among bridges and among edges; k = 1, k large; k not
+    //        positive; word1 or word2 absent; bridge through word1 or word2
+    //   invalidate: edge added, changed; row built before the change, not
+    //               built
+
+    /**
+     * The top k bridges, found by trying every target of word1.
+     */
+    private static List<Bridge<String>> bruteForce(IndexedGraph<String> graph, String word1, String word2, int k) {
+        List<Bridge<String>> bridges = new ArrayList<>();
+        graph.forEachTarget(word1, (candidate, first) -> {
+            int second = graph.weight(candidate, word2);
+            if (second > 0) {
+                bridges.add(new Bridge<>(candidate, first + second));
+            }
+        });
+        bridges.sort(Comparator.comparingInt((Bridge<String> bridge) -> bridge.weight()).reversed()
+                .thenComparing(Bridge::word));
+        return bridges.subList(0, Math.min(k, bridges.size()));
+    }
+
+    private static SortedAdjacency<String> index(IndexedGraph<String> graph) {
+        return new SortedAdjacency<>(graph, Comparator.naturalOrder());
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoBridges() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("c", "d", 1);
+        assertEquals(List.of(), index(graph).top("a", "d", 3));
+        assertEquals(List.of(), index(graph).top("x", "y", 3));
+    }
+
+    @Test
+    public void testOrderedByWeightThenWord() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "z", 2);
+        graph.set("z", "c", 2);
+        graph.set("a", "y", 1);
+        graph.set("y", "c", 3);
+        graph.set("a", "m", 5);
+        graph.set("m", "c", 1);
+        graph.set("a", "lonely", 100);
+        assertEquals(List.of(new Bridge<>("m", 6), new Bridge<>("y", 4), new Bridge<>("z", 4)),
+                index(graph).top("a", "c", 5));
+        assertEquals(List.of(new Bridge<>("m", 6), new Bridge<>("y", 4)), index(graph).top("a", "c", 2));
+    }
+
+    @Test
+    public void testBridgeThroughEnds() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 3);
+        graph.set("b", "b", 4);
+        assertEquals(List.of(new Bridge<>("b", 7), new Bridge<>("a", 5)), index(graph).top("a", "b", 2));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(19);
+        for (int trial = 0; trial < 50; trial++) {
+            IndexedGraph<String> graph = new HashGraph<>();
+            int labels = 5 + random.nextInt(40);
+            for (int i = 0; i < 400; i++) {
+                graph.set("v" + random.nextInt(labels), "v" + random.nextInt(labels), 1 + random.nextInt(6));
+            }
+            SortedAdjacency<String> index = index(graph);
+            for (int pair = 0; pair < 20; pair++) {
+                String word1 = "v" + random.nextInt(labels);
+                String word2 = "v" + random.nextInt(labels);
+                for (int k : new int[] { 1, 2, 5, 100 }) {
+                    assertEquals(word1 + " -> " + word2 + ", k = " + k,
+                            bruteForce(graph, word1, word2, k), index.top(word1, word2, k));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidate() {
+        IndexedGraph<String> graph = new HashGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        SortedAdjacency<String> index = index(graph);
+        assertEquals(List.of(new Bridge<>("b", 2)), index.top("a", "c", 2));
+        graph.set("a", "x", 5);
+        graph.set("x", "c", 5);
+        graph.set("b", "c", 2);
+        index.invalidate(Map.of("a", Set.of("x"), "x", Set.of("c"), "b", Set.of("c")));
+        assertEquals(List.of(new Bridge<>("x", 10), new Bridge<>("b", 3)), index.top("a", "c", 2));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testKNotPositive() {
+        index(new HashGraph<>()).top("a", "b", 0);
+    }
+
+}
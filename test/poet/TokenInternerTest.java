@@ -0,0 +1,130 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import graph.ConcurrentGraph;
+import graph.MappedGraph;
+
+/**
+ * Tests for TokenInterner and TokenDictionary.
+ */
+public class TokenInternerTest {
+
+    // Testing strategy
+    //   intern: new word, word already interned; more words than the
+    //           initial capacity
+    //   id: word present, absent
+    //   word, size: empty dictionary, nonempty
+    //   concurrency: many threads interning overlapping words
+    //   TokenDictionary.of: snapshot empty, nonempty; word present, absent
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TokenInterner tokens = new TokenInterner();
+        assertEquals(0, tokens.size());
+        assertNull(tokens.id("a"));
+    }
+
+    @Test
+    public void testIdsInOrderOfInterning() {
+        TokenInterner tokens = new TokenInterner();
+        assertEquals(Integer.valueOf(0), tokens.intern("to"));
+        assertEquals(Integer.valueOf(1), tokens.intern("explore"));
+        assertEquals(Integer.valueOf(0), tokens.intern("to"));
+        assertEquals(2, tokens.size());
+        assertEquals("explore", tokens.word(1));
+        assertEquals(Integer.valueOf(1), tokens.id("explore"));
+        assertNull(tokens.id("worlds"));
+    }
+
+    @Test
+    public void testSameInstance() {
+        TokenInterner tokens = new TokenInterner();
+        for (int i = 0; i < 1000; i++) {
+            tokens.intern("w" + i);
+        }
+        assertSame(tokens.intern("w500"), tokens.intern(new String("w500")));
+        assertSame(tokens.intern("w999"), tokens.id("w999"));
+    }
+
+    @Test
+    public void testGrows() {
+        TokenInterner tokens = new TokenInterner();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), tokens.intern("w" + i));
+        }
+        assertEquals(1000, tokens.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("w" + i, tokens.word(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentInterning() throws InterruptedException, ExecutionException {
+        TokenInterner tokens = new TokenInterner();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t * 1000;
+                results.add(executor.submit(() -> {
+                    List<Integer> ids = new ArrayList<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        String word = "w" + ((offset + i) % 5000);
+                        Integer id = tokens.intern(word);
+                        assertEquals(word, tokens.word(id));
+                        ids.add(id);
+                    }
+                    return ids;
+                }));
+            }
+            Set<Integer> seen = new HashSet<>();
+            for (Future<List<Integer>> result : results) {
+                seen.addAll(result.get());
+            }
+            assertEquals(5000, tokens.size());
+            assertEquals(5000, seen.size());
+            for (int i = 0; i < 5000; i++) {
+                assertEquals(Integer.valueOf(i), tokens.id(tokens.word(i)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDictionaryOfSnapshot() throws IOException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        graph.set("strange", "new", 1);
+        graph.set("new", "worlds", 2);
+        File file = File.createTempFile("tokens", ".graph");
+        file.deleteOnExit();
+        MappedGraph.write(graph, file.toPath());
+        MappedGraph snapshot = MappedGraph.open(file.toPath());
+        TokenDictionary tokens = TokenDictionary.of(snapshot);
+        assertEquals(3, tokens.size());
+        for (String word : List.of("strange", "new", "worlds")) {
+            assertEquals(word, tokens.word(tokens.id(word)));
+        }
+        assertNull(tokens.id("explore"));
+    }
+
+}
@@ -0,0 +1,76 @@
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for WordScanner.
+ */
+public class WordScannerTest {
+    
+    // Testing strategy
+    //   text: empty, only separators, leading/trailing separators, mixed
+    //         separator characters, non-\s whitespace
+    //   words: shorter than, equal to, longer than the buffer; mixed case
+    //   buffer size: 1, small, default
+    
+    private static List<String> scan(String text, int bufferSize) throws IOException {
+        WordScanner scanner = new WordScanner(new StringReader(text), bufferSize);
+        List<String> words = new ArrayList<>();
+        for (String word = scanner.next(); word != null; word = scanner.next()) {
+            words.add(word);
+        }
+        return words;
+    }
+    
+    private static List<String> split(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.split("\\s+")) {
+            if (!word.isBlank()) {
+                words.add(word.toLowerCase());
+            }
+        }
+        return words;
+    }
+    
+    @Test
+    public void testEmptyAndSeparatorsOnly() throws IOException {
+        assertEquals(List.of(), scan("", 4));
+        assertEquals(List.of(), scan(" \t\r\n\f\u000B ", 4));
+    }
+    
+    @Test
+    public void testMatchesSplit() throws IOException {
+        String[] texts = {
+            "Hello world",
+            "  leading and trailing  ",
+            "tabs\tand\r\nnewlines\u000Bvt\fff",
+            "no-break\u00A0space stays in a word",
+            "em\u2003space \u2003 alone is blank",
+            "MiXeD CaSe \u00C0\u00C9\u00CE",
+            "averyveryverylongwordthatspansbuffers short",
+        };
+        for (String text : texts) {
+            for (int bufferSize : new int[] { 1, 3, 8192 }) {
+                assertEquals("text " + Arrays.asList(text) + ", buffer " + bufferSize,
+                        split(text), scan(text, bufferSize));
+            }
+        }
+    }
+    
+    @Test
+    public void testEndOfText() throws IOException {
+        WordScanner scanner = new WordScanner(new StringReader("one"));
+        assertEquals("one", scanner.next());
+        assertNull(scanner.next());
+        assertNull(scanner.next());
+    }
+    
+}